@@ -0,0 +1,61 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeping characters in the order of rows while they walk, as {@link TendiwaStage} does with {@link ActorRows} (it
+ * used to sort all its actors by y each frame instead).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ActorRowsBenchmark {
+private static final int WORLD_HEIGHT = 200;
+@Param({"50", "500"})
+public int numberOfCharacters;
+private ActorRows rows;
+private StillActor[] actors;
+private int[] actorRows;
+private Random random;
+
+@Setup
+public void setUp() {
+	random = new Random(1);
+	rows = new ActorRows(WORLD_HEIGHT);
+	actors = new StillActor[numberOfCharacters];
+	actorRows = new int[numberOfCharacters];
+	for (int i = 0; i < numberOfCharacters; i++) {
+		actors[i] = new StillActor();
+		actorRows[i] = random.nextInt(WORLD_HEIGHT);
+		rows.put(actors[i], actorRows[i]);
+	}
+}
+
+/**
+ * Every character makes a step: a third go north, a third go south, the rest stay in their row.
+ */
+@Benchmark
+public ActorRows moveAll() {
+	for (int i = 0; i < numberOfCharacters; i++) {
+		int y = actorRows[i] + random.nextInt(3) - 1;
+		if (y >= 0 && y < WORLD_HEIGHT) {
+			actorRows[i] = y;
+			rows.put(actors[i], y);
+		}
+	}
+	return rows;
+}
+
+private static class StillActor extends Actor implements QueuedActor {
+	@Override
+	public void submit(RenderQueue queue, int depth) {
+	}
+}
+}
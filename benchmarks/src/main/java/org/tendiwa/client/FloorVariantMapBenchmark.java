@@ -0,0 +1,64 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.tendiwa.core.FloorType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iterating over cells of the viewport and choosing an image of floor for each one, as {@link FloorLayer} does when it
+ * bakes chunks: {@link #computeViewport()} for cells seen for the first time, {@link #readViewport()} for cells whose
+ * images are already chosen.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class FloorVariantMapBenchmark {
+private static final int VIEWPORT_WIDTH = 40;
+private static final int VIEWPORT_HEIGHT = 25;
+private static final int VARIANTS = 4;
+private SyntheticPlane plane;
+private FloorType[] floorTypes;
+private FloorVariantMap variants;
+
+@Setup
+public void setUp() {
+	plane = new SyntheticPlane(200, 200, 1);
+	// Floor types are only used as keys, so mocks are enough and backend doesn't have to be loaded.
+	floorTypes = new FloorType[SyntheticPlane.NUMBER_OF_FLOORS];
+	TextureRegion[][] regions = new TextureRegion[floorTypes.length][VARIANTS];
+	for (int i = 0; i < floorTypes.length; i++) {
+		floorTypes[i] = Mockito.mock(FloorType.class);
+		for (int j = 0; j < VARIANTS; j++) {
+			regions[i][j] = new TextureRegion();
+		}
+	}
+	variants = new FloorVariantMap(new FloorTextures(floorTypes, regions), plane.width, plane.height);
+	readViewport();
+}
+
+@Benchmark
+public int computeViewport() {
+	variants.forgetAll();
+	return readViewport();
+}
+
+@Benchmark
+public int readViewport() {
+	int startX = (plane.width - VIEWPORT_WIDTH) / 2;
+	int startY = (plane.height - VIEWPORT_HEIGHT) / 2;
+	int sum = 0;
+	for (int y = startY; y < startY + VIEWPORT_HEIGHT; y++) {
+		for (int x = startX; x < startX + VIEWPORT_WIDTH; x++) {
+			FloorType floorType = floorTypes[plane.floors[y * plane.width + x]];
+			sum += System.identityHashCode(variants.getRegion(floorType, x, y));
+		}
+	}
+	return sum;
+}
+}
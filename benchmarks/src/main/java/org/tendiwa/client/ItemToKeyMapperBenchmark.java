@@ -0,0 +1,49 @@
+package org.tendiwa.client;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updating key mappings of a full inventory, as item selection screens do each time they are opened: {@link
+ * #updateUnchanged()} when the inventory stays the same, {@link #updateWithOneItemReplaced()} when an item is gone and
+ * another one appeared.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ItemToKeyMapperBenchmark {
+private static final int INVENTORY_SIZE = 40;
+private ItemToKeyMapper<Object> mapper;
+private List<Object> items;
+private int nextReplaced;
+
+@Setup
+public void setUp() {
+	mapper = new ItemToKeyMapper<>();
+	items = new ArrayList<>();
+	for (int i = 0; i < INVENTORY_SIZE; i++) {
+		items.add(new Object());
+	}
+	mapper.update(items);
+}
+
+@Benchmark
+public ItemToKeyMapper<Object> updateUnchanged() {
+	mapper.update(items);
+	return mapper;
+}
+
+@Benchmark
+public ItemToKeyMapper<Object> updateWithOneItemReplaced() {
+	items.set(nextReplaced, new Object());
+	nextReplaced = (nextReplaced + 1) % INVENTORY_SIZE;
+	mapper.update(items);
+	return mapper;
+}
+}
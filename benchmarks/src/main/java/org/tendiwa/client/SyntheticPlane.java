@@ -0,0 +1,119 @@
+package org.tendiwa.client;
+
+import java.util.Random;
+
+/**
+ * A plane generated from a seed that stands in for {@link org.tendiwa.core.clients.RenderPlane} and {@link
+ * org.tendiwa.core.World} of backend in benchmarks: rooms separated by walls with doorways, a few kinds of floor, a
+ * seen area around the center and a visible area inside it.
+ */
+class SyntheticPlane implements NeighborMasks.Plane {
+static final int NUMBER_OF_FLOORS = 3;
+private static final int ROOM_SIZE = 8;
+final int width;
+final int height;
+final boolean[] walls;
+final boolean[] seen;
+final boolean[] visible;
+/**
+ * Index of floor in each cell, from 0 to {@link #NUMBER_OF_FLOORS} exclusive.
+ */
+final int[] floors;
+
+/**
+ * @param width
+ * 	Width of the plane in cells.
+ * @param height
+ * 	Height of the plane in cells.
+ * @param seed
+ * 	Seed of randomness, so the same arguments give the same plane.
+ */
+SyntheticPlane(int width, int height, long seed) {
+	this.width = width;
+	this.height = height;
+	walls = new boolean[width * height];
+	seen = new boolean[width * height];
+	visible = new boolean[width * height];
+	floors = new int[width * height];
+	Random random = new Random(seed);
+	int centerX = width / 2;
+	int centerY = height / 2;
+	int seenRadius = Math.min(width, height) / 3;
+	int visibleRadius = seenRadius / 2;
+	for (int x = 0; x < width; x++) {
+		for (int y = 0; y < height; y++) {
+			int index = y * width + x;
+			boolean onRoomBorder = x % ROOM_SIZE == 0 || y % ROOM_SIZE == 0;
+			walls[index] = onRoomBorder ? random.nextInt(5) != 0 : random.nextInt(40) == 0;
+			floors[index] = (x / 5 + y / 7) % NUMBER_OF_FLOORS;
+			int dx = x - centerX;
+			int dy = y - centerY;
+			int squaredDistance = dx * dx + dy * dy;
+			seen[index] = squaredDistance <= seenRadius * seenRadius;
+			visible[index] = squaredDistance <= visibleRadius * visibleRadius && random.nextInt(6) != 0;
+		}
+	}
+}
+
+/**
+ * Computes a mask of a cell with {@link NeighborMasks#compute(NeighborMasks.Plane, int, int, int, int)}, the same code
+ * that computes masks of real planes.
+ *
+ * @param x
+ * 	X coordinate of a cell.
+ * @param y
+ * 	Y coordinate of a cell.
+ * @return Mask of the cell.
+ */
+int mask(int x, int y) {
+	return NeighborMasks.compute(this, width, height, x, y);
+}
+
+@Override
+public boolean isSeen(int x, int y) {
+	return seen[y * width + x];
+}
+
+@Override
+public boolean isVisible(int x, int y) {
+	return visible[y * width + x];
+}
+
+@Override
+public boolean hasRememberedWall(int x, int y) {
+	return walls[y * width + x];
+}
+
+@Override
+public boolean hasWall(int x, int y) {
+	return walls[y * width + x];
+}
+
+@Override
+public boolean hasSameFloor(int x, int y, int otherX, int otherY) {
+	return floors[y * width + x] == floors[otherY * width + otherX];
+}
+
+/**
+ * @return Masks of all the seen cells with walls, in the order of rows.
+ */
+int[] seenWallMasks() {
+	int count = 0;
+	for (int i = 0; i < walls.length; i++) {
+		if (walls[i] && seen[i]) {
+			count++;
+		}
+	}
+	int[] masks = new int[count];
+	int next = 0;
+	for (int y = 0; y < height; y++) {
+		for (int x = 0; x < width; x++) {
+			int index = y * width + x;
+			if (walls[index] && seen[index]) {
+				masks[next++] = mask(x, y);
+			}
+		}
+	}
+	return masks;
+}
+}
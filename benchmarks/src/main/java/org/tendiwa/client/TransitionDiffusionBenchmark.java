@@ -0,0 +1,47 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import org.openjdk.jmh.annotations.*;
+import org.tendiwa.core.CardinalDirection;
+import org.tendiwa.core.Directions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generating pixels of transitions to a floor in all 4 directions, as {@link TransitionsToFloor} does for each floor
+ * type when there is nothing in {@link TransitionDiskCache}. Pixmaps are native, but don't need a GL context.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TransitionDiffusionBenchmark {
+private static final CardinalDirection[] DIRECTIONS = {Directions.N, Directions.E, Directions.S, Directions.W};
+private Pixmap pixmap;
+
+@Setup
+public void setUp() {
+	GdxNativesLoader.load();
+	pixmap = new Pixmap(TransitionPregenerator.TILE_SIZE, TransitionPregenerator.TILE_SIZE, Pixmap.Format.RGBA8888);
+	Pixmap.setBlending(Pixmap.Blending.None);
+}
+
+@TearDown
+public void tearDown() {
+	pixmap.dispose();
+}
+
+@Benchmark
+public Pixmap diffuseAllDirections() {
+	for (CardinalDirection dir : DIRECTIONS) {
+		// A floor image is opaque before it is diffused.
+		pixmap.setColor(1, 1, 1, 1);
+		pixmap.fill();
+		TransitionsToFloor.diffuse(pixmap, dir);
+	}
+	return pixmap;
+}
+}
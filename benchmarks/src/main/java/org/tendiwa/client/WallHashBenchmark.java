@@ -0,0 +1,33 @@
+package org.tendiwa.client;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computing image hashes of all the seen walls of a plane, as {@link WallLayer} and {@link WallImagePregenerator} do
+ * for walls in the viewport every frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class WallHashBenchmark {
+private int[] masks;
+
+@Setup
+public void setUp() {
+	masks = new SyntheticPlane(200, 200, 1).seenWallMasks();
+}
+
+@Benchmark
+public int computeWallHashes() {
+	int sum = 0;
+	for (int mask : masks) {
+		sum += WallLayer.computeWallHash(mask);
+	}
+	return sum;
+}
+}
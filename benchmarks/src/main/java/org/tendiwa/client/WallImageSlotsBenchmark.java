@@ -0,0 +1,70 @@
+package org.tendiwa.client;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bookkeeping of {@link WallImageCache}: looking up cached images by hash, and putting new images into a full cache
+ * so older ones are evicted.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class WallImageSlotsBenchmark {
+/**
+ * How many new images are put into the cache each frame of {@link #churn()}.
+ */
+private static final int NEW_IMAGES_PER_FRAME = 16;
+@Param({"64", "512"})
+public int capacity;
+private WallImageSlots slots;
+/**
+ * Hashes of walls of a synthetic plane, as they are looked up during a frame.
+ */
+private int[] frameHashes;
+private int nextNewHash;
+
+@Setup
+public void setUp() {
+	int[] masks = new SyntheticPlane(200, 200, 1).seenWallMasks();
+	frameHashes = new int[masks.length];
+	for (int i = 0; i < masks.length; i++) {
+		frameHashes[i] = WallLayer.computeWallHash(masks[i]);
+	}
+	slots = new WallImageSlots();
+	slots.addSlots(capacity);
+	for (int hash : frameHashes) {
+		if (!slots.contains(hash) && !slots.needsMoreSlots(false)) {
+			slots.occupy(hash);
+		}
+	}
+	// Hashes of real walls are below 1 << 19, so these never collide with them.
+	nextNewHash = 1 << 20;
+}
+
+@Benchmark
+public int lookUpFrame() {
+	slots.nextFrame();
+	int found = 0;
+	for (int hash : frameHashes) {
+		if (slots.find(hash) != -1) {
+			found++;
+		}
+	}
+	return found;
+}
+
+@Benchmark
+public int churn() {
+	slots.nextFrame();
+	int sum = 0;
+	for (int i = 0; i < NEW_IMAGES_PER_FRAME; i++) {
+		sum += slots.occupy(nextNewHash++);
+	}
+	return sum;
+}
+}
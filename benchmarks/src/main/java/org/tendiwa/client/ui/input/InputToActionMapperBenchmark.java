@@ -0,0 +1,92 @@
+package org.tendiwa.client.ui.input;
+
+import com.badlogic.gdx.Input;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding actions for pressed keys with a keymap about as big as the one of the standard actions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class InputToActionMapperBenchmark {
+private InputToActionMapper mapper;
+/**
+ * Keys pressed during a benchmark invocation: every mapped key and some unmapped ones.
+ */
+private int[] keycodes;
+
+@Setup
+public void setUp() {
+	mapper = new InputToActionMapper(createInputWithoutPressedKeys());
+	for (int keycode = Input.Keys.A; keycode <= Input.Keys.Z; keycode++) {
+		mapper.putAction(keycode, new NoAction());
+		mapper.putAction(Modifiers.shift + keycode, new NoAction());
+	}
+	for (int keycode = Input.Keys.F1; keycode <= Input.Keys.F12; keycode++) {
+		mapper.putAction(keycode, new NoAction());
+	}
+	keycodes = new int[Input.Keys.F12 + 1];
+	for (int i = 0; i < keycodes.length; i++) {
+		keycodes[i] = i;
+	}
+}
+
+/**
+ * Makes an {@link Input} that tells that no key is pressed, so the mapper can be used without a libgdx application.
+ */
+private static Input createInputWithoutPressedKeys() {
+	return (Input) Proxy.newProxyInstance(
+		Input.class.getClassLoader(),
+		new Class<?>[]{Input.class},
+		new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				Class<?> type = method.getReturnType();
+				if (type == boolean.class) {
+					return false;
+				}
+				if (type == int.class) {
+					return 0;
+				}
+				if (type == long.class) {
+					return 0L;
+				}
+				if (type == float.class) {
+					return 0f;
+				}
+				return null;
+			}
+		}
+	);
+}
+
+@Benchmark
+public int getActions() {
+	int found = 0;
+	for (int keycode : keycodes) {
+		if (mapper.getAction(keycode) != null) {
+			found++;
+		}
+	}
+	return found;
+}
+
+private static class NoAction extends KeyboardAction {
+	private NoAction() {
+		super("action.benchmark");
+	}
+
+	@Override
+	public void act() {
+	}
+}
+}
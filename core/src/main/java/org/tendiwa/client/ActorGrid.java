@@ -0,0 +1,154 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Spatial index of actors that stay in a single cell, like objects and border objects. The world is divided
+ * into square chunks of {@link #CHUNK_SIZE} cells, and each chunk holds its actors by rows, so {@link TendiwaStage} can
+ * act and draw only actors in chunks near the viewport, in the order of rows.
+ * <p>
+ * Actors in this grid are not children of stage's root group.
+ */
+public class ActorGrid {
+public static final int CHUNK_SIZE = 16;
+private final int widthInChunks;
+private final int heightInChunks;
+/**
+ * Chunks indexed by {@code chunkY * widthInChunks + chunkX}; a chunk is created when the first actor is added to it.
+ */
+private final ActorChunk[] chunks;
+
+/**
+ * @param worldWidth
+ * 	Width of the world in cells.
+ * @param worldHeight
+ * 	Height of the world in cells.
+ */
+public ActorGrid(int worldWidth, int worldHeight) {
+	widthInChunks = (worldWidth + CHUNK_SIZE - 1) / CHUNK_SIZE;
+	heightInChunks = (worldHeight + CHUNK_SIZE - 1) / CHUNK_SIZE;
+	chunks = new ActorChunk[widthInChunks * heightInChunks];
+}
+
+/**
+ * Puts an actor into a cell.
+ *
+ * @param actor
+ * 	An actor.
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ */
+public <T extends Actor & QueuedActor> void add(T actor, int x, int y) {
+	int index = chunkIndex(x, y);
+	ActorChunk chunk = chunks[index];
+	if (chunk == null) {
+		chunk = new ActorChunk();
+		chunks[index] = chunk;
+	}
+	chunk.rows[y % CHUNK_SIZE].add(actor);
+}
+
+/**
+ * Removes an actor from a cell it was put into with {@link #add(Actor, int, int)}.
+ *
+ * @param actor
+ * 	An actor.
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ */
+public void remove(Actor actor, int x, int y) {
+	ActorChunk chunk = chunks[chunkIndex(x, y)];
+	if (chunk != null) {
+		chunk.rows[y % CHUNK_SIZE].removeValue(actor, true);
+	}
+}
+
+private int chunkIndex(int x, int y) {
+	return y / CHUNK_SIZE * widthInChunks + x / CHUNK_SIZE;
+}
+
+/**
+ * Calls {@link Actor#act(float)} of all the actors in chunks that intersect a rectangle.
+ *
+ * @param delta
+ * 	Time in seconds since the last frame.
+ * @param startX
+ * 	X coordinate of the rectangle's top left cell.
+ * @param startY
+ * 	Y coordinate of the rectangle's top left cell.
+ * @param endX
+ * 	X coordinate of the cell right after the rectangle's right edge.
+ * @param endY
+ * 	Y coordinate of the cell right after the rectangle's bottom edge.
+ */
+public void act(float delta, int startX, int startY, int endX, int endY) {
+	int startChunkX = Math.max(startX, 0) / CHUNK_SIZE;
+	int startChunkY = Math.max(startY, 0) / CHUNK_SIZE;
+	int endChunkX = Math.min((endX - 1) / CHUNK_SIZE, widthInChunks - 1);
+	int endChunkY = Math.min((endY - 1) / CHUNK_SIZE, heightInChunks - 1);
+	for (int chunkY = startChunkY; chunkY <= endChunkY; chunkY++) {
+		for (int chunkX = startChunkX; chunkX <= endChunkX; chunkX++) {
+			ActorChunk chunk = chunks[chunkY * widthInChunks + chunkX];
+			if (chunk == null) {
+				continue;
+			}
+			for (Array<Actor> row : chunk.rows) {
+				// Backwards, so an actor may remove itself from the grid during its act().
+				for (int i = row.size - 1; i >= 0; i--) {
+					row.get(i).act(delta);
+				}
+			}
+		}
+	}
+}
+
+/**
+ * Submits visible actors in a single row of cells to a render queue.
+ *
+ * @param queue
+ * 	Queue of the current frame.
+ * @param y
+ * 	Y coordinate of the row in world coordinates.
+ * @param startX
+ * 	X coordinate of the first cell to draw.
+ * @param endX
+ * 	X coordinate of the cell right after the last cell to draw.
+ */
+public void submitRow(RenderQueue queue, int y, int startX, int endX) {
+	if (y < 0 || y >= heightInChunks * CHUNK_SIZE) {
+		return;
+	}
+	int chunkY = y / CHUNK_SIZE;
+	int startChunkX = Math.max(startX, 0) / CHUNK_SIZE;
+	int endChunkX = Math.min((endX - 1) / CHUNK_SIZE, widthInChunks - 1);
+	for (int chunkX = startChunkX; chunkX <= endChunkX; chunkX++) {
+		ActorChunk chunk = chunks[chunkY * widthInChunks + chunkX];
+		if (chunk == null) {
+			continue;
+		}
+		Array<Actor> row = chunk.rows[y % CHUNK_SIZE];
+		for (int i = 0; i < row.size; i++) {
+			Actor actor = row.get(i);
+			if (actor.isVisible()) {
+				((QueuedActor) actor).submit(queue, y);
+			}
+		}
+	}
+}
+
+private static class ActorChunk {
+	@SuppressWarnings("unchecked")
+	private final Array<Actor>[] rows = new Array[CHUNK_SIZE];
+
+	private ActorChunk() {
+		for (int i = 0; i < CHUNK_SIZE; i++) {
+			rows[i] = new Array<>(false, 4);
+		}
+	}
+}
+}
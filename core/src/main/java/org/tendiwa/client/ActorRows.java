@@ -0,0 +1,105 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Keeps moving actors in buckets by the rows of cells they are in, so {@link TendiwaStage} can draw them in the order of
+ * rows without sorting. Moving an actor to another row takes time proportional only to the number of actors in its
+ * previous row.
+ * <p>
+ * While an actor is animated between cells, it belongs to the row its animated position is in, see {@link
+ * #rowOf(Actor)}; the owner of the rows moves it there each frame.
+ */
+public class ActorRows {
+private final Array<Actor>[] rows;
+private final ObjectIntMap<Actor> actor2row = new ObjectIntMap<>();
+
+/**
+ * @param worldHeight
+ * 	Height of the world in cells.
+ */
+@SuppressWarnings("unchecked")
+public ActorRows(int worldHeight) {
+	rows = new Array[worldHeight];
+	for (int i = 0; i < worldHeight; i++) {
+		rows[i] = new Array<>(false, 4);
+	}
+}
+
+/**
+ * Computes the row an actor's current, possibly animated, position is in. An actor crosses into the next row halfway
+ * between two cells, so during a move it is drawn at the depth of the cell it is closer to.
+ *
+ * @param actor
+ * 	An actor whose coordinates are in cells.
+ * @return Y coordinate of the row in world coordinates.
+ */
+public static int rowOf(Actor actor) {
+	return Math.round(actor.getY());
+}
+
+/**
+ * Puts an actor into a row, or moves it there if it is already in another row.
+ *
+ * @param actor
+ * 	An actor.
+ * @param y
+ * 	Y coordinate of the row in world coordinates.
+ */
+public <T extends Actor & QueuedActor> void put(T actor, int y) {
+	int previousRow = actor2row.get(actor, -1);
+	if (previousRow == y) {
+		return;
+	}
+	if (previousRow != -1) {
+		rows[previousRow].removeValue(actor, true);
+	}
+	rows[y].add(actor);
+	actor2row.put(actor, y);
+}
+
+/**
+ * Removes an actor from its row, if it is in any.
+ *
+ * @param actor
+ * 	An actor.
+ */
+public void remove(Actor actor) {
+	int row = actor2row.remove(actor, -1);
+	if (row != -1) {
+		rows[row].removeValue(actor, true);
+	}
+}
+
+/**
+ * @param actor
+ * 	An actor.
+ * @return true if the actor is in some row, false otherwise.
+ */
+public boolean contains(Actor actor) {
+	return actor2row.containsKey(actor);
+}
+
+/**
+ * Submits visible actors in a row to a render queue.
+ *
+ * @param queue
+ * 	Queue of the current frame.
+ * @param y
+ * 	Y coordinate of the row in world coordinates.
+ */
+public void submitRow(RenderQueue queue, int y) {
+	if (y < 0 || y >= rows.length) {
+		return;
+	}
+	Array<Actor> row = rows[y];
+	for (int i = 0; i < row.size; i++) {
+		Actor actor = row.get(i);
+		if (actor.isVisible()) {
+			((QueuedActor) actor).submit(queue, y);
+		}
+	}
+}
+}
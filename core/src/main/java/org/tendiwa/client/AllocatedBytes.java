@@ -0,0 +1,63 @@
+package org.tendiwa.client;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Tells how many bytes of heap the current thread has allocated so far, so code can be checked for allocating in every
+ * frame. Works on JVMs that implement {@link com.sun.management.ThreadMXBean}; on others nothing is counted.
+ */
+public final class AllocatedBytes {
+private static final com.sun.management.ThreadMXBean threads = findThreadMXBean();
+/**
+ * Bytes {@link #ofCurrentThread()} allocates itself, which {@link #since(long)} doesn't count.
+ */
+private static final long overhead = measureOverhead();
+
+private AllocatedBytes() {
+}
+
+private static com.sun.management.ThreadMXBean findThreadMXBean() {
+	java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+	if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+		return null;
+	}
+	com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+	if (!threads.isThreadAllocatedMemorySupported()) {
+		return null;
+	}
+	threads.setThreadAllocatedMemoryEnabled(true);
+	return threads;
+}
+
+private static long measureOverhead() {
+	long overhead = Long.MAX_VALUE;
+	for (int i = 0; i < 16; i++) {
+		long start = ofCurrentThread();
+		overhead = Math.min(overhead, ofCurrentThread() - start);
+	}
+	return overhead;
+}
+
+public static boolean isSupported() {
+	return threads != null;
+}
+
+/**
+ * @return Bytes allocated by the current thread since it started, or 0 if that can't be known.
+ */
+public static long ofCurrentThread() {
+	if (threads == null) {
+		return 0;
+	}
+	return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+}
+
+/**
+ * @param start
+ * 	A value of {@link #ofCurrentThread()}.
+ * @return Bytes the current thread has allocated since then.
+ */
+public static long since(long start) {
+	return Math.max(0, ofCurrentThread() - start - overhead);
+}
+}
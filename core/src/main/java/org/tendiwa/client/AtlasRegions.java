@@ -0,0 +1,120 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.google.inject.Singleton;
+import org.tendiwa.core.BorderObject;
+import org.tendiwa.core.CardinalDirection;
+import org.tendiwa.core.GameObject;
+import org.tendiwa.core.ItemType;
+import org.tendiwa.core.WallType;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Resolves types of items, objects, border objects and walls to their images in atlases. {@link
+ * TextureAtlas#findRegion(String)} scans all the regions of an atlas comparing names, so here it is called only once per
+ * type, and after that an image is found by the type's identity.
+ * <p>
+ * Types live in backend and have no ids, so they are resolved lazily, the first time an image of a type is requested.
+ */
+@Singleton
+public class AtlasRegions {
+/**
+ * Images of a wall type are indexed by 4 bits, one for each side with a neighbor of the same type (or unknown), in the
+ * order of {@link CardinalDirection#getCardinalIndex()}.
+ */
+public static final int WALL_VARIANTS = 16;
+private final Map<ItemType, TextureAtlas.AtlasRegion> items = new IdentityHashMap<>();
+private final Map<Object, TextureAtlas.AtlasRegion> objects = new IdentityHashMap<>();
+/**
+ * Two images for each border object type: for vertical and for horizontal sides.
+ */
+private final Map<Object, TextureAtlas.AtlasRegion[]> borderObjects = new IdentityHashMap<>();
+private final Map<WallType, TextureAtlas.AtlasRegion[]> walls = new IdentityHashMap<>();
+
+/**
+ * @param type
+ * 	Type of an item.
+ * @return Image of that item type, or null if there is none.
+ */
+public TextureAtlas.AtlasRegion getItemRegion(ItemType type) {
+	TextureAtlas.AtlasRegion region = items.get(type);
+	if (region == null && !items.containsKey(type)) {
+		region = AtlasItems.getInstance().findRegion(type.getResourceName());
+		items.put(type, region);
+	}
+	return region;
+}
+
+/**
+ * @param object
+ * 	An object standing in a cell.
+ * @return Image of the object's type, or null if there is none.
+ */
+public TextureAtlas.AtlasRegion getObjectRegion(GameObject object) {
+	Object type = object.getType();
+	TextureAtlas.AtlasRegion region = objects.get(type);
+	if (region == null && !objects.containsKey(type)) {
+		region = AtlasObjects.getInstance().findRegion(object.getType().getResourceName());
+		objects.put(type, region);
+	}
+	return region;
+}
+
+/**
+ * @param object
+ * 	An object on a border.
+ * @param side
+ * 	Side of a cell the border is on.
+ * @return Image of the object's type for that side.
+ */
+public TextureAtlas.AtlasRegion getBorderObjectRegion(BorderObject object, CardinalDirection side) {
+	Object type = object.getType();
+	TextureAtlas.AtlasRegion[] regions = borderObjects.get(type);
+	if (regions == null) {
+		String name = object.getType().getResourceName();
+		regions = new TextureAtlas.AtlasRegion[]{
+			AtlasBorderObjects.getInstance().findRegion(name + "_hor"),
+			AtlasBorderObjects.getInstance().findRegion(name + "_ver")
+		};
+		borderObjects.put(type, regions);
+	}
+	return regions[side.isVertical() ? 0 : 1];
+}
+
+/**
+ * @param type
+ * 	Type of a wall.
+ * @param sameNeighbors
+ * 	4 bits, one for each side with a neighbor of the same type, see {@link #WALL_VARIANTS}.
+ * @return Image of a wall of that type that joins its neighbors from those sides.
+ */
+public TextureAtlas.AtlasRegion getWallRegion(WallType type, int sameNeighbors) {
+	TextureAtlas.AtlasRegion[] regions = walls.get(type);
+	if (regions == null) {
+		regions = new TextureAtlas.AtlasRegion[WALL_VARIANTS];
+		for (int i = 0; i < WALL_VARIANTS; i++) {
+			regions[i] = AtlasWalls.getInstance().findRegion(type.getResourceName(), getWallImageIndex(i));
+		}
+		walls.put(type, regions);
+	}
+	return regions[sameNeighbors];
+}
+
+/**
+ * Converts neighbor bits to an index of a wall image in the atlas. In the atlas each side is a decimal digit: 1000 for
+ * north, 100 for east, 10 for south and 1 for west.
+ */
+private static int getWallImageIndex(int sameNeighbors) {
+	int index = 0;
+	int digit = 1000;
+	for (int i = 0; i < 4; i++) {
+		if ((sameNeighbors & (1 << i)) != 0) {
+			index += digit;
+		}
+		digit /= 10;
+	}
+	return index;
+}
+}
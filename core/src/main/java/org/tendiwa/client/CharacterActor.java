@@ -17,7 +17,7 @@ import org.tendiwa.core.observation.Finishable;
 import org.tendiwa.core.observation.Observable;
 import org.tendiwa.core.observation.Observer;
 
-public class CharacterActor extends Actor {
+public class CharacterActor extends Actor implements QueuedActor {
 private static final TextureAtlas atlasCharacters = AtlasCharacters.getInstance();
 private static final TextureAtlas atlasBodies = new TextureAtlas(Gdx.files.internal("pack/bodies.atlas"), true);
 private static final TextureAtlas atlasApparel = new TextureAtlas(Gdx.files.internal("pack/apparel.atlas"), true);
@@ -136,4 +136,23 @@ public void draw(Batch batch, float parentAlpha) {
 	);
 }
 
+@Override
+public void submit(RenderQueue queue, int depth) {
+	queue.submit(
+		RenderQueue.LAYER_CHARACTERS,
+		depth,
+		texture,
+		(int) (getX() * GameScreen.TILE_SIZE),
+		(int) (getY() * GameScreen.TILE_SIZE) - GameScreen.TILE_SIZE / 3,
+		getOriginX() * GameScreen.TILE_SIZE,
+		getOriginY() * GameScreen.TILE_SIZE,
+		GameScreen.TILE_SIZE,
+		GameScreen.TILE_SIZE,
+		getScaleX(),
+		getScaleY(),
+		getRotation(),
+		Dimming.NORMAL
+	);
+}
+
 }
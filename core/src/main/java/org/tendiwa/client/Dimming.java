@@ -0,0 +1,40 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.graphics.Color;
+
+/**
+ * Colors for drawing remembered things that are not seen now. Sprites are dimmed through their vertex color, which the
+ * default sprite shader multiplies texture color by, so dimmed and normal sprites can be drawn in the same batch
+ * without switching shaders.
+ */
+public final class Dimming {
+/**
+ * How bright a dimmed sprite is compared to a normal one.
+ */
+public static final float BRIGHTNESS = 0.6f;
+/**
+ * Packed color of a dimmed sprite.
+ */
+public static final float DIMMED = Color.toFloatBits(BRIGHTNESS, BRIGHTNESS, BRIGHTNESS, 1);
+/**
+ * Packed color of a normal sprite.
+ */
+public static final float NORMAL = Color.WHITE.toFloatBits();
+
+private Dimming() {
+}
+
+/**
+ * @param color
+ * 	Tint of a sprite.
+ * @param dimmed
+ * 	Whether the sprite should be dimmed.
+ * @return Packed tint, with rgb multiplied by {@link #BRIGHTNESS} if the sprite is dimmed.
+ */
+public static float toFloatBits(Color color, boolean dimmed) {
+	if (!dimmed) {
+		return color.toFloatBits();
+	}
+	return Color.toFloatBits(color.r * BRIGHTNESS, color.g * BRIGHTNESS, color.b * BRIGHTNESS, color.a);
+}
+}
@@ -0,0 +1,177 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import org.tendiwa.core.World;
+
+import java.util.BitSet;
+
+/**
+ * Remembers which cells of the current plane have changed since the last frame, so layers may repaint only those
+ * parts of the screen that need it. {@link TendiwaStage} marks cells here when it receives events from backend, layers
+ * read from it during drawing, and {@link GameScreen} clears it after each frame.
+ */
+@Singleton
+public class DirtyCellTracker {
+private final int width;
+private final int height;
+private final BitSet dirty;
+/**
+ * Same cells as in {@link DirtyCellTracker#dirty}, but in the form of list of cell indices so they can be iterated
+ * over and cleared without walking the whole bit set.
+ */
+private final IntArray dirtyCells = new IntArray();
+private boolean allDirty = false;
+private int minX;
+private int minY;
+private int maxX;
+private int maxY;
+
+@Inject
+DirtyCellTracker(@Named("current_player_world") World world) {
+	this.width = world.getWidth();
+	this.height = world.getHeight();
+	dirty = new BitSet(width * height);
+	resetBounds();
+}
+
+/**
+ * Marks a single cell as changed.
+ *
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ */
+public void markCell(int x, int y) {
+	if (x < 0 || y < 0 || x >= width || y >= height) {
+		return;
+	}
+	int index = y * width + x;
+	if (dirty.get(index)) {
+		return;
+	}
+	dirty.set(index);
+	dirtyCells.add(index);
+	if (x < minX) {
+		minX = x;
+	}
+	if (y < minY) {
+		minY = y;
+	}
+	if (x > maxX) {
+		maxX = x;
+	}
+	if (y > maxY) {
+		maxY = y;
+	}
+}
+
+/**
+ * Marks a cell as changed given its coordinates packed the way backend packs them in {@link
+ * org.tendiwa.core.events.EventFovChange#unseenCells} (see {@link org.tendiwa.core.Chunk#cellHash(int, int, int)}).
+ *
+ * @param cellHash
+ * 	Packed coordinates of a cell.
+ */
+public void markCellHash(int cellHash) {
+	markCell(cellHash / height, cellHash % height);
+}
+
+/**
+ * Marks the whole plane as changed, e.g. when player moves to another plane.
+ */
+public void markAll() {
+	allDirty = true;
+}
+
+public boolean isAllDirty() {
+	return allDirty;
+}
+
+public boolean isAnyDirty() {
+	return allDirty || dirtyCells.size > 0;
+}
+
+public boolean isDirty(int x, int y) {
+	return allDirty || x >= 0 && y >= 0 && x < width && y < height && dirty.get(y * width + x);
+}
+
+/**
+ * Checks if any changed cell may lie inside a rectangle. The check is made against the bounding rectangle of all the
+ * changed cells, so it may give false positives, but never false negatives.
+ *
+ * @param startX
+ * 	X coordinate of the rectangle's top left cell.
+ * @param startY
+ * 	Y coordinate of the rectangle's top left cell.
+ * @param endX
+ * 	X coordinate of the cell right after the rectangle's right edge.
+ * @param endY
+ * 	Y coordinate of the cell right after the rectangle's bottom edge.
+ * @return true if there may be a changed cell in the rectangle, false if there certainly are none.
+ */
+public boolean intersects(int startX, int startY, int endX, int endY) {
+	if (allDirty) {
+		return true;
+	}
+	return dirtyCells.size > 0
+		&& minX < endX && maxX >= startX
+		&& minY < endY && maxY >= startY;
+}
+
+/**
+ * @return X coordinate of the leftmost changed cell. Meaningless if there are no changed cells.
+ */
+public int getMinX() {
+	return minX;
+}
+
+public int getMinY() {
+	return minY;
+}
+
+public int getMaxX() {
+	return maxX;
+}
+
+public int getMaxY() {
+	return maxY;
+}
+
+/**
+ * @return Number of cells marked with {@link #markCell(int, int)}; doesn't account for {@link #markAll()}.
+ */
+public int getNumberOfDirtyCells() {
+	return dirtyCells.size;
+}
+
+public int getDirtyCellX(int i) {
+	return dirtyCells.get(i) % width;
+}
+
+public int getDirtyCellY(int i) {
+	return dirtyCells.get(i) / width;
+}
+
+/**
+ * Forgets all the changes. Called once all the layers have drawn the current frame.
+ */
+public void clear() {
+	for (int i = 0; i < dirtyCells.size; i++) {
+		dirty.clear(dirtyCells.get(i));
+	}
+	dirtyCells.clear();
+	allDirty = false;
+	resetBounds();
+}
+
+private void resetBounds() {
+	minX = Integer.MAX_VALUE;
+	minY = Integer.MAX_VALUE;
+	maxX = Integer.MIN_VALUE;
+	maxY = Integer.MIN_VALUE;
+}
+}
@@ -0,0 +1,146 @@
+package org.tendiwa.client;
+
+import org.tendiwa.geometry.Cell;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+/**
+ * Distances in steps from the origin of a {@link WalkabilitySnapshot} to its other cells. All steps, diagonal ones
+ * included, cost the same, so Dijkstra's algorithm comes down to a breadth-first search.
+ * <p>
+ * A path from the origin to any cell is then found by walking distances down from that cell, in time proportional to
+ * the length of the path. A map never changes once computed, so it may be computed on one thread and read on another.
+ */
+public final class DistanceMap {
+/**
+ * Distance to cells that can't be reached.
+ */
+public static final int UNREACHABLE = -1;
+/**
+ * Offsets to neighbors, orthogonal ones first, so paths don't zigzag where they don't have to.
+ */
+private static final int[] stepsX = {0, 1, 0, -1, 1, 1, -1, -1};
+private static final int[] stepsY = {-1, 0, 1, 0, -1, 1, 1, -1};
+private final int originX;
+private final int originY;
+private final int startX;
+private final int startY;
+private final int width;
+private final int height;
+/**
+ * Distances to cells of the snapshot's rectangle, in the order of rows.
+ */
+private final int[] distances;
+
+/**
+ * Computes distances. Takes time proportional to the area of the snapshot.
+ *
+ * @param snapshot
+ * 	Cells that can be stepped on.
+ */
+public DistanceMap(WalkabilitySnapshot snapshot) {
+	originX = snapshot.getOriginX();
+	originY = snapshot.getOriginY();
+	startX = snapshot.getStartX();
+	startY = snapshot.getStartY();
+	width = snapshot.getWidth();
+	height = snapshot.getHeight();
+	distances = new int[width * height];
+	Arrays.fill(distances, UNREACHABLE);
+	int[] queue = new int[width * height];
+	int originIndex = (originY - startY) * width + originX - startX;
+	distances[originIndex] = 0;
+	queue[0] = originIndex;
+	int head = 0;
+	int tail = 1;
+	while (head < tail) {
+		int index = queue[head++];
+		int localX = index % width;
+		int localY = index / width;
+		int nextDistance = distances[index] + 1;
+		for (int i = 0; i < stepsX.length; i++) {
+			int neighborX = localX + stepsX[i];
+			int neighborY = localY + stepsY[i];
+			if (neighborX < 0 || neighborY < 0 || neighborX >= width || neighborY >= height) {
+				continue;
+			}
+			int neighbor = neighborY * width + neighborX;
+			if (distances[neighbor] != UNREACHABLE || !snapshot.isWalkable(neighborX + startX, neighborY + startY)) {
+				continue;
+			}
+			distances[neighbor] = nextDistance;
+			queue[tail++] = neighbor;
+		}
+	}
+}
+
+public int getOriginX() {
+	return originX;
+}
+
+public int getOriginY() {
+	return originY;
+}
+
+/**
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ * @return true if the cell is inside the rectangle distances were computed in.
+ */
+public boolean contains(int x, int y) {
+	return x >= startX && y >= startY && x < startX + width && y < startY + height;
+}
+
+/**
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ * @return Number of steps from the origin to the cell, or {@link #UNREACHABLE}.
+ */
+public int getDistance(int x, int y) {
+	return getLocalDistance(x - startX, y - startY);
+}
+
+/**
+ * Finds the shortest path from the origin to a cell.
+ *
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ * @return Cells from the one to step to first to the destination inclusive (empty if the destination is the origin),
+ * or null if the cell can't be reached.
+ */
+public LinkedList<Cell> getPath(int x, int y) {
+	int localX = x - startX;
+	int localY = y - startY;
+	int distance = getLocalDistance(localX, localY);
+	if (distance == UNREACHABLE) {
+		return null;
+	}
+	LinkedList<Cell> path = new LinkedList<>();
+	while (distance > 0) {
+		path.addFirst(new Cell(localX + startX, localY + startY));
+		for (int i = 0; i < stepsX.length; i++) {
+			if (getLocalDistance(localX + stepsX[i], localY + stepsY[i]) == distance - 1) {
+				localX += stepsX[i];
+				localY += stepsY[i];
+				break;
+			}
+		}
+		distance--;
+	}
+	return path;
+}
+
+private int getLocalDistance(int localX, int localY) {
+	if (localX < 0 || localY < 0 || localX >= width || localY >= height) {
+		return UNREACHABLE;
+	}
+	return distances[localY * width + localX];
+}
+}
@@ -0,0 +1,258 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Holds floor geometry of {@link FloorLayer} baked into a single {@link SpriteCache}, one group of caches per square
+ * chunk of {@link FloorChunkCache#CHUNK_SIZE} cells. All chunks share the same SpriteCache, so each group of geometry of
+ * all the visible chunks is drawn between a single pair of {@link SpriteCache#begin()} and {@link SpriteCache#end()}.
+ * <p>
+ * Chunks are taken from a bounded pool: when the pool is exhausted, the least recently used chunk is reused for another
+ * part of the world. A chunk is baked again only after it has been invalidated with {@link #invalidateCell(int, int)}
+ * or {@link #invalidateAll()}, so frames where nothing changes only submit already baked chunks.
+ */
+public class FloorChunkCache implements Disposable {
+public static final int CHUNK_SIZE = 16;
+/**
+ * Number of groups geometry of each chunk is split into.
+ */
+public static final int GROUPS = 4;
+/**
+ * How many sprites each group of a chunk may hold at most: groups 0 and 1 hold a floor tile per cell, groups 2 and 3
+ * hold a transition from each of 4 sides per cell.
+ */
+private static final int[] MAX_SPRITES_IN_GROUP = {
+	CHUNK_SIZE * CHUNK_SIZE,
+	CHUNK_SIZE * CHUNK_SIZE,
+	CHUNK_SIZE * CHUNK_SIZE * 4,
+	CHUNK_SIZE * CHUNK_SIZE * 4
+};
+private static final int MAX_SPRITES_PER_CHUNK = CHUNK_SIZE * CHUNK_SIZE * 10;
+private final int widthInChunks;
+private final int heightInChunks;
+private final int capacity;
+/**
+ * Chunks that currently hold baked geometry, indexed by {@code chunkY * widthInChunks + chunkX}.
+ */
+private final FloorChunk[] grid;
+private final Array<FloorChunk> pool;
+private final SpriteCache cache;
+/**
+ * Any region, used to fill caches up to their maximum size when they are defined.
+ */
+private final TextureRegion placeholder;
+/**
+ * Number of caches defined in {@link #cache}. Ids of caches go from 0 up, so the last one defined is this minus 1.
+ */
+private int definedCaches = 0;
+private int spritesInGroup;
+private long currentFrame = 0;
+
+/**
+ * @param worldWidth
+ * 	Width of the world in cells.
+ * @param worldHeight
+ * 	Height of the world in cells.
+ * @param capacity
+ * 	Maximum number of chunks that hold baked geometry at the same time. Should be greater than the number of chunks
+ * 	that may be visible in a single frame.
+ * @param placeholder
+ * 	Any region of the texture floors are taken from.
+ */
+public FloorChunkCache(int worldWidth, int worldHeight, int capacity, TextureRegion placeholder) {
+	this.widthInChunks = (worldWidth + CHUNK_SIZE - 1) / CHUNK_SIZE;
+	this.heightInChunks = (worldHeight + CHUNK_SIZE - 1) / CHUNK_SIZE;
+	this.capacity = capacity;
+	this.placeholder = placeholder;
+	grid = new FloorChunk[widthInChunks * heightInChunks];
+	pool = new Array<>(false, capacity);
+	// Without indices, because indices of a SpriteCache may address at most 8191 sprites.
+	cache = new SpriteCache(capacity * MAX_SPRITES_PER_CHUNK, false);
+}
+
+public int getCapacity() {
+	return capacity;
+}
+
+public SpriteCache getSpriteCache() {
+	return cache;
+}
+
+/**
+ * Advances frame counter. Chunks obtained after this call are considered used in the new frame.
+ */
+public void nextFrame() {
+	currentFrame++;
+}
+
+/**
+ * Returns a chunk with the specified chunk coordinates. If that chunk has no baked geometry yet, then some chunk is
+ * taken from the pool and marked as dirty, so it should be baked before being drawn.
+ *
+ * @param chunkX
+ * 	X coordinate of a chunk (world x coordinate divided by {@link #CHUNK_SIZE}).
+ * @param chunkY
+ * 	Y coordinate of a chunk (world y coordinate divided by {@link #CHUNK_SIZE}).
+ * @return A chunk at that position.
+ */
+public FloorChunk obtain(int chunkX, int chunkY) {
+	int index = chunkY * widthInChunks + chunkX;
+	FloorChunk chunk = grid[index];
+	if (chunk == null) {
+		chunk = takeFromPool();
+		chunk.assign(chunkX, chunkY);
+		grid[index] = chunk;
+	}
+	chunk.lastUsedFrame = currentFrame;
+	return chunk;
+}
+
+/**
+ * Creates a new chunk while the pool isn't full, otherwise takes the least recently used one. That may be a chunk used
+ * in the current frame if more chunks are visible than the pool was sized for; then part of the floor is missing for a
+ * frame, which is better than not drawing the frame at all.
+ */
+private FloorChunk takeFromPool() {
+	if (pool.size < capacity) {
+		FloorChunk chunk = new FloorChunk();
+		pool.add(chunk);
+		return chunk;
+	}
+	FloorChunk leastRecentlyUsed = pool.first();
+	for (FloorChunk chunk : pool) {
+		if (chunk.lastUsedFrame < leastRecentlyUsed.lastUsedFrame) {
+			leastRecentlyUsed = chunk;
+		}
+	}
+	grid[leastRecentlyUsed.chunkY * widthInChunks + leastRecentlyUsed.chunkX] = null;
+	return leastRecentlyUsed;
+}
+
+/**
+ * Starts baking a group of a chunk's geometry. Sprites are added with {@link #add(TextureRegion, float, float)} until
+ * {@link #endBaking(FloorChunk, int)}.
+ *
+ * @param chunk
+ * 	A chunk to bake.
+ * @param group
+ * 	Index of a group, from 0 to {@link #GROUPS} exclusive.
+ */
+public void beginBaking(FloorChunk chunk, int group) {
+	spritesInGroup = 0;
+	if (chunk.cacheIds[group] == -1) {
+		cache.beginCache();
+	} else {
+		cache.beginCache(chunk.cacheIds[group]);
+	}
+}
+
+public void add(TextureRegion region, float x, float y) {
+	cache.add(region, x, y);
+	spritesInGroup++;
+}
+
+/**
+ * Finishes baking a group of a chunk's geometry.
+ * <p>
+ * A SpriteCache may redefine a cache only with as many sprites as the cache was defined with, except for the last
+ * defined cache which is defined anew each time. So new caches and the last one are filled up to the group's maximum
+ * with sprites of zero size.
+ *
+ * @param chunk
+ * 	A chunk being baked.
+ * @param group
+ * 	Index of a group passed to {@link #beginBaking(FloorChunk, int)}.
+ */
+public void endBaking(FloorChunk chunk, int group) {
+	int cacheId = chunk.cacheIds[group];
+	if (cacheId == -1 || cacheId == definedCaches - 1) {
+		for (int i = spritesInGroup; i < MAX_SPRITES_IN_GROUP[group]; i++) {
+			cache.add(placeholder, 0, 0, 0, 0);
+		}
+	}
+	int id = cache.endCache();
+	if (cacheId == -1) {
+		chunk.cacheIds[group] = id;
+		definedCaches++;
+	}
+}
+
+/**
+ * Marks chunks that depend on a cell as needing to be baked again. Images of a cell depend on its 4 neighbors (floor
+ * transitions, floor under walls), so chunks of the neighbors are invalidated as well.
+ *
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ */
+public void invalidateCell(int x, int y) {
+	invalidateChunkOfCell(x, y);
+	invalidateChunkOfCell(x + 1, y);
+	invalidateChunkOfCell(x - 1, y);
+	invalidateChunkOfCell(x, y + 1);
+	invalidateChunkOfCell(x, y - 1);
+}
+
+private void invalidateChunkOfCell(int x, int y) {
+	if (x < 0 || y < 0) {
+		return;
+	}
+	int chunkX = x / CHUNK_SIZE;
+	int chunkY = y / CHUNK_SIZE;
+	if (chunkX >= widthInChunks || chunkY >= heightInChunks) {
+		return;
+	}
+	FloorChunk chunk = grid[chunkY * widthInChunks + chunkX];
+	if (chunk != null) {
+		chunk.dirty = true;
+	}
+}
+
+/**
+ * Marks all the chunks as needing to be baked again, e.g. when player moves to another plane.
+ */
+public void invalidateAll() {
+	for (FloorChunk chunk : pool) {
+		chunk.dirty = true;
+	}
+}
+
+@Override
+public void dispose() {
+	cache.dispose();
+	pool.clear();
+}
+
+/**
+ * A square of cells whose floor geometry is baked into {@link #GROUPS} caches of the shared {@link SpriteCache}, so
+ * liquid floors and transitions to liquid floors may be drawn with a different shader.
+ */
+static class FloorChunk {
+	/**
+	 * Ids of caches in the shared SpriteCache, indexed by group, or -1 for groups that haven't been baked yet.
+	 */
+	final int[] cacheIds = {-1, -1, -1, -1};
+	int chunkX;
+	int chunkY;
+	boolean dirty;
+	long lastUsedFrame;
+
+	private void assign(int chunkX, int chunkY) {
+		this.chunkX = chunkX;
+		this.chunkY = chunkY;
+		dirty = true;
+	}
+
+	int getStartX() {
+		return chunkX * CHUNK_SIZE;
+	}
+
+	int getStartY() {
+		return chunkY * CHUNK_SIZE;
+	}
+}
+}
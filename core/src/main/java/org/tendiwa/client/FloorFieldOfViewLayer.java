@@ -10,8 +10,6 @@ import com.bitfire.postprocessing.PostProcessor;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
-import org.tendiwa.core.clients.RenderCell;
-import org.tendiwa.core.clients.RenderWorld;
 import org.tendiwa.core.meta.CellPosition;
 
 @Singleton
@@ -23,7 +21,6 @@ private final ShaderProgram notYetSeenShader;
 private final Texture blackOpaqueTexture;
 private final Batch batch;
 private final CellPosition player;
-private final RenderWorld renderWorld;
 private final FrameBuffer depthTestFrameBuffer;
 private final PostProcessor postProcessor;
 private final ShaderProgram halfTransparencyShader;
@@ -32,28 +29,53 @@ private final GameScreenViewport viewport;
 private int uNotYetSeenCellsAnimationState;
 private int uNotYetSeenCellsTime;
 private boolean renderNotYetSeenCells = false;
+private final DirtyCellTracker dirtyCells;
+private boolean hasCachedImage = false;
+private int cachedStartPixelX;
+private int cachedStartPixelY;
+private int cachedPlayerX;
+private int cachedPlayerY;
+private final GraphicsConfig config;
+private final NeighborMasks neighborMasks;
+/**
+ * Darkness above cells that have been seen, but are not visible now. The same as in the cell by cell mode.
+ */
+private static final float SEEN_CELLS_DARKNESS = 0.4f;
+private final ShaderProgram fovCompositeShader;
+/**
+ * Field of view state of cells around the viewport, one pixel per cell; see {@link #uploadFovState(int, int)}.
+ */
+private final Pixmap fovStatePixmap;
+private final Texture fovStateTexture;
+private boolean hasUploadedFovState = false;
+private int fovStateOriginCellX;
+private int fovStateOriginCellY;
 
 @Inject
 FloorFieldOfViewLayer(
 	@Named("game_screen_batch") Batch batch,
 	@Named("player") CellPosition player,
-	RenderWorld renderWorld,
 	@Named("game_screen_depth_test_fb") FrameBuffer depthTestFrameBuffer,
 	@Named("game_screen_default_post_processor") PostProcessor postProcessor,
 	@Named("shader_half_transparency") ShaderProgram halfTransparencyShader,
 	@Named("shader_write_opaque_to_depth") ShaderProgram writeOpaqueToDepthShader,
 	GameScreenViewport viewport,
-	FovEdgeOpaque fovEdgeOpaque
+	FovEdgeOpaque fovEdgeOpaque,
+	DirtyCellTracker dirtyCells,
+	GraphicsConfig config,
+	NeighborMasks neighborMasks
 ) {
 	this.batch = batch;
 	this.player = player;
-	this.renderWorld = renderWorld;
 	this.depthTestFrameBuffer = depthTestFrameBuffer;
 	this.postProcessor = postProcessor;
 	this.halfTransparencyShader = halfTransparencyShader;
 	this.writeOpaqueToDepthShader = writeOpaqueToDepthShader;
 	this.viewport = viewport;
 	this.fovEdgeOpaque = fovEdgeOpaque;
+	this.dirtyCells = dirtyCells;
+	this.config = config;
+	this.neighborMasks = neighborMasks;
 	fullScreenQuad = createFullScreenQuad();
 	notYetSeenShader = new ShaderProgram(
 		Gdx.files.internal("shaders/noTransformation.v.glsl"),
@@ -62,6 +84,19 @@ FloorFieldOfViewLayer(
 	blackOpaqueTexture = createBlackTexture();
 	uNotYetSeenCellsAnimationState = notYetSeenShader.getUniformLocation("u_state");
 	uNotYetSeenCellsTime = notYetSeenShader.getUniformLocation("time");
+	fovCompositeShader = new ShaderProgram(
+		Gdx.files.internal("shaders/noTransformation.v.glsl"),
+		Gdx.files.internal("shaders/fovComposite.f.glsl")
+	);
+	// A margin of 1 cell on each side, and 2 more cells because viewport may render partially visible cells.
+	fovStatePixmap = new Pixmap(
+		viewport.getWindowWidthCells() + 4,
+		viewport.getWindowHeightCells() + 4,
+		Pixmap.Format.RGBA8888
+	);
+	fovStateTexture = new Texture(fovStatePixmap);
+	fovStateTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+	fovStateTexture.setWrap(Texture.TextureWrap.ClampToEdge, Texture.TextureWrap.ClampToEdge);
 }
 
 private Texture createBlackTexture() {
@@ -72,6 +107,17 @@ private Texture createBlackTexture() {
 }
 
 public void draw() {
+	if (config.gpuFieldOfView) {
+		// Cells may change while in this mode, and those changes won't be seen by the cached image.
+		hasCachedImage = false;
+		drawOnGpu();
+		return;
+	}
+	hasUploadedFovState = false;
+	if (isCachedImageValid()) {
+		drawCachedImage();
+		return;
+	}
 	postProcessor.captureEnd();
 	depthTestFrameBuffer.begin();
 
@@ -91,9 +137,9 @@ public void draw() {
 	int maxRenderCellY = viewport.getMaxRenderCellY();
 	for (int x = viewport.getStartCellX(); x < maxRenderCellX; x++) {
 		for (int y = viewport.getStartCellY(); y < maxRenderCellY; y++) {
-			RenderCell cell = renderWorld.getCurrentPlane().getCell(x, y);
-			if (cell != null) {
-				if (!cell.isVisible()) {
+			int mask = neighborMasks.get(x, y);
+			if ((mask & NeighborMasks.SEEN) != 0) {
+				if ((mask & NeighborMasks.VISIBLE) == 0) {
 					shapeRen.rect(
 						x * GameScreen.TILE_SIZE,
 						y * GameScreen.TILE_SIZE,
@@ -112,10 +158,10 @@ public void draw() {
 	fovEdgeOpaque.batch.begin();
 	for (int x = viewport.getStartCellX(); x < maxRenderCellX; x++) {
 		for (int y = viewport.getStartCellY(); y < maxRenderCellY; y++) {
-			RenderCell cell = renderWorld.getCurrentPlane().getCell(x, y);
-			if (cell != null && cell.isVisible()) {
-				boolean[] hasUnseenNeighbors = getHasUnseenNeighbors(x, y);
-				if (hasUnseenNeighbors[0] || hasUnseenNeighbors[1] || hasUnseenNeighbors[2] || hasUnseenNeighbors[3]) {
+			int mask = neighborMasks.get(x, y);
+			if ((mask & NeighborMasks.VISIBLE) != 0) {
+				int hasUnseenNeighbors = NeighborMasks.unseenNeighbors(mask);
+				if (hasUnseenNeighbors != 0) {
 					fovEdgeOpaque.drawTransitions(
 						fovEdgeOpaque.batch,
 						x * GameScreen.TILE_SIZE,
@@ -153,10 +199,10 @@ public void draw() {
 	Gdx.gl.glDepthMask(true);
 	for (int x = viewport.getStartCellX(); x < maxRenderCellX; x++) {
 		for (int y = viewport.getStartCellY(); y < maxRenderCellY; y++) {
-			RenderCell cell = renderWorld.getCurrentPlane().getCell(x, y);
-			if (cell != null) {
+			int mask = neighborMasks.get(x, y);
+			if ((mask & NeighborMasks.SEEN) != 0) {
 				int hashX, hashY;
-				if (cell.isVisible()) {
+				if ((mask & NeighborMasks.VISIBLE) != 0) {
 					// For visible cells
 					hashX = x + viewport.getWindowWidthCells() - player.getX();
 					hashY = y + viewport.getWindowHeightCells() - player.getY();
@@ -169,7 +215,7 @@ public void draw() {
 					fovEdgeOpaque.batch,
 					x * GameScreen.TILE_SIZE,
 					y * GameScreen.TILE_SIZE,
-					getHasNotYetSeenNeighbors(x, y),
+					NeighborMasks.notYetSeenNeighbors(mask),
 					hashX,
 					hashY
 				);
@@ -199,13 +245,103 @@ public void draw() {
 
 	depthTestFrameBuffer.end();
 	postProcessor.captureNoClear();
-
 	Gdx.gl.glDisable(GL20.GL_DEPTH_TEST);
+	hasCachedImage = true;
+	cachedStartPixelX = viewport.getStartPixelX();
+	cachedStartPixelY = viewport.getStartPixelY();
+	cachedPlayerX = player.getX();
+	cachedPlayerY = player.getY();
+	drawCachedImage();
+}
+
+/**
+ * Checks if the image rendered during one of the previous frames may be shown again. Transitions depend on player's
+ * position, so the image is rendered again not only when cells change, but also when player or camera moves. Animated
+ * not yet seen cells need rendering every frame.
+ *
+ * @return true if nothing that affects the image has changed since it was rendered, false otherwise.
+ */
+private boolean isCachedImageValid() {
+	return hasCachedImage
+		&& !renderNotYetSeenCells
+		&& cachedStartPixelX == viewport.getStartPixelX()
+		&& cachedStartPixelY == viewport.getStartPixelY()
+		&& cachedPlayerX == player.getX()
+		&& cachedPlayerY == player.getY()
+		// Transitions of a cell depend on its neighbors, hence the 1 cell margin.
+		&& !dirtyCells.intersects(
+		viewport.getStartCellX() - 1,
+		viewport.getStartCellY() - 1,
+		viewport.getMaxRenderCellX() + 1,
+		viewport.getMaxRenderCellY() + 1
+	);
+}
+
+private void drawCachedImage() {
 	batch.begin();
 	batch.draw(depthTestFrameBuffer.getColorBufferTexture(), viewport.getStartPixelX(), viewport.getStartPixelY());
 	batch.end();
 }
 
+/**
+ * Draws field of view in a single pass of {@link #fovCompositeShader} over the whole screen, right into the
+ * post-processor's capture buffer. The shader darkens cells according to {@link #fovStateTexture} and dithers edges
+ * between cells in different states.
+ */
+private void drawOnGpu() {
+	int originX = viewport.getStartCellX() - 1;
+	int originY = viewport.getStartCellY() - 1;
+	if (!hasUploadedFovState
+		|| originX != fovStateOriginCellX
+		|| originY != fovStateOriginCellY
+		|| dirtyCells.intersects(originX, originY, originX + fovStatePixmap.getWidth(), originY + fovStatePixmap.getHeight())) {
+		uploadFovState(originX, originY);
+	}
+	Gdx.gl.glEnable(GL20.GL_BLEND);
+	Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+	fovStateTexture.bind(0);
+	fovCompositeShader.begin();
+	fovCompositeShader.setUniformi("u_state", 0);
+	fovCompositeShader.setUniformf("u_startPixel", viewport.getStartPixelX(), viewport.getStartPixelY());
+	fovCompositeShader.setUniformf("u_windowHeight", viewport.getWindowHeightPixels());
+	fovCompositeShader.setUniformf("u_originCell", originX, originY);
+	fovCompositeShader.setUniformf("u_stateSize", fovStatePixmap.getWidth(), fovStatePixmap.getHeight());
+	fovCompositeShader.setUniformf("u_tileSize", GameScreen.TILE_SIZE);
+	fovCompositeShader.setUniformf("u_seenDarkness", SEEN_CELLS_DARKNESS);
+	fullScreenQuad.render(fovCompositeShader, GL20.GL_TRIANGLE_FAN);
+	fovCompositeShader.end();
+}
+
+/**
+ * Writes state of each cell around the viewport into {@link #fovStatePixmap} and uploads it to {@link
+ * #fovStateTexture}. Red channel is set for visible cells, green channel is set for cells that have been seen.
+ *
+ * @param originX
+ * 	X coordinate of the cell that goes into the top left pixel.
+ * @param originY
+ * 	Y coordinate of the cell that goes into the top left pixel.
+ */
+private void uploadFovState(int originX, int originY) {
+	int width = fovStatePixmap.getWidth();
+	int height = fovStatePixmap.getHeight();
+	for (int x = 0; x < width; x++) {
+		for (int y = 0; y < height; y++) {
+			int mask = neighborMasks.get(originX + x, originY + y);
+			int state = 0x000000ff;
+			if ((mask & NeighborMasks.VISIBLE) != 0) {
+				state = 0xffff00ff;
+			} else if ((mask & NeighborMasks.SEEN) != 0) {
+				state = 0x00ff00ff;
+			}
+			fovStatePixmap.drawPixel(x, y, state);
+		}
+	}
+	fovStateTexture.draw(fovStatePixmap, 0, 0);
+	hasUploadedFovState = true;
+	fovStateOriginCellX = originX;
+	fovStateOriginCellY = originY;
+}
+
 private float computeNotYetSeenCellsAnimationState(int frequency) {
 	return (float) ((Math.PI * 2 / 2000 * frequency) * System.currentTimeMillis() % (Math.PI * 2));
 }
@@ -246,22 +382,4 @@ public Mesh createFullScreenQuad() {
 	mesh.setVertices(verts);
 	return mesh;
 }
-
-private boolean[] getHasNotYetSeenNeighbors(int x, int y) {
-	return new boolean[]{
-		!renderWorld.getCurrentPlane().hasCell(x, y - 1),
-		!renderWorld.getCurrentPlane().hasCell(x + 1, y),
-		!renderWorld.getCurrentPlane().hasCell(x, y + 1),
-		!renderWorld.getCurrentPlane().hasCell(x - 1, y)
-	};
-}
-
-private boolean[] getHasUnseenNeighbors(int x, int y) {
-	return new boolean[]{
-		renderWorld.getCurrentPlane().hasCell(x, y - 1) && !renderWorld.getCurrentPlane().getCell(x, y - 1).isVisible(),
-		renderWorld.getCurrentPlane().hasCell(x + 1, y) && !renderWorld.getCurrentPlane().getCell(x + 1, y).isVisible(),
-		renderWorld.getCurrentPlane().hasCell(x, y + 1) && !renderWorld.getCurrentPlane().getCell(x, y + 1).isVisible(),
-		renderWorld.getCurrentPlane().hasCell(x - 1, y) && !renderWorld.getCurrentPlane().getCell(x - 1, y).isVisible()
-	};
-}
 }
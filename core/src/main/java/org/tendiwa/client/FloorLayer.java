@@ -1,8 +1,9 @@
 package org.tendiwa.client;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Pixmap;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
@@ -16,31 +17,36 @@ import org.tendiwa.client.ui.factories.FloorTransitionsProvidersRegistry;
 import org.tendiwa.core.*;
 import org.tendiwa.core.clients.RenderCell;
 import org.tendiwa.core.clients.RenderWorld;
-import org.tendiwa.groovy.Registry;
 
-import java.util.HashMap;
 import java.util.Map;
 
 @Singleton
 public class FloorLayer {
-private final World world;
+/**
+ * Size of the world, read once, since it is needed every frame.
+ */
+private final int worldWidth;
+private final int worldHeight;
 private final RenderWorld renderWorld;
 private final GameScreenViewport viewport;
 private final Logger logger;
 private final ShaderProgram defaultShader;
 private final FloorTransitionsProvidersRegistry registry;
 private final GraphicsConfig config;
-private final TextureAtlas atlasFloors;
-private final SpriteBatch batch;
+/**
+ * Any floor image, used to fill caches up to their maximum size.
+ */
+private final TextureRegion placeholder;
 private final int transitionsAtlasSize = 1024;
 private final FrameBuffer transitionsFrameBuffer;
-private final FloorType[] floorsFrom4Sides = new FloorType[4];
 private final ShaderProgram liquidFloorAnimateShader;
 private final int uWaveState;
-private Map<FloorType, Map<Integer, TextureRegion>> floorRegions = new HashMap<>();
-private Map<FloorType, Integer> floorIndices = new HashMap<>();
+private final Array<FloorChunkCache.FloorChunk> visibleChunks = new Array<>(false, 16);
+private FloorChunkCache chunks;
+private final DirtyCellTracker dirtyCells;
+private final NeighborMasks neighborMasks;
+private final FloorVariantMap floorVariants;
 private Map<FloorType, TransitionsToFloor> floorTransitionsProviders;
-private boolean animateLiquidFloor;
 
 @Inject
 public FloorLayer(
@@ -51,79 +57,204 @@ public FloorLayer(
 	@Named("shader_liquid_floor_animate") ShaderProgram liquidFloorAnimateShader,
 	@Named("shader_default") ShaderProgram defaultShader,
 	FloorTransitionsProvidersRegistry registry,
-	GraphicsConfig config
+	GraphicsConfig config,
+	DirtyCellTracker dirtyCells,
+	NeighborMasks neighborMasks
 ) {
-	this.world = world;
+	this(
+		world,
+		renderWorld,
+		viewport,
+		logger,
+		liquidFloorAnimateShader,
+		defaultShader,
+		registry,
+		config,
+		dirtyCells,
+		neighborMasks,
+		new FloorTextures(new TextureAtlas(Gdx.files.internal("pack/floors.atlas"), true), logger)
+	);
+}
+
+/**
+ * Makes a floor layer with floor images that are not loaded from the atlas, e.g. for tests.
+ *
+ * @param floorTextures
+ * 	Images of all the floor types.
+ */
+FloorLayer(
+	World world,
+	RenderWorld renderWorld,
+	GameScreenViewport viewport,
+	Logger logger,
+	ShaderProgram liquidFloorAnimateShader,
+	ShaderProgram defaultShader,
+	FloorTransitionsProvidersRegistry registry,
+	GraphicsConfig config,
+	DirtyCellTracker dirtyCells,
+	NeighborMasks neighborMasks,
+	FloorTextures floorTextures
+) {
+	this.worldWidth = world.getWidth();
+	this.worldHeight = world.getHeight();
 	this.renderWorld = renderWorld;
 	this.viewport = viewport;
 	this.logger = logger;
 	this.defaultShader = defaultShader;
 	this.registry = registry;
 	this.config = config;
-	atlasFloors = new TextureAtlas(Gdx.files.internal("pack/floors.atlas"), true);
-	cacheRegions();
-	batch = new SpriteBatch();
+	this.dirtyCells = dirtyCells;
+	this.neighborMasks = neighborMasks;
+	placeholder = floorTextures.getRegion(0, 0);
+	floorVariants = new FloorVariantMap(floorTextures, worldWidth, worldHeight);
 	transitionsFrameBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, viewport.getWindowWidthPixels(), viewport.getWindowHeightPixels(), false);
 	this.liquidFloorAnimateShader = liquidFloorAnimateShader;
 	uWaveState = liquidFloorAnimateShader.getUniformLocation("waveState");
+	int chunksOnScreenX = viewport.getWindowWidthCells() / FloorChunkCache.CHUNK_SIZE + 2;
+	int chunksOnScreenY = viewport.getWindowHeightCells() / FloorChunkCache.CHUNK_SIZE + 2;
+	chunks = createChunks(chunksOnScreenX * chunksOnScreenY);
+}
+
+/**
+ * Creates a cache that may keep twice as many chunks baked as there may be on screen, so chunks just left behind by
+ * the camera don't have to be baked again when it comes back.
+ *
+ * @param chunksOnScreen
+ * 	How many chunks may be visible in a single frame.
+ */
+private FloorChunkCache createChunks(int chunksOnScreen) {
+	return new FloorChunkCache(
+		worldWidth,
+		worldHeight,
+		chunksOnScreen * 2,
+		placeholder
+	);
 }
 
 void draw() {
 	// Config is read once per frame
-	animateLiquidFloor = config.animateLiquidFloor;
+	boolean animateLiquidFloor = config.animateLiquidFloor;
 	if (animateLiquidFloor) {
 		liquidFloorAnimateShader.begin();
 		liquidFloorAnimateShader.setUniformf(
 			uWaveState, waveState(0.5f)
 		);
 		liquidFloorAnimateShader.end();
-	} else {
-		batch.setShader(defaultShader);
 	}
-	batch.setProjectionMatrix(viewport.getCamera().combined);
-	batch.begin();
-	drawFloors(false);
-	if (animateLiquidFloor) {
-		batch.setShader(liquidFloorAnimateShader);
-		drawFloors(true);
-		batch.setShader(defaultShader);
+	int startChunkX = Math.max(viewport.getStartCellX(), 0) / FloorChunkCache.CHUNK_SIZE;
+	int startChunkY = Math.max(viewport.getStartCellY(), 0) / FloorChunkCache.CHUNK_SIZE;
+	int endChunkX = (Math.min(viewport.getMaxRenderCellX(), worldWidth) - 1) / FloorChunkCache.CHUNK_SIZE;
+	int endChunkY = (Math.min(viewport.getMaxRenderCellY(), worldHeight) - 1) / FloorChunkCache.CHUNK_SIZE;
+	int chunksOnScreen = (endChunkX - startChunkX + 1) * (endChunkY - startChunkY + 1);
+	if (chunksOnScreen > chunks.getCapacity()) {
+		// Viewport has grown beyond what the cache was sized for; everything is baked anew in a bigger one.
+		logger.info("Floor chunk cache grows to " + chunksOnScreen * 2 + " chunks");
+		chunks.dispose();
+		chunks = createChunks(chunksOnScreen);
 	}
-	drawTransitions(false);
-	if (animateLiquidFloor) {
-		batch.setShader(liquidFloorAnimateShader);
-		drawTransitions(true);
+	invalidateChangedChunks();
+	chunks.nextFrame();
+	visibleChunks.clear();
+	for (int chunkX = startChunkX; chunkX <= endChunkX; chunkX++) {
+		for (int chunkY = startChunkY; chunkY <= endChunkY; chunkY++) {
+			FloorChunkCache.FloorChunk chunk = chunks.obtain(chunkX, chunkY);
+			if (chunk.dirty) {
+				bakeChunk(chunk);
+			}
+			visibleChunks.add(chunk);
+		}
 	}
-	batch.end();
-	if (animateLiquidFloor) {
-		batch.setShader(defaultShader);
+	// SpriteCache, unlike SpriteBatch, doesn't enable blending by itself, and transitions are half-transparent.
+	Gdx.gl.glEnable(GL20.GL_BLEND);
+	Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+	ShaderProgram liquidShader = animateLiquidFloor ? liquidFloorAnimateShader : defaultShader;
+	// The same order as if everything was drawn cell by cell: all floors first, then all transitions.
+	drawChunks(defaultShader, FloorPass.SOLID_FLOORS);
+	drawChunks(liquidShader, FloorPass.LIQUID_FLOORS);
+	drawChunks(defaultShader, FloorPass.SOLID_TRANSITIONS);
+	drawChunks(liquidShader, FloorPass.LIQUID_TRANSITIONS);
+}
+
+/**
+ * Makes chunks with cells that have changed since the last frame be baked again.
+ */
+private void invalidateChangedChunks() {
+	if (dirtyCells.isAllDirty()) {
+		chunks.invalidateAll();
+		floorVariants.forgetAll();
+		return;
+	}
+	for (int i = 0, n = dirtyCells.getNumberOfDirtyCells(); i < n; i++) {
+		int x = dirtyCells.getDirtyCellX(i);
+		int y = dirtyCells.getDirtyCellY(i);
+		chunks.invalidateCell(x, y);
+		floorVariants.forget(x, y);
 	}
 }
 
+/**
+ * Draws one group of geometry of all the visible chunks.
+ */
+private void drawChunks(ShaderProgram shader, FloorPass pass) {
+	SpriteCache cache = chunks.getSpriteCache();
+	cache.setShader(shader);
+	cache.setProjectionMatrix(viewport.getCamera().combined);
+	cache.begin();
+	for (int i = 0; i < visibleChunks.size; i++) {
+		cache.draw(visibleChunks.get(i).cacheIds[pass.ordinal()]);
+	}
+	cache.end();
+}
+
 private float waveState(float frequency) {
 	return (float) ((Math.PI * 2 / 2000 * frequency) * System.currentTimeMillis() % (Math.PI * 2));
 }
 
-private void drawFloors(boolean liquid) {
-	int maxX = viewport.getMaxRenderCellX();
-	int maxY = viewport.getMaxRenderCellY();
-	for (int x = viewport.getStartCellX(); x < maxX; x++) {
-		for (int y = viewport.getStartCellY(); y < maxY; y++) {
+/**
+ * Bakes floors and transitions of all the cells of a chunk into that chunk's {@link SpriteCache}.
+ *
+ * @param chunk
+ * 	A chunk to rebuild.
+ */
+private void bakeChunk(FloorChunkCache.FloorChunk chunk) {
+	int startX = chunk.getStartX();
+	int startY = chunk.getStartY();
+	int endX = Math.min(startX + FloorChunkCache.CHUNK_SIZE, worldWidth);
+	int endY = Math.min(startY + FloorChunkCache.CHUNK_SIZE, worldHeight);
+	chunks.beginBaking(chunk, FloorPass.SOLID_FLOORS.ordinal());
+	bakeFloors(startX, startY, endX, endY, false);
+	chunks.endBaking(chunk, FloorPass.SOLID_FLOORS.ordinal());
+	chunks.beginBaking(chunk, FloorPass.LIQUID_FLOORS.ordinal());
+	bakeFloors(startX, startY, endX, endY, true);
+	chunks.endBaking(chunk, FloorPass.LIQUID_FLOORS.ordinal());
+	chunks.beginBaking(chunk, FloorPass.SOLID_TRANSITIONS.ordinal());
+	bakeTransitions(startX, startY, endX, endY, false);
+	chunks.endBaking(chunk, FloorPass.SOLID_TRANSITIONS.ordinal());
+	chunks.beginBaking(chunk, FloorPass.LIQUID_TRANSITIONS.ordinal());
+	bakeTransitions(startX, startY, endX, endY, true);
+	chunks.endBaking(chunk, FloorPass.LIQUID_TRANSITIONS.ordinal());
+	chunk.dirty = false;
+}
+
+private void bakeFloors(int startX, int startY, int endX, int endY, boolean liquid) {
+	for (int x = startX; x < endX; x++) {
+		for (int y = startY; y < endY; y++) {
 			RenderCell cell = renderWorld.getCurrentPlane().getCell(x, y);
-			if (cell != null && (cell.getFloor().isLiquid() == liquid || !animateLiquidFloor)) {
-				drawFloor(cell.getFloor(), x, y);
+			if (cell != null && cell.getFloor().isLiquid() == liquid) {
+				bakeFloor(cell.getFloor(), x, y);
 			}
 		}
 	}
 }
 
-void drawFloor(FloorType floorType, int x, int y) {
+void bakeFloor(FloorType floorType, int x, int y) {
 	if (!isFloorUnderWallShouldBeDrawn(x, y)) {
 		// Don't draw floor on cells that are right under a wall on the edge of field of view,
 		// because drawing one produces an unpleasant and unnatural effect.
 		return;
 	}
-	TextureRegion floor = getFloorTextureByCell(floorType, x, y);
-	batch.draw(floor, x * GameScreen.TILE_SIZE, y * GameScreen.TILE_SIZE);
+	TextureRegion floor = floorVariants.getRegion(floorType, x, y);
+	chunks.add(floor, x * GameScreen.TILE_SIZE, y * GameScreen.TILE_SIZE);
 }
 
 /**
@@ -139,102 +270,57 @@ boolean isFloorUnderWallShouldBeDrawn(int x, int y) {
 	return !(renderWorld.getCurrentPlane().getCell(x, y).hasWall() && !renderWorld.getCurrentPlane().hasCell(x, y + 1));
 }
 
-private void drawTransitions(boolean liquid) {
-	// Draw transitions
-	for (int x = viewport.getStartCellX(); x < viewport.getMaxRenderCellX(); x++) {
-		for (int y = viewport.getStartCellY(); y < viewport.getMaxRenderCellY(); y++) {
+private void bakeTransitions(int startX, int startY, int endX, int endY, boolean liquid) {
+	for (int x = startX; x < endX; x++) {
+		for (int y = startY; y < endY; y++) {
 			RenderCell cell = renderWorld.getCurrentPlane().getCell(x, y);
 			// (!A || B) — see "Logical implication" in Wikipedia.
 			// Shortly, if there is a wall, then floor under it should need to be drawn for a condition to pass.
 			if (cell != null
 				&& (!cell.hasWall() || isFloorUnderWallShouldBeDrawn(x, y))
 				) {
-				drawFloorTransitionsInCell(cell, liquid);
+				bakeFloorTransitionsInCell(cell, liquid);
 			}
 		}
 	}
 }
 
-private TextureRegion getFloorTextureByCell(FloorType floor, int x, int y) {
-	int key = (int) (Math.round(Math.abs(Math.sin(x * y)) * floorIndices.get(floor)));
-	return floorRegions.get(floor).get(key);
-}
-
-private void cacheRegions() {
-	Map<String, FloorType> name2Type = new HashMap<>();
-	Map<String, Array<TextureAtlas.AtlasRegion>> name2Regions = new HashMap<>();
-	for (FloorType floorType : Registry.floorTypes) {
-		name2Type.put(floorType.getResourceName(), floorType);
-		floorRegions.put(floorType, new HashMap<Integer, TextureRegion>());
-		assert atlasFloors.findRegion(floorType.getResourceName()) != null;
-	}
-	for (TextureAtlas.AtlasRegion region : atlasFloors.getRegions()) {
-		if (name2Type.containsKey(region.name)) {
-			floorRegions.get(name2Type.get(region.name)).put(region.index, region);
-		} else {
-			logger.warn("Floor with name " + region.name + "_" + region.index + " has its sprite, but it is not declared in ontology");
-		}
-	}
-	for (Map.Entry<String, FloorType> e : name2Type.entrySet()) {
-		Array<TextureAtlas.AtlasRegion> regions = atlasFloors.findRegions(e.getKey());
-		name2Regions.put(e.getKey(), regions);
-		floorIndices.put(e.getValue(), regions.size - 1);
+void bakeFloorTransitionsInCell(RenderCell cell, boolean liquid) {
+	int differs = NeighborMasks.floorDiffersNeighbors(neighborMasks.get(cell.getX(), cell.getY()));
+	if (differs == 0) {
+		return;
 	}
-	// Validate that all images have indices from 0 to n without skips.
-	for (Map.Entry<String, Array<TextureAtlas.AtlasRegion>> e : name2Regions.entrySet()) {
-		boolean zeroIndexFound = false;
-		boolean lastIndexFound = false;
-		int size = e.getValue().size;
-		for (TextureAtlas.AtlasRegion region : e.getValue()) {
-			if (region.index == 0) {
-				zeroIndexFound = true;
-			}
-			if (region.index == size - 1) {
-				lastIndexFound = true;
-			}
-		}
-		if (!zeroIndexFound || !lastIndexFound) {
-			throw new RuntimeException("Floor images with name \"" + e.getKey() + "\" have wrong indices. Indices of images must start with 0 and don't skip any integer values.");
+	// Transitions are drawn from those sides where neighbor's floor differs from this cell's floor.
+	for (int i = 0; i < 4; i++) {
+		if (!NeighborMasks.has(differs, i)) {
+			continue;
 		}
-	}
-
-}
-
-void drawFloorTransitionsInCell(RenderCell cell, boolean liquid) {
-	FloorType self = cell.getFloor();
-	RenderCell renderCell = renderWorld.getCurrentPlane().getCell(cell.getX(), cell.getY() + 1);
-	// Indices 0 and 2 are swapped
-	floorsFrom4Sides[2] = cell.getY() + 1 < world.getHeight() && renderCell != null ? renderCell.getFloor() : self;
-	renderCell = renderWorld.getCurrentPlane().getCell(cell.getX() + 1, cell.getY());
-	floorsFrom4Sides[1] = cell.getX() + 1 < world.getWidth() && renderCell != null ? renderCell.getFloor() : self;
-	renderCell = renderWorld.getCurrentPlane().getCell(cell.getX(), cell.getY() - 1);
-	floorsFrom4Sides[0] = cell.getY() > 0 && renderCell != null ? renderCell.getFloor() : self;
-	renderCell = renderWorld.getCurrentPlane().getCell(cell.getX() - 1, cell.getY());
-	floorsFrom4Sides[3] = cell.getX() > 0 && renderCell != null ? renderCell.getFloor() : self;
-	if (floorsFrom4Sides[0] != self || floorsFrom4Sides[1] != self || floorsFrom4Sides[2] != self || floorsFrom4Sides[3] != self) {
-		drawCellWithTransitions(cell.getX(), cell.getY(), self, liquid);
-	}
-}
-
-private void drawCellWithTransitions(int x, int y, FloorType self, boolean liquid) {
-	// Get individual transition pixmap for each side
-	for (CardinalDirection dir : CardinalDirection.values()) {
-		int[] d = dir.side2d();
-		int i = dir.getCardinalIndex();
-		if (floorsFrom4Sides[i] != self
-			&& (!animateLiquidFloor || renderWorld.getCurrentPlane().getCell(x + d[0], y + d[1]).getFloor().isLiquid() == liquid)
-			) {
-			TransitionsToFloor floorTransitionsProvider = registry.obtain(floorsFrom4Sides[i]);
-			batch.draw(
+		FloorType neighborFloor = renderWorld.getCurrentPlane()
+			.getCell(cell.getX() + NeighborMasks.dx(i), cell.getY() + NeighborMasks.dy(i))
+			.getFloor();
+		if (neighborFloor.isLiquid() == liquid) {
+			TransitionsToFloor floorTransitionsProvider = registry.obtain(neighborFloor);
+			chunks.add(
 				floorTransitionsProvider.getTransition(
 					i,
-					x,
-					y
+					cell.getX(),
+					cell.getY()
 				),
-				x * GameScreen.TILE_SIZE,
-				y * GameScreen.TILE_SIZE
+				cell.getX() * GameScreen.TILE_SIZE,
+				cell.getY() * GameScreen.TILE_SIZE
 			);
 		}
 	}
 }
+
+/**
+ * Geometry of each chunk is split in {@link FloorChunkCache#GROUPS} groups that are drawn one after another; a pass's
+ * ordinal is the index of its group.
+ */
+private enum FloorPass {
+	SOLID_FLOORS,
+	LIQUID_FLOORS,
+	SOLID_TRANSITIONS,
+	LIQUID_TRANSITIONS
+}
 }
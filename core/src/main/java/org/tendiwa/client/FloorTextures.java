@@ -0,0 +1,104 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import org.apache.log4j.Logger;
+import org.tendiwa.core.FloorType;
+import org.tendiwa.groovy.Registry;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Gives each {@link FloorType} a dense integer id and holds images of all floor types in a table indexed by that id and
+ * image index, so a floor image can be found without hashing once a cell's floor id is known.
+ * <p>
+ * {@link FloorType} itself lives in backend, so ids are assigned here in the order floor types appear in {@link
+ * Registry#floorTypes}.
+ */
+public class FloorTextures {
+/**
+ * Variants are stored in bytes in {@link FloorVariantMap}.
+ */
+static final int MAX_VARIANTS = 256;
+private final Map<FloorType, Integer> ids = new IdentityHashMap<>();
+private final TextureRegion[][] regions;
+
+public FloorTextures(TextureAtlas atlasFloors, Logger logger) {
+	int numberOfTypes = 0;
+	for (FloorType ignored : Registry.floorTypes) {
+		numberOfTypes++;
+	}
+	regions = new TextureRegion[numberOfTypes][];
+	Map<String, Integer> name2Id = new HashMap<>();
+	int nextId = 0;
+	for (FloorType floorType : Registry.floorTypes) {
+		assert atlasFloors.findRegion(floorType.getResourceName()) != null;
+		ids.put(floorType, nextId);
+		name2Id.put(floorType.getResourceName(), nextId);
+		Array<TextureAtlas.AtlasRegion> typeRegions = atlasFloors.findRegions(floorType.getResourceName());
+		if (typeRegions.size > MAX_VARIANTS) {
+			throw new RuntimeException("Floor \"" + floorType.getResourceName() + "\" has " + typeRegions.size + " images, but there may be at most " + MAX_VARIANTS);
+		}
+		regions[nextId] = new TextureRegion[typeRegions.size];
+		nextId++;
+	}
+	for (TextureAtlas.AtlasRegion region : atlasFloors.getRegions()) {
+		Integer id = name2Id.get(region.name);
+		if (id == null) {
+			logger.warn("Floor with name " + region.name + "_" + region.index + " has its sprite, but it is not declared in ontology");
+			continue;
+		}
+		// Validate that all images have indices from 0 to n without skips.
+		if (region.index < 0 || region.index >= regions[id].length) {
+			throw new RuntimeException("Floor images with name \"" + region.name + "\" have wrong indices. Indices of images must start with 0 and don't skip any integer values.");
+		}
+		regions[id][region.index] = region;
+	}
+	for (FloorType floorType : Registry.floorTypes) {
+		for (TextureRegion region : regions[ids.get(floorType)]) {
+			if (region == null) {
+				throw new RuntimeException("Floor images with name \"" + floorType.getResourceName() + "\" have wrong indices. Indices of images must start with 0 and don't skip any integer values.");
+			}
+		}
+	}
+}
+
+/**
+ * Makes floor textures from an already built table of images instead of an atlas, e.g. for benchmarks.
+ *
+ * @param floorTypes
+ * 	Floor types; id of a floor type is its index in this array.
+ * @param regions
+ * 	Images of each floor type, indexed the same way as {@code floorTypes}.
+ */
+FloorTextures(FloorType[] floorTypes, TextureRegion[][] regions) {
+	this.regions = regions;
+	for (int i = 0; i < floorTypes.length; i++) {
+		ids.put(floorTypes[i], i);
+	}
+}
+
+/**
+ * @param floorType
+ * 	A floor type from {@link Registry#floorTypes}.
+ * @return Dense id of that floor type, from 0 to the number of floor types exclusive.
+ */
+public int getId(FloorType floorType) {
+	Integer id = ids.get(floorType);
+	if (id == null) {
+		throw new IllegalArgumentException("Floor type " + floorType.getResourceName() + " is not registered");
+	}
+	return id;
+}
+
+public int getNumberOfVariants(int floorId) {
+	return regions[floorId].length;
+}
+
+public TextureRegion getRegion(int floorId, int variant) {
+	return regions[floorId][variant];
+}
+}
@@ -0,0 +1,84 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import org.tendiwa.core.FloorType;
+
+import java.util.Arrays;
+
+/**
+ * Remembers for each cell of the current plane which floor it has and which of that floor's images is drawn in it.
+ * Both are computed once, when a cell is first drawn after being seen, so drawing a floor tile afterwards is just two
+ * array reads.
+ */
+public class FloorVariantMap {
+private final FloorTextures textures;
+private final int width;
+/**
+ * Floor id of each cell plus one, so 0 means that the cell hasn't been computed yet.
+ */
+private final short[] floorIds;
+private final byte[] variants;
+
+/**
+ * @param textures
+ * 	Images of floors.
+ * @param width
+ * 	Width of a plane in cells.
+ * @param height
+ * 	Height of a plane in cells.
+ */
+public FloorVariantMap(FloorTextures textures, int width, int height) {
+	this.textures = textures;
+	this.width = width;
+	floorIds = new short[width * height];
+	variants = new byte[width * height];
+}
+
+/**
+ * Returns an image of floor in a cell, computing it first if the cell has not been computed since it was last
+ * forgotten.
+ *
+ * @param floorType
+ * 	Floor in the cell.
+ * @param x
+ * 	X coordinate of the cell in world coordinates.
+ * @param y
+ * 	Y coordinate of the cell in world coordinates.
+ * @return Image of floor in that cell.
+ */
+public TextureRegion getRegion(FloorType floorType, int x, int y) {
+	int index = y * width + x;
+	if (floorIds[index] == 0) {
+		int floorId = textures.getId(floorType);
+		floorIds[index] = (short) (floorId + 1);
+		variants[index] = (byte) computeVariant(textures.getNumberOfVariants(floorId), x, y);
+	}
+	return textures.getRegion(floorIds[index] - 1, variants[index] & 0xFF);
+}
+
+/**
+ * Pseudo-randomly picks one of floor's images for a cell, so the same cell always gets the same image.
+ */
+private static int computeVariant(int numberOfVariants, int x, int y) {
+	return (int) Math.round(Math.abs(Math.sin(x * y)) * (numberOfVariants - 1));
+}
+
+/**
+ * Makes a cell be computed again next time its image is requested, e.g. because its floor might have changed.
+ *
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ */
+public void forget(int x, int y) {
+	floorIds[y * width + x] = 0;
+}
+
+/**
+ * Makes all the cells be computed again, e.g. when player moves to another plane.
+ */
+public void forgetAll() {
+	Arrays.fill(floorIds, (short) 0);
+}
+}
@@ -22,9 +22,10 @@ private final ShaderProgram fovTransitionShader;
 public FovEdgeOpaque(
 	@Named("transitions") TileTextureRegionProvider tileTextureRegionProvider,
 	@Named("shader_half_transparency") ShaderProgram halfTransparencyShader,
-	@Named("shader_fov_transition") ShaderProgram fovTransitionShader
+	@Named("shader_fov_transition") ShaderProgram fovTransitionShader,
+	TransitionDiskCache diskCache
 ) {
-	super(tileTextureRegionProvider, 4);
+	super(tileTextureRegionProvider, diskCache, 4);
 	this.halfTransparencyShader = halfTransparencyShader;
 	this.fovTransitionShader = fovTransitionShader;
 	if (!this.fovTransitionShader.isCompiled()) {
@@ -78,4 +79,9 @@ protected Pixmap createTransition(CardinalDirection dir, final float opacity) {
 public Pixmap createTransition(CardinalDirection dir) {
 	return createTransition(dir, 1.0f);
 }
+
+@Override
+protected String getDiskCacheKey() {
+	return "fov-edge-opaque";
+}
 }
@@ -11,14 +11,20 @@ public class FovEdgeTransparent extends FovEdgeOpaque {
 public FovEdgeTransparent(
 	@Named("transitions") TileTextureRegionProvider tileTextureRegionProvider,
 	@Named("shader_half_transparency") ShaderProgram halfTransparencyShader,
-	@Named("shader_fov_transition") ShaderProgram fovTransitionShader
+	@Named("shader_fov_transition") ShaderProgram fovTransitionShader,
+	TransitionDiskCache diskCache
 ) {
-	super(tileTextureRegionProvider, halfTransparencyShader, fovTransitionShader);
-	createTransitions();
+	// Transitions are created in super constructor already, with this class's createTransition.
+	super(tileTextureRegionProvider, halfTransparencyShader, fovTransitionShader, diskCache);
 }
 
 @Override
 public Pixmap createTransition(CardinalDirection dir) {
 	return super.createTransition(dir, 0.6f);
 }
+
+@Override
+protected String getDiskCacheKey() {
+	return "fov-edge-transparent";
+}
 }
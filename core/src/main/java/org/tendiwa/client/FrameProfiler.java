@@ -0,0 +1,263 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.google.inject.Singleton;
+
+import java.util.Arrays;
+
+/**
+ * Measures how much CPU time, heap and GL calls each stage of {@link GameScreen#render(float)} takes, and keeps
+ * percentiles of them over the last {@link #WINDOW} frames, so a spike can be traced to a particular layer.
+ * <p>
+ * A stage may be started several times during a frame; everything spent in it during the frame counts as a single
+ * sample. When the profiler is disabled, all its methods return right away.
+ */
+@Singleton
+public class FrameProfiler {
+/**
+ * Number of latest frames percentiles are computed over.
+ */
+public static final int WINDOW = 300;
+private static final Metric[] METRICS = Metric.values();
+private static final Stage[] STAGES = Stage.values();
+private final GLCallCounter glCounter = new GLCallCounter();
+/**
+ * Percentiles indexed by {@code stage.ordinal() * METRICS.length + metric.ordinal()}.
+ */
+private final RollingPercentiles[] windows = new RollingPercentiles[STAGES.length * METRICS.length];
+/**
+ * Values of the current frame, indexed the same way as {@link #windows}.
+ */
+private final long[] frame = new long[STAGES.length * METRICS.length];
+private final RollingPercentiles frameTimes = new RollingPercentiles(WINDOW);
+private boolean enabled;
+private Stage current;
+private long stageStartTime;
+private long stageStartDrawCalls;
+private long stageStartVertices;
+private long stageStartTextureBindings;
+private long stageStartShaderSwitches;
+private long stageStartAllocatedBytes;
+
+public FrameProfiler() {
+	for (int i = 0; i < windows.length; i++) {
+		windows[i] = new RollingPercentiles(WINDOW);
+	}
+}
+
+public boolean isEnabled() {
+	return enabled;
+}
+
+/**
+ * Turns profiling on or off. Collected samples are discarded, and GL calls are counted only while profiling is on.
+ */
+public void toggle() {
+	enabled = !enabled;
+	current = null;
+	Arrays.fill(frame, 0);
+	for (RollingPercentiles window : windows) {
+		window.clear();
+	}
+	frameTimes.clear();
+	if (enabled) {
+		glCounter.install();
+	} else {
+		glCounter.uninstall();
+	}
+}
+
+/**
+ * Stops measuring the current stage, if there is one, and starts measuring another one.
+ *
+ * @param stage
+ * 	A stage of rendering that is about to be executed.
+ */
+public void start(Stage stage) {
+	if (!enabled) {
+		return;
+	}
+	stop();
+	current = stage;
+	stageStartDrawCalls = glCounter.getDrawCalls();
+	stageStartVertices = glCounter.getVertices();
+	stageStartTextureBindings = glCounter.getTextureBindings();
+	stageStartShaderSwitches = glCounter.getShaderSwitches();
+	stageStartAllocatedBytes = AllocatedBytes.ofCurrentThread();
+	stageStartTime = System.nanoTime();
+}
+
+/**
+ * Stops measuring the current stage. Whatever is done after this and before the next {@link #start(Stage)} is not
+ * measured.
+ */
+public void stop() {
+	if (!enabled || current == null) {
+		return;
+	}
+	long time = System.nanoTime() - stageStartTime;
+	long allocatedBytes = AllocatedBytes.since(stageStartAllocatedBytes);
+	int offset = current.ordinal() * METRICS.length;
+	frame[offset + Metric.CPU.ordinal()] += time;
+	frame[offset + Metric.DRAW_CALLS.ordinal()] += glCounter.getDrawCalls() - stageStartDrawCalls;
+	frame[offset + Metric.VERTICES.ordinal()] += glCounter.getVertices() - stageStartVertices;
+	frame[offset + Metric.TEXTURE_BINDINGS.ordinal()] += glCounter.getTextureBindings() - stageStartTextureBindings;
+	frame[offset + Metric.SHADER_SWITCHES.ordinal()] += glCounter.getShaderSwitches() - stageStartShaderSwitches;
+	frame[offset + Metric.ALLOCATED_BYTES.ordinal()] += allocatedBytes;
+	current = null;
+}
+
+/**
+ * Stops measuring the current stage and adds values of the frame to percentiles.
+ */
+public void endFrame() {
+	if (!enabled) {
+		return;
+	}
+	stop();
+	long frameTime = 0;
+	for (int i = 0; i < frame.length; i++) {
+		if (i % METRICS.length == Metric.CPU.ordinal()) {
+			frameTime += frame[i];
+			windows[i].add(frame[i] / 1e6f);
+		} else {
+			windows[i].add(frame[i]);
+		}
+		frame[i] = 0;
+	}
+	frameTimes.add(frameTime / 1e6f);
+}
+
+/**
+ * @param stage
+ * 	A stage of rendering.
+ * @param metric
+ * 	What is measured.
+ * @param percentile
+ * 	A number from 0 to 100.
+ * @return A percentile of the metric over the last frames; CPU time is in milliseconds.
+ */
+public float get(Stage stage, Metric metric, float percentile) {
+	return windows[stage.ordinal() * METRICS.length + metric.ordinal()].get(percentile);
+}
+
+/**
+ * Writes a line for the status overlay about CPU time of all the measured stages together. Doesn't create strings, so
+ * it may be called every frame.
+ *
+ * @param text
+ * 	A builder to append the line to.
+ */
+public void describeFrame(StringBuilder text) {
+	text.append("frame: ");
+	appendPercentiles(text, frameTimes);
+	text.append(" ms (p50 / p95 / p99 of ").append(frameTimes.size()).append(" frames)");
+}
+
+/**
+ * Writes a line for the status overlay with CPU time percentiles, and median GL counts and allocated bytes of a stage.
+ * Doesn't create strings, so it may be called every frame.
+ *
+ * @param stage
+ * 	A stage of rendering.
+ * @param text
+ * 	A builder to append the line to.
+ */
+public void describe(Stage stage, StringBuilder text) {
+	text.append(stage.label).append(": ");
+	appendPercentiles(text, windows[stage.ordinal() * METRICS.length + Metric.CPU.ordinal()]);
+	text.append(" ms, ").append(Math.round(get(stage, Metric.DRAW_CALLS, 50))).append(" draws, ")
+		.append(Math.round(get(stage, Metric.TEXTURE_BINDINGS, 50))).append(" binds, ")
+		.append(Math.round(get(stage, Metric.SHADER_SWITCHES, 50))).append(" shaders, ")
+		.append(Math.round(get(stage, Metric.VERTICES, 50))).append(" vertices, ")
+		.append(Math.round(get(stage, Metric.ALLOCATED_BYTES, 50))).append(" bytes");
+}
+
+private static void appendPercentiles(StringBuilder text, RollingPercentiles percentiles) {
+	appendHundredths(text, percentiles.get(50));
+	text.append(" / ");
+	appendHundredths(text, percentiles.get(95));
+	text.append(" / ");
+	appendHundredths(text, percentiles.get(99));
+}
+
+/**
+ * Appends a non-negative number with two digits after the point, without formatting it into a string first.
+ */
+private static void appendHundredths(StringBuilder text, float value) {
+	int hundredths = Math.round(value * 100);
+	text.append(hundredths / 100).append('.');
+	if (hundredths % 100 < 10) {
+		text.append('0');
+	}
+	text.append(hundredths % 100);
+}
+
+/**
+ * Writes p50, p95 and p99 of every metric of every stage to a CSV file.
+ *
+ * @param file
+ * 	Where to write. An existing file is overwritten.
+ */
+public void dumpCsv(FileHandle file) {
+	StringBuilder builder = new StringBuilder("stage,metric,p50,p95,p99\n");
+	for (Stage stage : STAGES) {
+		for (Metric metric : METRICS) {
+			builder.append(stage.label).append(',')
+				.append(metric.label).append(',')
+				.append(get(stage, metric, 50)).append(',')
+				.append(get(stage, metric, 95)).append(',')
+				.append(get(stage, metric, 99)).append('\n');
+		}
+	}
+	file.writeString(builder.toString(), false);
+}
+
+public enum Stage {
+	EVENTS("events"),
+	ACT("act"),
+	/**
+	 * Clearing the screen and starting post processor's capture.
+	 */
+	CLEAR("clear"),
+	/**
+	 * Updating neighbor masks of dirty cells and advancing wall image caches to the next frame.
+	 */
+	MASKS("masks"),
+	FLOOR("floor"),
+	FOV("fov"),
+	ITEMS("items"),
+	CELL_NET("cell net"),
+	OBJECTS("objects"),
+	/**
+	 * Generating images of walls that are about to be drawn.
+	 */
+	WALL_IMAGES("wall images"),
+	STAGE_DRAW("stage"),
+	MARKINGS("markings"),
+	UI("ui"),
+	/**
+	 * Applying post processor's effects to the captured frame.
+	 */
+	POST("post");
+	private final String label;
+
+	Stage(String label) {
+		this.label = label;
+	}
+}
+
+public enum Metric {
+	CPU("cpu_ms"),
+	DRAW_CALLS("draw_calls"),
+	VERTICES("vertices"),
+	TEXTURE_BINDINGS("texture_bindings"),
+	SHADER_SWITCHES("shader_switches"),
+	ALLOCATED_BYTES("allocated_bytes");
+	private final String label;
+
+	Metric(String label) {
+		this.label = label;
+	}
+}
+}
@@ -6,11 +6,13 @@ import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.IntMap;
 import com.bitfire.postprocessing.PostProcessor;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import org.tendiwa.client.rendering.markings.MarkingsLayer;
 import org.tendiwa.client.ui.TendiwaUiStage;
+import org.tendiwa.client.ui.factories.WallImageCacheRegistry;
 import org.tendiwa.client.ui.model.CursorPosition;
 import org.tendiwa.client.ui.uiModes.UiMode;
 import org.tendiwa.client.ui.uiModes.UiModeManager;
@@ -20,14 +22,11 @@ import org.tendiwa.core.clients.RenderWorld;
 import org.tendiwa.core.observation.ThreadProxy;
 import org.tendiwa.core.volition.Volition;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class GameScreen implements Screen {
 
 public static final int TILE_SIZE = 32;
 private final Batch batch;
-private final TextureAtlas atlasObjects;
+private final AtlasRegions atlasRegions;
 private final FloorLayer floorLayer;
 private final FloorFieldOfViewLayer floorFieldOfViewLayer;
 private final TendiwaStage stage;
@@ -46,13 +45,18 @@ private final TaskManager taskManager;
 private final Server server;
 private final ThreadProxy model;
 private final PostProcessor postProcessor;
+private final DirtyCellTracker dirtyCells;
+private final NeighborMasks neighborMasks;
+private final WallImageCacheRegistry wallImageCacheRegistry;
+private final WallImagePregenerator wallImagePregenerator;
+private final FrameProfiler profiler;
 /**
  * The World object in backend (not always consistent with current animation state, so you shouldn't read from it
  * directly unless absolutely necessary. For listening for changes in the world use {@link
  * org.tendiwa.core.observation.Event}s.
  */
 private World backendWorld;
-private Map<Integer, GameObject> objects = new HashMap<>();
+private IntMap<GameObject> objects = new IntMap<>();
 
 @Inject
 public GameScreen(
@@ -77,8 +81,13 @@ public GameScreen(
 	UiModeManager uiModeManager,
 	MarkingsLayer markings,
 	TaskManager taskManager,
-	Server server
-
+	Server server,
+	DirtyCellTracker dirtyCells,
+	NeighborMasks neighborMasks,
+	WallImageCacheRegistry wallImageCacheRegistry,
+	WallImagePregenerator wallImagePregenerator,
+	AtlasRegions atlasRegions,
+	FrameProfiler profiler
 ) {
 	this.model = model;
 	this.postProcessor = postProcessor;
@@ -96,8 +105,12 @@ public GameScreen(
 	this.markings = markings;
 	this.taskManager = taskManager;
 	this.server = server;
-
-	atlasObjects = new TextureAtlas(Gdx.files.internal("pack/objects.atlas"), true);
+	this.dirtyCells = dirtyCells;
+	this.neighborMasks = neighborMasks;
+	this.wallImageCacheRegistry = wallImageCacheRegistry;
+	this.wallImagePregenerator = wallImagePregenerator;
+	this.atlasRegions = atlasRegions;
+	this.profiler = profiler;
 
 	this.batch = batch;
 
@@ -123,46 +136,71 @@ private void setRenderingMode() {
 
 @Override
 public void render(float delta) {
+	profiler.start(FrameProfiler.Stage.EVENTS);
 	if (model.hasEventsCollected()) {
 		model.executeCollected();
 	}
 	synchronized (tendiwa.getLock()) {
+		taskManager.processCompletedPaths();
 		if (taskManager.hasCurrentTask() && model.areAllEmittersCheckedOut() && !server.hasRequestToProcess()) {
 			taskManager.executeCurrentTask();
 		}
+		profiler.start(FrameProfiler.Stage.ACT);
 		Actor characterActor = stage.getPlayerCharacterActor();
-		stage.act(Gdx.graphics.getDeltaTime());
+		stage.act(delta);
 		int cameraCenterX = (int) (characterActor.getX() * TILE_SIZE);
 		int cameraCenterY = (int) (characterActor.getY() * TILE_SIZE);
 		if (viewport.getCenterPixelX() != cameraCenterX || viewport.getCenterPixelY() != cameraCenterY) {
 			viewport.centerCamera(cameraCenterX, cameraCenterY);
 		}
 
+		profiler.start(FrameProfiler.Stage.CLEAR);
 		Gdx.gl.glClearColor(0, 0, 0, 1);
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 		viewport.getCamera().update();
 		batch.setProjectionMatrix(viewport.getCamera().combined);
 
 		postProcessor.capture();
+		profiler.start(FrameProfiler.Stage.MASKS);
+		neighborMasks.update();
+		wallImageCacheRegistry.nextFrame();
+		profiler.start(FrameProfiler.Stage.FLOOR);
 		floorLayer.draw();
+		profiler.start(FrameProfiler.Stage.FOV);
 		floorFieldOfViewLayer.draw();
+		profiler.start(FrameProfiler.Stage.ITEMS);
 		itemsLayer.draw();
+		profiler.start(FrameProfiler.Stage.CELL_NET);
 		cellNetLayer.draw();
+		profiler.start(FrameProfiler.Stage.OBJECTS);
 		drawObjects();
+		profiler.start(FrameProfiler.Stage.WALL_IMAGES);
+		wallImagePregenerator.pregenerate();
+		profiler.start(FrameProfiler.Stage.STAGE_DRAW);
 		stage.draw();
+		profiler.start(FrameProfiler.Stage.MARKINGS);
 		markings.act();
 		markings.draw();
+		profiler.start(FrameProfiler.Stage.UI);
 		uiStage.act();
 		uiStage.draw();
 //		Table.drawDebug(uiStage);
+		profiler.stop();
 		if (config.fpsCounter) {
 			statusLayer.draw();
 		}
+		profiler.start(FrameProfiler.Stage.POST);
 		postProcessor.render();
+		dirtyCells.clear();
+		profiler.endFrame();
 	}
 }
 
 private void drawObjects() {
+	if (objects.size == 0) {
+		// Nothing to draw, so there is no need to scan the viewport.
+		return;
+	}
 	batch.begin();
 	for (int x = 0; x < viewport.getWindowWidthPixels() / TILE_SIZE + (viewport.getCenterPixelX() == viewport.getMaxPixelX() ? 0 : 1); x++) {
 		// Objects are drawn for one additional row to see high objects
@@ -190,9 +228,7 @@ private TextureAtlas.AtlasRegion getObjectTextureByCell(int x, int y) {
 	if (gameObject == null) {
 		return null;
 	}
-	return atlasObjects.findRegion(
-		gameObject.getType().getResourceName()
-	);
+	return atlasRegions.getObjectRegion(gameObject);
 }
 
 @Override
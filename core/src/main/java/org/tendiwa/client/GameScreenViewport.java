@@ -106,7 +106,7 @@ public void centerCamera(int x, int y) {
 	startPixelX = centerPixelX - windowWidth / 2;
 	startPixelY = centerPixelY - windowHeight / 2;
 	camera.position.set(centerPixelX, centerPixelY, 0);
-	cursorPosition.setPoint(screenPixelToWorldCell(gdxInput.getX(), gdxInput.getY()));
+	cursorPosition.moveCursorTo(screenPixelToWorldX(gdxInput.getX()), screenPixelToWorldY(gdxInput.getY()));
 }
 
 public int getWindowWidthCells() {
@@ -169,10 +169,31 @@ public boolean isInScreenRectangle(int x, int y, int startScreenCellX, int start
 }
 
 public Cell screenPixelToWorldCell(int screenX, int screenY) {
-	return new Cell(
-		(startPixelX + screenX) / GameScreen.TILE_SIZE,
-		(startPixelY + screenY) / GameScreen.TILE_SIZE
-	);
+	return new Cell(screenPixelToWorldX(screenX), screenPixelToWorldY(screenY));
+}
+
+/**
+ * Same as {@link #screenPixelToWorldCell(int, int)}, but without creating a {@link Cell}, for code that runs each
+ * frame.
+ *
+ * @param screenX
+ * 	X coordinate of a pixel on screen.
+ * @return X coordinate of a cell under the pixel in world coordinates.
+ */
+public int screenPixelToWorldX(int screenX) {
+	return (startPixelX + screenX) / GameScreen.TILE_SIZE;
+}
+
+/**
+ * Same as {@link #screenPixelToWorldCell(int, int)}, but without creating a {@link Cell}, for code that runs each
+ * frame.
+ *
+ * @param screenY
+ * 	Y coordinate of a pixel on screen.
+ * @return Y coordinate of a cell under the pixel in world coordinates.
+ */
+public int screenPixelToWorldY(int screenY) {
+	return (startPixelY + screenY) / GameScreen.TILE_SIZE;
 }
 }
 
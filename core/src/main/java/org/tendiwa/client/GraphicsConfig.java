@@ -6,6 +6,11 @@ public boolean animationsEnabled = true;
 public boolean animateLiquidFloor = true;
 public boolean limitFps = false;
 public boolean vSync = false;
+/**
+ * If true, {@link FloorFieldOfViewLayer} composites field of view in a single shader pass over per-cell visibility
+ * texture instead of drawing transitions cell by cell.
+ */
+public boolean gpuFieldOfView = false;
 
 public void toggleAnimations() {
 	animationsEnabled = !animationsEnabled;
@@ -14,4 +19,8 @@ public void toggleAnimations() {
 public void toggleStatusBar() {
 	fpsCounter = !fpsCounter;
 }
+
+public void toggleGpuFieldOfView() {
+	gpuFieldOfView = !gpuFieldOfView;
+}
 }
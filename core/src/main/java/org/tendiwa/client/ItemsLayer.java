@@ -1,9 +1,15 @@
 package org.tendiwa.client;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.IntMap;
+import com.bitfire.postprocessing.PostProcessor;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
@@ -13,15 +19,46 @@ import org.tendiwa.core.clients.RememberedItem;
 import org.tendiwa.core.clients.RenderPlane;
 import org.tendiwa.core.clients.RenderWorld;
 
+/**
+ * Draws items lying on the floor. Items are painted into a framebuffer that covers the viewport and {@link
+ * #CACHE_MARGIN} cells around it, and that framebuffer is repainted only where {@link DirtyCellTracker} reports changes,
+ * or as a whole when the viewport leaves the cached cells. While camera moves inside them the cached image is only drawn
+ * at another offset.
+ * <p>
+ * The cached image holds colors premultiplied by alpha, so it is drawn with {@code GL_ONE, GL_ONE_MINUS_SRC_ALPHA}.
+ */
 @Singleton
 public class ItemsLayer {
+/**
+ * How many cells around the viewport are cached, so camera may move that far before items are painted again.
+ */
+private static final int CACHE_MARGIN = 8;
 private final Batch batch;
 private final GameScreenViewport viewport;
 private final RenderWorld renderWorld;
 private final Character player;
-private final ShaderProgram drawWithRgb06Shader;
-private final ShaderProgram defaultShader;
 private final TextureRegion multipleItemsMarker;
+private final DirtyCellTracker dirtyCells;
+private final PostProcessor postProcessor;
+private final FrameBuffer frameBuffer;
+private final AtlasRegions atlasRegions;
+private final int worldWidth;
+private final int worldHeight;
+private final int cacheWidthCells;
+private final int cacheHeightCells;
+/**
+ * Projection that maps cached cells onto the whole framebuffer.
+ */
+private final Matrix4 cacheProjection = new Matrix4();
+private final Matrix4 screenProjection = new Matrix4();
+/**
+ * Type of the item drawn on top of each cell with items, keyed by {@link Chunk#cellHash(int, int, int)}, so items
+ * don't have to be iterated over each time a cell is painted. Entries of cells that change are removed.
+ */
+private final IntMap<ItemType> topItemTypes = new IntMap<>();
+private boolean hasCachedImage = false;
+private int cachedStartX;
+private int cachedStartY;
 
 @Inject
 ItemsLayer(
@@ -30,35 +67,158 @@ ItemsLayer(
 	RenderWorld renderWorld,
 	@Named("atlas_ui") TextureAtlas atlasUi,
 	@Named("player") Character player,
-    @Named("shader_draw_with_rgb_06") ShaderProgram drawWithRgb06Shader,
-    @Named("shader_default") ShaderProgram defaultShader
+	@Named("current_player_world") World world,
+	@Named("game_screen_default_post_processor") PostProcessor postProcessor,
+	DirtyCellTracker dirtyCells,
+	AtlasRegions atlasRegions
 ) {
 	this.batch = batch;
 	this.viewport = viewport;
 	this.renderWorld = renderWorld;
 	this.player = player;
-	this.drawWithRgb06Shader = drawWithRgb06Shader;
-	this.defaultShader = defaultShader;
+	this.postProcessor = postProcessor;
+	this.dirtyCells = dirtyCells;
+	this.atlasRegions = atlasRegions;
+	this.worldWidth = world.getWidth();
+	this.worldHeight = world.getHeight();
 	multipleItemsMarker = atlasUi.findRegion("multiItem");
+	// A viewport that isn't aligned to cells shows parts of one more cell on each axis.
+	cacheWidthCells = viewport.getWindowWidthCells() + 2 + CACHE_MARGIN * 2;
+	cacheHeightCells = viewport.getWindowHeightCells() + 2 + CACHE_MARGIN * 2;
+	frameBuffer = new FrameBuffer(
+		Pixmap.Format.RGBA8888,
+		cacheWidthCells * GameScreen.TILE_SIZE,
+		cacheHeightCells * GameScreen.TILE_SIZE,
+		false
+	);
 }
 
 void draw() {
-	HorizontalPlane plane = player.getPlane();
-	RenderPlane renderPlane = renderWorld.getCurrentPlane();
+	forgetChangedItemTypes();
+	int startX = viewport.getStartCellX();
+	int startY = viewport.getStartCellY();
 	int maxX = viewport.getMaxRenderCellX();
 	int maxY = viewport.getMaxRenderCellY();
+	boolean viewportLeftCache = !hasCachedImage
+		|| startX < cachedStartX
+		|| startY < cachedStartY
+		|| maxX > cachedStartX + cacheWidthCells
+		|| maxY > cachedStartY + cacheHeightCells;
+	if (viewportLeftCache || dirtyCells.isAllDirty()) {
+		cachedStartX = startX - CACHE_MARGIN;
+		cachedStartY = startY - CACHE_MARGIN;
+		repaint(cachedStartX, cachedStartY, cachedStartX + cacheWidthCells, cachedStartY + cacheHeightCells, false);
+		hasCachedImage = true;
+	} else {
+		int cachedEndX = cachedStartX + cacheWidthCells;
+		int cachedEndY = cachedStartY + cacheHeightCells;
+		if (dirtyCells.intersects(cachedStartX, cachedStartY, cachedEndX, cachedEndY)) {
+			repaint(
+				Math.max(cachedStartX, dirtyCells.getMinX()),
+				Math.max(cachedStartY, dirtyCells.getMinY()),
+				Math.min(cachedEndX, dirtyCells.getMaxX() + 1),
+				Math.min(cachedEndY, dirtyCells.getMaxY() + 1),
+				true
+			);
+		}
+	}
+	batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
 	batch.begin();
-	for (int x = viewport.getStartCellX(); x < maxX; x++) {
-		for (int y = viewport.getStartCellY(); y < maxY; y++) {
+	batch.draw(
+		frameBuffer.getColorBufferTexture(),
+		cachedStartX * GameScreen.TILE_SIZE,
+		cachedStartY * GameScreen.TILE_SIZE
+	);
+	batch.end();
+	batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+}
+
+private void forgetChangedItemTypes() {
+	if (dirtyCells.isAllDirty()) {
+		topItemTypes.clear();
+		return;
+	}
+	for (int i = 0; i < dirtyCells.getNumberOfDirtyCells(); i++) {
+		topItemTypes.remove(Chunk.cellHash(dirtyCells.getDirtyCellX(i), dirtyCells.getDirtyCellY(i), worldHeight));
+	}
+}
+
+/**
+ * Paints items in a rectangle of cells into the cached framebuffer.
+ *
+ * @param startX
+ * 	X coordinate of the rectangle's top left cell.
+ * @param startY
+ * 	Y coordinate of the rectangle's top left cell.
+ * @param endX
+ * 	X coordinate of the cell right after the rectangle's right edge.
+ * @param endY
+ * 	Y coordinate of the cell right after the rectangle's bottom edge.
+ * @param partial
+ * 	If true, only the rectangle is cleared and the rest of the cached image is left as it is.
+ */
+private void repaint(int startX, int startY, int endX, int endY, boolean partial) {
+	postProcessor.captureEnd();
+	frameBuffer.begin();
+	if (partial) {
+		// Framebuffer's origin is at the bottom left corner, while camera's y axis points down.
+		Gdx.gl.glEnable(GL20.GL_SCISSOR_TEST);
+		Gdx.gl.glScissor(
+			(startX - cachedStartX) * GameScreen.TILE_SIZE,
+			(cachedStartY + cacheHeightCells - endY) * GameScreen.TILE_SIZE,
+			(endX - startX) * GameScreen.TILE_SIZE,
+			(endY - startY) * GameScreen.TILE_SIZE
+		);
+	}
+	Gdx.gl.glClearColor(0, 0, 0, 0);
+	Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+	screenProjection.set(batch.getProjectionMatrix());
+	int left = cachedStartX * GameScreen.TILE_SIZE;
+	int top = cachedStartY * GameScreen.TILE_SIZE;
+	cacheProjection.setToOrtho(
+		left,
+		left + cacheWidthCells * GameScreen.TILE_SIZE,
+		top + cacheHeightCells * GameScreen.TILE_SIZE,
+		top,
+		0,
+		1
+	);
+	batch.setProjectionMatrix(cacheProjection);
+	// Color is blended as usual, but alpha is accumulated as is, so the image ends up premultiplied by alpha.
+	batch.setBlendFunction(-1, -1);
+	Gdx.gl.glBlendFuncSeparate(
+		GL20.GL_SRC_ALPHA,
+		GL20.GL_ONE_MINUS_SRC_ALPHA,
+		GL20.GL_ONE,
+		GL20.GL_ONE_MINUS_SRC_ALPHA
+	);
+	paintItems(
+		Math.max(startX, 0),
+		Math.max(startY, 0),
+		Math.min(endX, worldWidth),
+		Math.min(endY, worldHeight)
+	);
+	batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+	batch.setProjectionMatrix(screenProjection);
+	if (partial) {
+		Gdx.gl.glDisable(GL20.GL_SCISSOR_TEST);
+	}
+	frameBuffer.end();
+	postProcessor.captureNoClear();
+}
+
+private void paintItems(int startX, int startY, int maxX, int maxY) {
+	HorizontalPlane plane = player.getPlane();
+	RenderPlane renderPlane = renderWorld.getCurrentPlane();
+	batch.begin();
+	for (int x = startX; x < maxX; x++) {
+		for (int y = startY; y < maxY; y++) {
 			if (renderPlane.isCellVisible(x, y) && plane.hasAnyItems(x, y)) {
 				// Check for objective view (we could maintain character's own subjective view on items,
 				// but that's difficult and maybe will appear later.
 				ItemCollection items = plane.getItems(x, y);
-				assert items.iterator().hasNext() : items.size();
-				Item item = items.iterator().next();
-				assert item != null;
 				batch.draw(
-					AtlasItems.getInstance().findRegion(item.getType().getResourceName()),
+					atlasRegions.getItemRegion(getTopItemType(items, x, y)),
 					x * GameScreen.TILE_SIZE,
 					y * GameScreen.TILE_SIZE
 				);
@@ -68,9 +228,10 @@ void draw() {
 			}
 		}
 	}
-	batch.setShader(drawWithRgb06Shader);
-	for (int x = viewport.getStartCellX(); x < maxX; x++) {
-		for (int y = viewport.getStartCellY(); y < maxY; y++) {
+	// Remembered items are dimmed through vertex color, so they are drawn in the same batch as seen ones.
+	batch.setColor(Dimming.DIMMED);
+	for (int x = startX; x < maxX; x++) {
+		for (int y = startY; y < maxY; y++) {
 			if (renderPlane.hasAnyUnseenItems(x, y)) {
 				for (RememberedItem item : renderPlane.getUnseenItems(x, y)) {
 					batch.draw(
@@ -82,12 +243,28 @@ void draw() {
 			}
 		}
 	}
+	batch.setColor(Dimming.NORMAL);
 	batch.end();
-	batch.setShader(defaultShader);
+}
+
+/**
+ * Returns type of the item drawn in a cell, looking into the cell's items only if the cell has changed since it was
+ * last painted.
+ */
+private ItemType getTopItemType(ItemCollection items, int x, int y) {
+	int cellHash = Chunk.cellHash(x, y, worldHeight);
+	ItemType type = topItemTypes.get(cellHash);
+	if (type == null) {
+		Item item = items.iterator().next();
+		assert item != null;
+		type = item.getType();
+		topItemTypes.put(cellHash, type);
+	}
+	return type;
 }
 
 private TextureAtlas.AtlasRegion getTexture(ItemType type) {
-	return AtlasItems.getInstance().findRegion(type.getResourceName());
+	return atlasRegions.getItemRegion(type);
 }
 
 }
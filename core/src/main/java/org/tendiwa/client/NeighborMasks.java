@@ -0,0 +1,302 @@
+package org.tendiwa.client;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import org.tendiwa.core.Character;
+import org.tendiwa.core.HorizontalPlane;
+import org.tendiwa.core.World;
+import org.tendiwa.core.clients.RenderPlane;
+import org.tendiwa.core.clients.RenderWorld;
+
+import java.util.Arrays;
+
+/**
+ * Packs what renderers need to know about a cell of the current plane and its 4 neighbors into a single int, so
+ * layers don't have to look cells up in {@link RenderPlane} again and again for each of their neighbors.
+ * <p>
+ * Neighbor flags occupy 4 bits each, one bit per neighbor, in the order of {@link
+ * org.tendiwa.core.CardinalDirection#getCardinalIndex()}: north, east, south, west. Get them with methods like
+ * {@link #unseenNeighbors(int)}.
+ * <p>
+ * Masks are computed lazily and recomputed for cells around those that {@link DirtyCellTracker} reports as changed, so
+ * {@link #update()} must be called each frame before any layer reads masks.
+ */
+@Singleton
+public class NeighborMasks {
+/**
+ * The cell itself has been seen.
+ */
+public static final int SEEN = 1;
+/**
+ * The cell itself is visible.
+ */
+public static final int VISIBLE = 1 << 1;
+/**
+ * There is a wall in the cell itself, as player remembers it.
+ */
+public static final int WALL = 1 << 2;
+private static final int COMPUTED = 1 << 3;
+private static final int NEIGHBOR_SEEN_SHIFT = 4;
+private static final int NEIGHBOR_VISIBLE_SHIFT = 8;
+private static final int NEIGHBOR_WALL_SHIFT = 12;
+private static final int NEIGHBOR_FLOOR_DIFFERS_SHIFT = 16;
+private static final int[] offsetsX = {0, 1, 0, -1};
+private static final int[] offsetsY = {-1, 0, 1, 0};
+private final RenderWorld renderWorld;
+private final Character player;
+private final DirtyCellTracker dirtyCells;
+private final int width;
+private final int height;
+private final int[] masks;
+private final CurrentPlane currentPlane = new CurrentPlane();
+
+@Inject
+NeighborMasks(
+	RenderWorld renderWorld,
+	@Named("player") Character player,
+	@Named("current_player_world") World world,
+	DirtyCellTracker dirtyCells
+) {
+	this.renderWorld = renderWorld;
+	this.player = player;
+	this.dirtyCells = dirtyCells;
+	this.width = world.getWidth();
+	this.height = world.getHeight();
+	masks = new int[width * height];
+}
+
+/**
+ * Forgets masks of cells that have changed since the last frame and of their neighbors.
+ */
+public void update() {
+	if (dirtyCells.isAllDirty()) {
+		Arrays.fill(masks, 0);
+		return;
+	}
+	for (int i = 0, n = dirtyCells.getNumberOfDirtyCells(); i < n; i++) {
+		int x = dirtyCells.getDirtyCellX(i);
+		int y = dirtyCells.getDirtyCellY(i);
+		forget(x, y);
+		for (int j = 0; j < 4; j++) {
+			forget(x + offsetsX[j], y + offsetsY[j]);
+		}
+	}
+}
+
+private void forget(int x, int y) {
+	if (contains(x, y)) {
+		masks[y * width + x] = 0;
+	}
+}
+
+private boolean contains(int x, int y) {
+	return x >= 0 && y >= 0 && x < width && y < height;
+}
+
+/**
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ * @return Mask of a cell. Cells outside the plane have a mask of 0, as if they were never seen.
+ */
+public int get(int x, int y) {
+	if (!contains(x, y)) {
+		return 0;
+	}
+	int index = y * width + x;
+	if (masks[index] == 0) {
+		masks[index] = compute(x, y);
+	}
+	return masks[index];
+}
+
+private int compute(int x, int y) {
+	currentPlane.renderPlane = renderWorld.getCurrentPlane();
+	currentPlane.backendPlane = player.getPlane();
+	return compute(currentPlane, width, height, x, y);
+}
+
+/**
+ * Computes a mask of a cell. This is what {@link #get(int, int)} does for the current plane; it is public so
+ * benchmarks can compute masks of synthetic planes with the same code.
+ *
+ * @param plane
+ * 	Cells of a plane.
+ * @param width
+ * 	Width of the plane in cells.
+ * @param height
+ * 	Height of the plane in cells.
+ * @param x
+ * 	X coordinate of a cell.
+ * @param y
+ * 	Y coordinate of a cell.
+ * @return Mask of the cell.
+ */
+public static int compute(Plane plane, int width, int height, int x, int y) {
+	int mask = COMPUTED;
+	boolean seen = plane.isSeen(x, y);
+	if (seen) {
+		mask |= SEEN;
+		if (plane.isVisible(x, y)) {
+			mask |= VISIBLE;
+		}
+		// Remembered cells keep the wall player saw there, whatever is in the cell now.
+		if (plane.hasRememberedWall(x, y)) {
+			mask |= WALL;
+		}
+	}
+	for (int i = 0; i < 4; i++) {
+		int nx = x + offsetsX[i];
+		int ny = y + offsetsY[i];
+		if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+			continue;
+		}
+		// Walls join with neighbor walls in backend's plane, as they always have.
+		if (plane.hasWall(nx, ny)) {
+			mask |= 1 << (NEIGHBOR_WALL_SHIFT + i);
+		}
+		if (!plane.isSeen(nx, ny)) {
+			continue;
+		}
+		mask |= 1 << (NEIGHBOR_SEEN_SHIFT + i);
+		if (plane.isVisible(nx, ny)) {
+			mask |= 1 << (NEIGHBOR_VISIBLE_SHIFT + i);
+		}
+		if (seen && !plane.hasSameFloor(x, y, nx, ny)) {
+			mask |= 1 << (NEIGHBOR_FLOOR_DIFFERS_SHIFT + i);
+		}
+	}
+	return mask;
+}
+
+/**
+ * @return 4 bits, one for each neighbor that has been seen.
+ */
+public static int seenNeighbors(int mask) {
+	return (mask >>> NEIGHBOR_SEEN_SHIFT) & 0xF;
+}
+
+/**
+ * @return 4 bits, one for each neighbor that is visible.
+ */
+public static int visibleNeighbors(int mask) {
+	return (mask >>> NEIGHBOR_VISIBLE_SHIFT) & 0xF;
+}
+
+/**
+ * @return 4 bits, one for each neighbor that has been seen, but is not visible now.
+ */
+public static int unseenNeighbors(int mask) {
+	return seenNeighbors(mask) & ~visibleNeighbors(mask);
+}
+
+/**
+ * @return 4 bits, one for each neighbor that has never been seen (or is outside the plane).
+ */
+public static int notYetSeenNeighbors(int mask) {
+	return ~seenNeighbors(mask) & 0xF;
+}
+
+/**
+ * @return 4 bits, one for each neighbor with a wall.
+ */
+public static int wallNeighbors(int mask) {
+	return (mask >>> NEIGHBOR_WALL_SHIFT) & 0xF;
+}
+
+/**
+ * @return 4 bits, one for each seen neighbor with a floor different from the floor of a seen cell.
+ */
+public static int floorDiffersNeighbors(int mask) {
+	return (mask >>> NEIGHBOR_FLOOR_DIFFERS_SHIFT) & 0xF;
+}
+
+/**
+ * @return Offset along x axis from a cell to its neighbor with the specified index.
+ */
+public static int dx(int cardinalIndex) {
+	return offsetsX[cardinalIndex];
+}
+
+/**
+ * @return Offset along y axis from a cell to its neighbor with the specified index.
+ */
+public static int dy(int cardinalIndex) {
+	return offsetsY[cardinalIndex];
+}
+
+/**
+ * @param neighbors
+ * 	4 bits returned by one of the neighbor methods.
+ * @param cardinalIndex
+ * 	Index of a neighbor from 0 to 3.
+ * @return true if the bit of that neighbor is set.
+ */
+public static boolean has(int neighbors, int cardinalIndex) {
+	return (neighbors & (1 << cardinalIndex)) != 0;
+}
+
+/**
+ * What masks are computed from. Coordinates passed to its methods are always inside the plane.
+ */
+public interface Plane {
+	boolean isSeen(int x, int y);
+
+	/**
+	 * Asked only about seen cells.
+	 */
+	boolean isVisible(int x, int y);
+
+	/**
+	 * Asked only about seen cells.
+	 *
+	 * @return true if player remembers a wall in the cell.
+	 */
+	boolean hasRememberedWall(int x, int y);
+
+	/**
+	 * @return true if there is a wall in the cell in backend's plane.
+	 */
+	boolean hasWall(int x, int y);
+
+	/**
+	 * Asked only about two seen cells.
+	 */
+	boolean hasSameFloor(int x, int y, int otherX, int otherY);
+}
+
+/**
+ * Cells of the plane player is on, as player remembers them and as they are in backend.
+ */
+private static class CurrentPlane implements Plane {
+	private RenderPlane renderPlane;
+	private HorizontalPlane backendPlane;
+
+	@Override
+	public boolean isSeen(int x, int y) {
+		return renderPlane.getCell(x, y) != null;
+	}
+
+	@Override
+	public boolean isVisible(int x, int y) {
+		return renderPlane.getCell(x, y).isVisible();
+	}
+
+	@Override
+	public boolean hasRememberedWall(int x, int y) {
+		return renderPlane.getCell(x, y).hasWall();
+	}
+
+	@Override
+	public boolean hasWall(int x, int y) {
+		return backendPlane.hasWall(x, y);
+	}
+
+	@Override
+	public boolean hasSameFloor(int x, int y, int otherX, int otherY) {
+		return renderPlane.getCell(x, y).getFloor() == renderPlane.getCell(otherX, otherY).getFloor();
+	}
+}
+}
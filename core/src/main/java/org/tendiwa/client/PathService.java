@@ -0,0 +1,109 @@
+package org.tendiwa.client;
+
+import com.google.inject.Singleton;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Computes {@link DistanceMap}s on background threads, so a long search doesn't make the frame it was requested in
+ * late. Computed maps wait in a queue until {@link #deliverCompleted()} is called on the render thread, so listeners are
+ * called on the same thread as everything else that changes client's state.
+ * <p>
+ * Only the latest request matters: a new request cancels the one before it, if it hasn't been delivered yet.
+ */
+@Singleton
+public class PathService {
+private static final int WORKERS = 2;
+private final ExecutorService workers = Executors.newFixedThreadPool(WORKERS, new ThreadFactory() {
+	private int nextId;
+
+	@Override
+	public Thread newThread(Runnable runnable) {
+		Thread thread = new Thread(runnable, "path-worker-" + nextId++);
+		// Workers must not keep the application from exiting.
+		thread.setDaemon(true);
+		return thread;
+	}
+});
+private final Queue<Request> completed = new ConcurrentLinkedQueue<>();
+private Request current;
+
+/**
+ * Starts computing a distance map. Must be called on the render thread.
+ *
+ * @param snapshot
+ * 	Cells to search paths in.
+ * @param listener
+ * 	Gets the map during one of the following calls of {@link #deliverCompleted()}, unless the request is cancelled.
+ */
+public void request(final WalkabilitySnapshot snapshot, Listener listener) {
+	cancel();
+	final Request request = new Request(listener);
+	current = request;
+	request.future = workers.submit(new Runnable() {
+		@Override
+		public void run() {
+			DistanceMap map = new DistanceMap(snapshot);
+			if (!request.cancelled) {
+				request.map = map;
+				completed.add(request);
+			}
+		}
+	});
+}
+
+/**
+ * Cancels the latest request, if it hasn't been delivered yet.
+ */
+public void cancel() {
+	if (current != null) {
+		current.cancelled = true;
+		current.future.cancel(false);
+		current = null;
+	}
+}
+
+/**
+ * @return true if there is a request that hasn't been delivered yet.
+ */
+public boolean hasPendingRequest() {
+	return current != null;
+}
+
+/**
+ * Hands computed maps to their listeners. Must be called on the render thread.
+ */
+public void deliverCompleted() {
+	Request request;
+	while ((request = completed.poll()) != null) {
+		// A request may have been cancelled after its map had been queued.
+		if (request.cancelled) {
+			continue;
+		}
+		if (request == current) {
+			current = null;
+		}
+		request.listener.distanceMapComputed(request.map);
+	}
+}
+
+public interface Listener {
+	void distanceMapComputed(DistanceMap map);
+}
+
+private static class Request {
+	private final Listener listener;
+	private volatile boolean cancelled;
+	private Future<?> future;
+	private volatile DistanceMap map;
+
+	private Request(Listener listener) {
+		this.listener = listener;
+	}
+}
+}
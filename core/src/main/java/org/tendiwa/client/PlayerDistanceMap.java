@@ -0,0 +1,180 @@
+package org.tendiwa.client;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import org.tendiwa.core.*;
+import org.tendiwa.core.Character;
+import org.tendiwa.core.events.*;
+import org.tendiwa.core.observation.Event;
+import org.tendiwa.core.observation.Finishable;
+import org.tendiwa.core.observation.Observer;
+import org.tendiwa.core.observation.ThreadProxy;
+import org.tendiwa.geometry.Cell;
+
+import java.util.LinkedList;
+
+/**
+ * Distances in steps from player to cells around them, over cells {@link Character#getPathWalkerOverCharacters()}
+ * can step on, bounded by a square of {@link #RADIUS} cells around player.
+ * <p>
+ * Which cells can be stepped on is copied into a {@link WalkabilitySnapshot} on the render thread while holding
+ * backend's lock, and the {@link DistanceMap} is computed from it by {@link PathService} on a worker thread. Only the
+ * rectangle spanned by player and the destination, with a margin of {@link #MARGIN} cells, is copied at first; if the
+ * destination can't be reached inside it, the margin is doubled and the search is repeated, up to the whole square.
+ * <p>
+ * The map is kept for as long as player stays in the same cell and doesn't see terrain change, so while it's kept paths
+ * to cells it covers are found right away.
+ */
+@Singleton
+public class PlayerDistanceMap {
+/**
+ * How far from player cells are searched, the same bound clicks to move have always had.
+ */
+public static final int RADIUS = 100;
+/**
+ * How far around player and the destination the first search goes, enough to walk around most obstacles.
+ */
+private static final int MARGIN = 10;
+private final Character player;
+private final Tendiwa tendiwa;
+private final int worldWidth;
+private final int worldHeight;
+private final PathService pathService;
+private DistanceMap map;
+/**
+ * Whether {@link #map} covers the whole square of {@link #RADIUS} around its origin, so cells it doesn't reach
+ * can't be reached at all.
+ */
+private boolean mapIsWhole;
+/**
+ * Increased each time terrain player sees changes, so maps computed from older snapshots are not kept.
+ */
+private int terrainVersion;
+private int mapTerrainVersion;
+
+@Inject
+PlayerDistanceMap(
+	@Named("player") Character player,
+	@Named("current_player_world") World world,
+	ThreadProxy model,
+	Tendiwa tendiwa,
+	PathService pathService
+) {
+	this.player = player;
+	this.tendiwa = tendiwa;
+	this.worldWidth = world.getWidth();
+	this.worldHeight = world.getHeight();
+	this.pathService = pathService;
+	forgetOn(model, EventInitialTerrain.class);
+	forgetOn(model, EventFovChange.class);
+	forgetOn(model, EventMoveToPlane.class);
+}
+
+private <T extends Event> void forgetOn(ThreadProxy model, Class<T> type) {
+	model.subscribe(new Observer<T>() {
+		@Override
+		public void update(T event, Finishable<T> emitter) {
+			terrainVersion++;
+			map = null;
+			emitter.done(this);
+		}
+	}, type);
+}
+
+/**
+ * Returns the map if it is up to date, without computing it.
+ *
+ * @return Distances from player's current cell, or null if they haven't been computed yet.
+ */
+public DistanceMap getMap() {
+	if (map != null
+		&& (mapTerrainVersion != terrainVersion || map.getOriginX() != player.getX() || map.getOriginY() != player.getY())) {
+		map = null;
+	}
+	return map;
+}
+
+/**
+ * Finds the shortest path from player to a cell. Must be called on the render thread. The path is found at once if
+ * the map is up to date and covers the cell; otherwise the map is computed on a worker, and the listener is called from
+ * {@link PathService#deliverCompleted()} in one of the following frames. A new call supersedes an unanswered one.
+ *
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ * @param listener
+ * 	Gets cells from the one player should step to first to the destination inclusive (empty if player is already
+ * 	there), or null if the cell can't be reached.
+ */
+public void findPath(int x, int y, PathListener listener) {
+	synchronized (tendiwa.getLock()) {
+		if (x < 0 || y < 0 || x >= worldWidth || y >= worldHeight
+			|| Math.abs(x - player.getX()) > RADIUS || Math.abs(y - player.getY()) > RADIUS) {
+			pathService.cancel();
+			listener.pathFound(null);
+			return;
+		}
+		DistanceMap upToDate = getMap();
+		if (upToDate != null
+			&& upToDate.contains(x, y)
+			&& (mapIsWhole || upToDate.getDistance(x, y) != DistanceMap.UNREACHABLE)) {
+			pathService.cancel();
+			listener.pathFound(upToDate.getPath(x, y));
+			return;
+		}
+		search(x, y, MARGIN, listener);
+	}
+}
+
+/**
+ * Snapshots the rectangle spanned by player and a destination, extended by a margin and cut by the square of
+ * {@link #RADIUS} around player and by world's borders, and requests a map of it. Must be called while holding
+ * backend's lock.
+ */
+private void search(final int x, final int y, final int margin, final PathListener listener) {
+	int playerX = player.getX();
+	int playerY = player.getY();
+	int minX = Math.max(0, playerX - RADIUS);
+	int minY = Math.max(0, playerY - RADIUS);
+	int maxX = Math.min(worldWidth - 1, playerX + RADIUS);
+	int maxY = Math.min(worldHeight - 1, playerY + RADIUS);
+	int startX = Math.max(minX, Math.min(playerX, x) - margin);
+	int startY = Math.max(minY, Math.min(playerY, y) - margin);
+	int endX = Math.min(maxX, Math.max(playerX, x) + margin);
+	int endY = Math.min(maxY, Math.max(playerY, y) + margin);
+	final boolean whole = startX == minX && startY == minY && endX == maxX && endY == maxY;
+	final int snapshotTerrainVersion = terrainVersion;
+	WalkabilitySnapshot snapshot = WalkabilitySnapshot.take(
+		player.getPathWalkerOverCharacters(),
+		playerX,
+		playerY,
+		startX,
+		startY,
+		endX,
+		endY
+	);
+	pathService.request(snapshot, new PathService.Listener() {
+		@Override
+		public void distanceMapComputed(DistanceMap computed) {
+			if (snapshotTerrainVersion == terrainVersion) {
+				map = computed;
+				mapIsWhole = whole;
+				mapTerrainVersion = snapshotTerrainVersion;
+			}
+			LinkedList<Cell> path = computed.getPath(x, y);
+			if (path == null && !whole) {
+				// The way may go around the rectangle; listeners are called while holding backend's lock.
+				search(x, y, margin * 2, listener);
+			} else {
+				listener.pathFound(path);
+			}
+		}
+	});
+}
+
+public interface PathListener {
+	void pathFound(LinkedList<Cell> path);
+}
+}
@@ -1,22 +1,17 @@
 package org.tendiwa.client;
 
-import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
-import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
-import com.google.inject.name.Named;
 import org.tendiwa.core.Projectile;
 import org.tendiwa.core.clients.RenderPlane;
 
 public class ProjectileActor extends Actor {
 private final TextureAtlas.AtlasRegion texture;
 private final RenderPlane renderPlane;
-private final ShaderProgram drawWithRgb06Shader;
-private final ShaderProgram defaultShader;
 
 @Inject
 public ProjectileActor(
@@ -25,14 +20,10 @@ public ProjectileActor(
 	@Assisted("fromY") int fromY,
 	@Assisted("toX") int toX,
 	@Assisted("toY") int toY,
-	@Assisted RenderPlane renderPlane,
-	@Named("shader_draw_with_rgb_06") ShaderProgram drawWithRgb06Shader,
-	@Named("shader_default") ShaderProgram defaultShader
+	@Assisted RenderPlane renderPlane
 ) {
 	super();
 	this.renderPlane = renderPlane;
-	this.drawWithRgb06Shader = drawWithRgb06Shader;
-	this.defaultShader = defaultShader;
 	texture = AtlasProjectiles.getInstance().findRegion(projectile.getResourceName());
 	assert texture != null : projectile.getResourceName();
 	setX(fromX);
@@ -46,13 +37,8 @@ public ProjectileActor(
 @Override
 public void draw(Batch batch, float parentAlpha) {
 	super.draw(batch, parentAlpha);
-	boolean shaderWasChanged = false;
-	if (renderPlane.isCellUnseen((int) getX(), (int) getY())) {
-		shaderWasChanged = true;
-		batch.setShader(drawWithRgb06Shader);
-	}
-	Color bufColor = batch.getColor();
-	batch.setColor(getColor());
+	float bufColor = batch.getPackedColor();
+	batch.setColor(Dimming.toFloatBits(getColor(), renderPlane.isCellUnseen((int) getX(), (int) getY())));
 	batch.draw(
 		texture,
 		getX() * GameScreen.TILE_SIZE,
@@ -65,9 +51,6 @@ public void draw(Batch batch, float parentAlpha) {
 		getScaleY(),
 		getRotation()
 	);
-	if (shaderWasChanged) {
-		batch.setShader(defaultShader);
-	}
 	batch.setColor(bufColor);
 }
 }
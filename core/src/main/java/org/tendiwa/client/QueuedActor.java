@@ -0,0 +1,17 @@
+package org.tendiwa.client;
+
+/**
+ * An actor that is drawn by submitting its sprites to a {@link RenderQueue} instead of drawing them to a batch
+ * directly, so its sprites can be reordered with sprites of other actors to avoid flushing the batch.
+ */
+public interface QueuedActor {
+/**
+ * Submits sprites of this actor.
+ *
+ * @param queue
+ * 	Queue of the current frame.
+ * @param depth
+ * 	Row of cells this actor is drawn in.
+ */
+public void submit(RenderQueue queue, int depth);
+}
@@ -0,0 +1,220 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.google.inject.Singleton;
+
+import java.util.Arrays;
+
+/**
+ * Collects sprites of the stage during a frame and draws them all at once, sorted so that a batch has to be flushed as
+ * rarely as possible while sprites still overlap correctly.
+ * <p>
+ * Sprites are sorted by a key made of, from the most significant part to the least one: depth (row of cells), layer
+ * inside a row, and texture. So painter's order is kept between rows and layers, and inside a single layer of a single
+ * row, where sprites don't overlap, sprites with the same texture are drawn together. Dimmed sprites are tinted with
+ * {@link Dimming#DIMMED} rather than drawn with another shader, so they don't break batches. Sprites with equal keys are
+ * drawn in the order they were submitted.
+ */
+@Singleton
+public class RenderQueue {
+public static final int LAYER_WALLS = 0;
+public static final int LAYER_OBJECTS = 1;
+public static final int LAYER_BORDER_OBJECTS = 2;
+public static final int LAYER_CHARACTERS = 3;
+private static final int SEQUENCE_BITS = 20;
+private static final int TEXTURE_BITS = 12;
+private static final int LAYER_BITS = 4;
+private static final int TEXTURE_SHIFT = SEQUENCE_BITS;
+private static final int LAYER_SHIFT = TEXTURE_SHIFT + TEXTURE_BITS;
+private static final int DEPTH_SHIFT = LAYER_SHIFT + LAYER_BITS;
+private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+/**
+ * Number of floats describing each sprite in {@link #spriteData}.
+ */
+private static final int SPRITE_SIZE = 10;
+private final LongArray keys = new LongArray();
+private final Array<TextureRegion> regions = new Array<>();
+/**
+ * x, y, originX, originY, width, height, scaleX, scaleY, rotation and packed color of each sprite.
+ */
+private final FloatArray spriteData = new FloatArray();
+/**
+ * Ids of textures used in the current frame, in the order they were first submitted.
+ */
+private final ObjectIntMap<Texture> textureIds = new ObjectIntMap<>();
+private Texture lastSubmittedTexture;
+private int unsortedFlushes;
+private int lastFrameSprites;
+private int lastFrameFlushes;
+private int lastFrameUnsortedFlushes;
+
+/**
+ * Adds a sprite drawn at its region's size.
+ *
+ * @param layer
+ * 	One of LAYER_* constants.
+ * @param depth
+ * 	Row of cells the sprite belongs to; may be -1 for the row above the world.
+ * @param dimmed
+ * 	Whether the sprite should be drawn darker, as something remembered but not seen now.
+ * @param region
+ * 	Image of the sprite.
+ * @param x
+ * 	X coordinate of the sprite in world pixels.
+ * @param y
+ * 	Y coordinate of the sprite in world pixels.
+ */
+public void submit(int layer, int depth, boolean dimmed, TextureRegion region, float x, float y) {
+	submit(
+		layer,
+		depth,
+		region,
+		x,
+		y,
+		0,
+		0,
+		region.getRegionWidth(),
+		region.getRegionHeight(),
+		1,
+		1,
+		0,
+		dimmed ? Dimming.DIMMED : Dimming.NORMAL
+	);
+}
+
+/**
+ * Adds a sprite with arbitrary size, rotation and color; arguments mean the same as in {@link
+ * Batch#draw(TextureRegion, float, float, float, float, float, float, float, float, float)}.
+ *
+ * @param packedColor
+ * 	Color to tint the sprite with, see {@link Dimming#toFloatBits(com.badlogic.gdx.graphics.Color, boolean)}.
+ */
+public void submit(
+	int layer,
+	int depth,
+	TextureRegion region,
+	float x,
+	float y,
+	float originX,
+	float originY,
+	float width,
+	float height,
+	float scaleX,
+	float scaleY,
+	float rotation,
+	float packedColor
+) {
+	int sequence = regions.size;
+	if (sequence > SEQUENCE_MASK) {
+		throw new IllegalStateException("Too many sprites in a frame: " + sequence);
+	}
+	Texture texture = region.getTexture();
+	int textureId = textureIds.get(texture, -1);
+	if (textureId == -1) {
+		textureId = textureIds.size;
+		if (textureId >= 1 << TEXTURE_BITS) {
+			throw new IllegalStateException("Too many textures in a frame: " + textureId);
+		}
+		textureIds.put(texture, textureId);
+	}
+	if (texture != lastSubmittedTexture) {
+		unsortedFlushes++;
+		lastSubmittedTexture = texture;
+	}
+	keys.add(
+		(long) (depth + 1) << DEPTH_SHIFT
+			| (long) layer << LAYER_SHIFT
+			| (long) textureId << TEXTURE_SHIFT
+			| sequence
+	);
+	regions.add(region);
+	spriteData.add(x);
+	spriteData.add(y);
+	spriteData.add(originX);
+	spriteData.add(originY);
+	spriteData.add(width);
+	spriteData.add(height);
+	spriteData.add(scaleX);
+	spriteData.add(scaleY);
+	spriteData.add(rotation);
+	spriteData.add(packedColor);
+}
+
+/**
+ * Draws all the submitted sprites in the order of their keys and empties the queue.
+ *
+ * @param batch
+ * 	A batch that has already begun.
+ */
+public void flush(Batch batch) {
+	long[] sortedKeys = keys.items;
+	int size = keys.size;
+	Arrays.sort(sortedKeys, 0, size);
+	float previousColor = batch.getPackedColor();
+	Texture currentTexture = null;
+	int flushes = 0;
+	float[] data = spriteData.items;
+	for (int i = 0; i < size; i++) {
+		long key = sortedKeys[i];
+		int sequence = (int) (key & SEQUENCE_MASK);
+		TextureRegion region = regions.get(sequence);
+		if (region.getTexture() != currentTexture) {
+			flushes++;
+			currentTexture = region.getTexture();
+		}
+		int offset = sequence * SPRITE_SIZE;
+		batch.setColor(data[offset + 9]);
+		batch.draw(
+			region,
+			data[offset],
+			data[offset + 1],
+			data[offset + 2],
+			data[offset + 3],
+			data[offset + 4],
+			data[offset + 5],
+			data[offset + 6],
+			data[offset + 7],
+			data[offset + 8]
+		);
+	}
+	batch.setColor(previousColor);
+	lastFrameSprites = size;
+	lastFrameFlushes = flushes;
+	lastFrameUnsortedFlushes = unsortedFlushes;
+	keys.clear();
+	regions.clear();
+	spriteData.clear();
+	textureIds.clear();
+	lastSubmittedTexture = null;
+	unsortedFlushes = 0;
+}
+
+/**
+ * @return How many sprites were drawn by the last {@link #flush(Batch)}.
+ */
+public int getLastFrameSprites() {
+	return lastFrameSprites;
+}
+
+/**
+ * @return How many times the batch had to be flushed because of texture changes during the last {@link
+ * #flush(Batch)}.
+ */
+public int getLastFrameFlushes() {
+	return lastFrameFlushes;
+}
+
+/**
+ * @return How many times the batch would have been flushed during the last {@link #flush(Batch)} if sprites were drawn
+ * in the order they were submitted.
+ */
+public int getLastFrameUnsortedFlushes() {
+	return lastFrameUnsortedFlushes;
+}
+}
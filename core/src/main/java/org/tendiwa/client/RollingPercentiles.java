@@ -0,0 +1,73 @@
+package org.tendiwa.client;
+
+import java.util.Arrays;
+
+/**
+ * Keeps a fixed number of the latest samples of some value and tells percentiles over them.
+ */
+public class RollingPercentiles {
+private final float[] samples;
+/**
+ * Sorted copy of {@link #samples}, made only when a percentile is requested after new samples were added.
+ */
+private final float[] sorted;
+private int size;
+private int next;
+private boolean sortedValid;
+
+/**
+ * @param capacity
+ * 	How many latest samples to keep.
+ */
+public RollingPercentiles(int capacity) {
+	samples = new float[capacity];
+	sorted = new float[capacity];
+}
+
+/**
+ * Adds a sample, replacing the oldest one if there are already as many samples as this window can hold.
+ *
+ * @param sample
+ * 	A value.
+ */
+public void add(float sample) {
+	samples[next] = sample;
+	next = (next + 1) % samples.length;
+	if (size < samples.length) {
+		size++;
+	}
+	sortedValid = false;
+}
+
+/**
+ * @param percentile
+ * 	A number from 0 to 100.
+ * @return The smallest sample not less than the given percent of samples (nearest-rank method), or 0 if there are
+ * no samples yet.
+ */
+public float get(float percentile) {
+	if (size == 0) {
+		return 0;
+	}
+	if (!sortedValid) {
+		System.arraycopy(samples, 0, sorted, 0, size);
+		Arrays.sort(sorted, 0, size);
+		sortedValid = true;
+	}
+	int rank = (int) Math.ceil(percentile / 100 * size);
+	return sorted[Math.max(0, Math.min(rank, size) - 1)];
+}
+
+/**
+ * @return How many samples there are in the window.
+ */
+public int size() {
+	return size;
+}
+
+public void clear() {
+	size = 0;
+	next = 0;
+	sortedValid = false;
+}
+}
@@ -3,21 +3,25 @@ package org.tendiwa.client;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.utils.Array;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
+import org.tendiwa.client.ui.factories.WallImageCacheRegistry;
 import org.tendiwa.client.ui.fonts.FontRegistry;
 import org.tendiwa.client.ui.model.CursorPosition;
 
-import java.util.LinkedList;
-import java.util.List;
-
+/**
+ * Lines of debug information drawn over the game. Each line writes its text into the same builder every frame, so
+ * drawing them doesn't create strings.
+ */
 @Singleton
 public class StatusLayer {
 private final BitmapFont font;
 private final Batch batch;
 private final GameScreenViewport viewport;
-private List<Object> lines = new LinkedList<>();
+private final Array<StatusLine> lines = new Array<>();
+private final StringBuilder text = new StringBuilder();
 private int lineHeight = 18;
 private int padding = 20;
 
@@ -26,31 +30,66 @@ public StatusLayer(
 	@Named("game_screen_batch") Batch batch,
 	final GameScreenViewport viewport,
 	FontRegistry fontRegistry,
-	final CursorPosition cursorPosition
+	final CursorPosition cursorPosition,
+	final WallImageCacheRegistry wallImageCacheRegistry,
+	final RenderQueue renderQueue,
+	final FrameProfiler profiler
 ) {
 	this.batch = batch;
 	this.viewport = viewport;
 	this.font = fontRegistry.obtain(20, true);
-	addLine(new Object() {
+	addLine(new StatusLine() {
+		@Override
+		public void write(StringBuilder text) {
+			text.append(Gdx.graphics.getFramesPerSecond()).append(" FPS");
+		}
+	});
+	addLine(new StatusLine() {
 		@Override
-		public String toString() {
-			return Gdx.graphics.getFramesPerSecond() + " FPS";
+		public void write(StringBuilder text) {
+			text.append("screen at ").append(viewport.getStartCellX()).append(':').append(viewport.getStartCellY());
 		}
 	});
-	addLine(new Object() {
+	addLine(new StatusLine() {
 		@Override
-		public String toString() {
-			return "screen at " + viewport.getStartCellX() + ":" + viewport.getStartCellY();
+		public void write(StringBuilder text) {
+			text.append("cursor at ").append(cursorPosition.getWorldX()).append(':').append(cursorPosition.getWorldY());
 		}
 	});
-	addLine(new Object() {
+	addLine(new StatusLine() {
 		@Override
-		public String toString() {
-			int worldX = cursorPosition.getWorldX();
-			int worldY = cursorPosition.getWorldY();
-			return "cursor at " + worldX + ":" + worldY;
+		public void write(StringBuilder text) {
+			text.append("wall images: ").append(wallImageCacheRegistry.getHits()).append(" hits, ")
+				.append(wallImageCacheRegistry.getMisses()).append(" misses, ")
+				.append(wallImageCacheRegistry.getEvictions()).append(" evictions");
 		}
 	});
+	addLine(new StatusLine() {
+		@Override
+		public void write(StringBuilder text) {
+			text.append("stage: ").append(renderQueue.getLastFrameSprites()).append(" sprites, ")
+				.append(renderQueue.getLastFrameFlushes()).append(" flushes (")
+				.append(renderQueue.getLastFrameUnsortedFlushes()).append(" unsorted)");
+		}
+	});
+	addLine(new StatusLine() {
+		@Override
+		public void write(StringBuilder text) {
+			if (profiler.isEnabled()) {
+				profiler.describeFrame(text);
+			}
+		}
+	});
+	for (final FrameProfiler.Stage stage : FrameProfiler.Stage.values()) {
+		addLine(new StatusLine() {
+			@Override
+			public void write(StringBuilder text) {
+				if (profiler.isEnabled()) {
+					profiler.describe(stage, text);
+				}
+			}
+		});
+	}
 //	addLine(new Object() {
 //		@Override
 //		public String toString() {
@@ -72,11 +111,16 @@ public StatusLayer(
 public void draw() {
 	batch.begin();
 	int lineNumber = 0;
-	for (Object line : lines) {
-
+	for (int i = 0; i < lines.size; i++) {
+		text.setLength(0);
+		lines.get(i).write(text);
+		if (text.length() == 0) {
+			// Lines that have nothing to show right now don't take space.
+			continue;
+		}
 		font.draw(
 			batch,
-			line.toString(),
+			text,
 			viewport.getStartPixelX() + padding,
 			viewport.getStartPixelY() + padding + lineHeight * lineNumber
 		);
@@ -85,7 +129,15 @@ public void draw() {
 	batch.end();
 }
 
-private void addLine(Object line) {
+private void addLine(StatusLine line) {
 	lines.add(line);
 }
+
+private interface StatusLine {
+	/**
+	 * @param text
+	 * 	An empty builder to append text of the line to. A line that appends nothing is not drawn.
+	 */
+	void write(StringBuilder text);
+}
 }
@@ -8,11 +8,13 @@ import org.tendiwa.core.Character;
 @Singleton
 public class TaskManager {
 private final Character player;
+private final PathService pathService;
 Task currentTask;
 
 @Inject
-TaskManager(@Named("player") Character player) {
+TaskManager(@Named("player") Character player, PathService pathService) {
 	this.player = player;
+	this.pathService = pathService;
 }
 
 public boolean trySettingTask(Task task) {
@@ -28,11 +30,11 @@ public boolean trySettingTask(Task task) {
 public void executeCurrentTask() {
 	if (currentTask != null) {
 		if (currentTask.ended()) {
-			currentTask = null;
+			cancelCurrentTask();
 		} else {
 			currentTask.execute();
 			if (player.isUnderAnyThreat()) {
-				currentTask = null;
+				cancelCurrentTask();
 			}
 		}
 	} else {
@@ -40,11 +42,20 @@ public void executeCurrentTask() {
 	}
 }
 
+/**
+ * Hands paths searched on workers to tasks waiting for them. Tasks may be set by the paths' listeners, so this is called
+ * before checking for a current task.
+ */
+public void processCompletedPaths() {
+	pathService.deliverCompleted();
+}
+
 public boolean hasCurrentTask() {
 	return currentTask != null;
 }
 
 public void cancelCurrentTask() {
 	currentTask = null;
+	pathService.cancel();
 }
 }
\ No newline at end of file
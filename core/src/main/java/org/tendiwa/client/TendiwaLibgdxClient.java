@@ -7,11 +7,23 @@ import com.google.inject.Injector;
 import org.tendiwa.client.extensions.std.StdModule;
 import org.tendiwa.client.extensions.std.actions.ActionsWidgetModule;
 import org.tendiwa.client.extensions.std.spells.SpellsWidgetModule;
+import org.tendiwa.client.replay.EventCounter;
+import org.tendiwa.client.replay.ReplayDriver;
+import org.tendiwa.client.replay.SessionRecorder;
 import org.tendiwa.core.Tendiwa;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 public class TendiwaLibgdxClient extends Game {
 
 private static Injector injector;
+/**
+ * Recording to replay instead of taking input from player, or null.
+ */
+private static Path replayFile;
+private static boolean replayAnimations = true;
+private ReplayDriver replayDriver;
 
 @Inject
 public TendiwaLibgdxClient() {
@@ -29,6 +41,14 @@ public static void main(String[] args) {
 			new StdModule(),
 			new SpellsWidgetModule()
 		);
+		if (args.length > 1 && args[0].equals("record")) {
+			injector.getInstance(SessionRecorder.class).start(Paths.get(args[1]));
+		} else if (args.length > 1 && args[0].equals("replay")) {
+			// Events must be counted from the very first one, which is emitted before the replay starts.
+			injector.getInstance(EventCounter.class);
+			replayFile = Paths.get(args[1]);
+			replayAnimations = !(args.length > 2 && args[2].equals("noanimations"));
+		}
 		injector.getInstance(LwjglApplication.class);
 	}
 }
@@ -37,5 +57,24 @@ public static void main(String[] args) {
 public void create() {
 	Languages.init();
 	setScreen(injector.getInstance(GameScreen.class));
+	if (replayFile != null) {
+		replayDriver = injector.getInstance(ReplayDriver.class);
+		replayDriver.start(replayFile, replayAnimations);
+	}
+}
+
+@Override
+public void render() {
+	if (replayDriver != null && replayDriver.isReplaying()) {
+		replayDriver.renderFrame(getScreen());
+	} else {
+		super.render();
+	}
+}
+
+@Override
+public void dispose() {
+	super.dispose();
+	injector.getInstance(SessionRecorder.class).finish();
 }
 }
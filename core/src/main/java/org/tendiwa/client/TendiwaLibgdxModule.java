@@ -127,8 +127,6 @@ public class TendiwaLibgdxModule extends AbstractModule {
                 .build(ObjectActorFactory.class));
         install(new FactoryModuleBuilder()
                 .build(ProjectileActorFactory.class));
-        install(new FactoryModuleBuilder()
-                .build(WallActorFactory.class));
         install(new FactoryModuleBuilder()
                 .build(RenderPlaneFactory.class));
         install(new FactoryModuleBuilder()
@@ -159,12 +157,6 @@ public class TendiwaLibgdxModule extends AbstractModule {
         return factory.create(Gdx.files.internal("shaders/fovHalfTransparency.f.glsl").readString());
     }
 
-    @Provides
-    @Named("shader_draw_with_rgb_06")
-    private ShaderProgram provideDrawWithRgb06Shader(ShaderProgramFactory factory) {
-        return factory.create(Gdx.files.internal("shaders/drawWithRGB06.f.glsl").readString());
-    }
-
     @Provides
     @Named("shader_fov_transition")
     private ShaderProgram provideFovTransitionShader(ShaderProgramFactory factory) {
@@ -1,17 +1,18 @@
 package org.tendiwa.client;
 
+import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.math.Interpolation;
 import com.badlogic.gdx.scenes.scene2d.Action;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.actions.*;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.LongMap;
 import com.badlogic.gdx.utils.SnapshotArray;
 import com.badlogic.gdx.utils.viewport.FitViewport;
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Table;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import org.tendiwa.client.rendering.effects.Blood;
@@ -21,6 +22,7 @@ import org.tendiwa.core.*;
 import org.tendiwa.core.Character;
 import org.tendiwa.core.clients.RenderBorder;
 import org.tendiwa.core.clients.RenderCell;
+import org.tendiwa.core.clients.RenderPlane;
 import org.tendiwa.core.clients.RenderWorld;
 import org.tendiwa.core.events.*;
 import org.tendiwa.core.observation.Finishable;
@@ -30,20 +32,24 @@ import org.tendiwa.core.player.SinglePlayerMode;
 import org.tendiwa.core.vision.Seer;
 import org.tendiwa.geometry.Cells;
 
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 
 import static com.badlogic.gdx.scenes.scene2d.actions.Actions.*;
 
+/**
+ * Holds actors of everything in the world, and draws walls from {@link WallLayer} between them. Actors that stay in a
+ * single cell (objects and border objects) are kept in an {@link ActorGrid} instead of the root group, so only those of
+ * them near the viewport are acted and drawn;
+ * moving and short-lived actors (characters, projectiles, sounds, effects) are children of the root group. Character
+ * actors are also kept in {@link ActorRows} to be drawn in the order of rows.
+ */
 public class TendiwaStage extends Stage {
 
-private static Comparator<Actor> ySorter = new Comparator<Actor>() {
-	@Override
-	public int compare(Actor o1, Actor o2) {
-		return -Math.round(o1.getY()) + Math.round(o2.getY());
-	}
-};
+/**
+ * How many cells around the viewport actors in {@link #grid} still act.
+ */
+private static final int ACT_MARGIN = ActorGrid.CHUNK_SIZE;
 private final Character player;
 private final RenderWorld renderWorld;
 private final SoundActorFactory soundActorFactory;
@@ -56,21 +62,46 @@ private final GraphicsConfig config;
 private final SinglePlayerMode singlePlayerMode;
 private final TimeStream timeStream;
 private final World world;
-private final WallActorFactory wallActorFactory;
+private final WallLayer wallLayer;
 private final CharacterActorFactory characterActorFactory;
+private final DirtyCellTracker dirtyCells;
+private final GameScreenViewport viewport;
+private final ActorGrid grid;
+private final ActorRows characterRows;
+/**
+ * Character actors whose move animations are playing. Each of them is moved to another row of {@link #characterRows}
+ * as soon as its animated position crosses into that row, so it's drawn at the depth of where it is seen.
+ */
+private final Array<CharacterActor> movingCharacters = new Array<>(false, 8);
+private final RenderQueue renderQueue;
 private Map<Character, CharacterActor> characterActors = new HashMap<>();
+/**
+ * Character actors by cells their characters stand in, keyed by {@link Chunk#cellHash(int, int, int)}.
+ */
+private final IntMap<Array<CharacterActor>> cell2characters = new IntMap<>();
+/**
+ * Numbers of items in visible cells with characters in them as of the previous frame, keyed by
+ * {@link Chunk#cellHash(int, int, int)}. Backend tells when player gets or loses an item, but not when other characters
+ * pick up or drop items, so piles under visible characters are watched for changes.
+ */
+private final IntIntMap itemsUnderCharacters = new IntIntMap();
 private com.badlogic.gdx.scenes.scene2d.Actor playerCharacterActor;
 private Map<Item, Actor> itemActors = new HashMap<>();
-private HashMap<Integer, WallActor> wallActors = new HashMap<>();
-private Multimap<Integer, Actor> plane2actors = HashMultimap.create();
-private Table<Integer, CardinalDirection, BorderObjectActor> borderObjectActors = HashBasedTable.create();
+/**
+ * Object actors of each plane level by {@link Chunk#cellHash(int, int, int)} of their cells.
+ */
+private final IntMap<IntMap<ObjectActor>> plane2actors = new IntMap<>();
+/**
+ * Border object actors by {@link #getBorderKey(int, int, CardinalDirection)}.
+ */
+private final LongMap<BorderObjectActor> borderObjectActors = new LongMap<>();
 
 @Inject
 TendiwaStage(
 	@Named("player") TimeStream timeStream,
 	@Named("game_screen_batch") Batch batch,
 	@Named("current_player_world") final World world,
-	WallActorFactory wallActorFactory,
+	WallLayer wallLayer,
 	CharacterActorFactory characterActorFactory,
 	final MessageLog messageLog,
 	@Named("player") final Character player,
@@ -85,12 +116,14 @@ TendiwaStage(
 	final ObjectActorFactory objectActorFactory,
 	final BorderMarkerFactory borderMarkerFactory,
 	final GraphicsConfig config,
-	SinglePlayerMode singlePlayerMode
+	SinglePlayerMode singlePlayerMode,
+	final DirtyCellTracker dirtyCells,
+	RenderQueue renderQueue
 ) {
 	super(new FitViewport(world.getWidth(), world.getHeight(), viewport.getCamera()), batch);
 	this.timeStream = timeStream;
 	this.world = world;
-	this.wallActorFactory = wallActorFactory;
+	this.wallLayer = wallLayer;
 	this.characterActorFactory = characterActorFactory;
 	this.player = player;
 	this.renderWorld = renderWorld;
@@ -102,6 +135,11 @@ TendiwaStage(
 	this.objectActorFactory = objectActorFactory;
 	this.config = config;
 	this.singlePlayerMode = singlePlayerMode;
+	this.dirtyCells = dirtyCells;
+	this.viewport = viewport;
+	this.renderQueue = renderQueue;
+	this.grid = new ActorGrid(world.getWidth(), world.getHeight());
+	this.characterRows = new ActorRows(world.getHeight());
 //	setCamera(viewport.getCamera());
 	initializeActors();
 	model.subscribe(new Observer<EventFovChange>() {
@@ -112,16 +150,18 @@ TendiwaStage(
 				borderMarkerFactory.create(border);
 			}
 			for (Integer coord : event.unseenCells) {
+				dirtyCells.markCellHash(coord);
+				updateCharactersVisibilityInCell(coord);
 //				if (gameScreen.getCurrentBackendPlane().hasWall(cell.x, cell.y)) {
-//					gameScreen.getStage().removeWallActor(cell.x, cell.y);
+//					wallLayer.removeWall(cell.x, cell.y);
 //				}
 			}
 			for (RenderCell cell : event.seenCells) {
 				assert player.getPlane().containsCell(cell.x, cell.y) : cell;
+				dirtyCells.markCell(cell.x, cell.y);
+				updateCharactersVisibilityInCell(Chunk.cellHash(cell.x, cell.y, world.getHeight()));
 				if (player.getPlane().hasWall(cell.x, cell.y)) {
-					if (!hasWallActor(cell.x, cell.y)) {
-						addWallActor(cell.x, cell.y);
-					}
+					wallLayer.addWall(cell.x, cell.y);
 				} else if (player.getPlane().hasObject(cell.x, cell.y)) {
 					addObjectActor(cell.x, cell.y);
 				}
@@ -141,11 +181,17 @@ TendiwaStage(
 	model.subscribe(new Observer<EventMove>() {
 		@Override
 		public void update(EventMove event, final Finishable<EventMove> emitter) {
-			Actor characterActor = getCharacterActor(event.character);
-			int index = event.character.getY() * world.getWidth() + event.character.getX();
-			sortActorsByY();
+			final CharacterActor characterActor = getCharacterActor(event.character);
+			removeCharacterFromCell(characterActor, event.xPrev, event.yPrev);
+			putCharacterInCell(characterActor, event.character.getX(), event.character.getY());
+			dirtyCells.markCell(event.xPrev, event.yPrev);
+			dirtyCells.markCell(event.character.getX(), event.character.getY());
+			final int rowAfterMove = event.character.getY();
 
 			if (config.animationsEnabled) {
+				if (!movingCharacters.contains(characterActor, true)) {
+					movingCharacters.add(characterActor);
+				}
 				Action action;
 				if (event.movingStyle == MovingStyle.STEP) {
 					action = new MoveToAction();
@@ -169,7 +215,9 @@ TendiwaStage(
 				Action sequence = sequence(action, run(new Runnable() {
 					@Override
 					public void run() {
-						updateCharactersVisibility();
+						movingCharacters.removeValue(characterActor, true);
+						characterRows.put(characterActor, rowAfterMove);
+						updateCharacterVisibility(characterActor);
 						emitter.done(observer);
 					}
 				}));
@@ -177,7 +225,8 @@ TendiwaStage(
 			} else {
 				characterActor.setX(event.character.getX());
 				characterActor.setY(event.character.getY());
-				updateCharactersVisibility();
+				characterRows.put(characterActor, rowAfterMove);
+				updateCharacterVisibility(characterActor);
 //				if (event.character.isPlayer()) {
 				// If this is player moving, then the next event will be
 				// EventFovChange, and to prevent flickering we make the current event
@@ -193,9 +242,10 @@ TendiwaStage(
 		public void update(EventInitialTerrain event, Finishable<EventInitialTerrain> emitter) {
 			for (RenderCell cell : event.seenCells) {
 //				renderWorld.getCurrentPlane().seeCell(cell);
+				dirtyCells.markCell(cell.x, cell.y);
 				HorizontalPlane plane = player.getPlane();
 				if (plane.hasWall(cell.x, cell.y)) {
-					addWallActor(cell.x, cell.y);
+					wallLayer.addWall(cell.x, cell.y);
 				} else if (plane.hasObject(cell.x, cell.y)) {
 					addObjectActor(cell.x, cell.y);
 				}
@@ -212,6 +262,7 @@ TendiwaStage(
 
 		@Override
 		public void update(final EventItemDisappear event, Finishable<EventItemDisappear> emitter) {
+			dirtyCells.markCell(event.x, event.y);
 			Actor actor = itemActorFactory.create(
 				event.x,
 				event.y,
@@ -290,6 +341,11 @@ TendiwaStage(
 		public void update(EventDie event, Finishable<EventDie> emitter) {
 			CharacterActor characterActor = getCharacterActor(event.character);
 			getRoot().removeActor(characterActor);
+			characterRows.remove(characterActor);
+			movingCharacters.removeValue(characterActor, true);
+			removeCharacterFromCell(characterActor, event.character.getX(), event.character.getY());
+			// A character may leave items where it dies.
+			dirtyCells.markCell(event.character.getX(), event.character.getY());
 			messageLog.pushMessage(
 				Languages.getText("log.death", event.character)
 			);
@@ -319,7 +375,7 @@ TendiwaStage(
 	model.subscribe(new Observer<EventProjectileFly>() {
 
 		@Override
-		public void update(EventProjectileFly event, final Finishable<EventProjectileFly> emitter) {
+		public void update(final EventProjectileFly event, final Finishable<EventProjectileFly> emitter) {
 			final Observer<EventProjectileFly> thisObserver = this;
 			Actor actor = obtainFlyingProjectileActor(
 				event.item,
@@ -331,6 +387,8 @@ TendiwaStage(
 				new Runnable() {
 					@Override
 					public void run() {
+						// A projectile may be left lying where it has landed.
+						dirtyCells.markCell(event.toX, event.toY);
 						emitter.done(thisObserver);
 					}
 				}
@@ -342,12 +400,11 @@ TendiwaStage(
 
 		@Override
 		public void update(EventMoveToPlane event, Finishable<EventMoveToPlane> emitter) {
+			dirtyCells.markAll();
 			removeActorsOfPlane(player.getPlane().getLevel());
 			for (RenderCell cell : event.seenCells) {
 				if (player.getPlane().hasWall(cell.x, cell.y)) {
-					if (!hasWallActor(cell.x, cell.y)) {
-						addWallActor(cell.x, cell.y);
-					}
+					wallLayer.addWall(cell.x, cell.y);
 				} else if (player.getPlane().hasObject(cell.x, cell.y)) {
 					addObjectActor(cell.x, cell.y);
 				}
@@ -355,12 +412,29 @@ TendiwaStage(
 			emitter.done(this);
 		}
 	}, EventMoveToPlane.class);
+	model.subscribe(new Observer<EventGetItem>() {
+		@Override
+		public void update(EventGetItem event, Finishable<EventGetItem> emitter) {
+			// Player might have picked up an item from the floor; items under other characters are watched in act.
+			dirtyCells.markCell(player.getX(), player.getY());
+			emitter.done(this);
+		}
+	}, EventGetItem.class);
+	model.subscribe(new Observer<EventLoseItem>() {
+		@Override
+		public void update(EventLoseItem event, Finishable<EventLoseItem> emitter) {
+			// Player might have dropped an item to the floor; items under other characters are watched in act.
+			dirtyCells.markCell(player.getX(), player.getY());
+			emitter.done(this);
+		}
+	}, EventLoseItem.class);
 }
 
 private void initializeActors() {
 	for (Character character : timeStream.getCharacters()) {
 		CharacterActor actor = createCharacterActor(character);
 		characterActors.put(character, actor);
+		putCharacterInCell(actor, character.getX(), character.getY());
 		if (singlePlayerMode.isPlayer(character)) {
 			playerCharacterActor = actor;
 		}
@@ -370,17 +444,91 @@ private void initializeActors() {
 	}
 }
 
+@Override
+public void act(float delta) {
+	super.act(delta);
+	int startX = viewport.getStartCellX();
+	int startY = viewport.getStartCellY();
+	grid.act(
+		delta,
+		startX - ACT_MARGIN,
+		startY - ACT_MARGIN,
+		viewport.getMaxRenderCellX() + ACT_MARGIN,
+		viewport.getMaxRenderCellY() + ACT_MARGIN
+	);
+	for (int i = 0; i < movingCharacters.size; i++) {
+		CharacterActor actor = movingCharacters.get(i);
+		int row = ActorRows.rowOf(actor);
+		if (row >= 0 && row < world.getHeight()) {
+			characterRows.put(actor, row);
+		}
+	}
+	markItemChangesUnderCharacters();
+}
+
+/**
+ * Marks visible cells with characters in them as dirty if the number of items in them has changed since the previous
+ * frame. Takes time proportional to the number of characters, not to the size of the viewport.
+ */
+private void markItemChangesUnderCharacters() {
+	HorizontalPlane plane = player.getPlane();
+	RenderPlane renderPlane = renderWorld.getCurrentPlane();
+	int height = world.getHeight();
+	IntMap.Keys cellHashes = cell2characters.keys();
+	while (cellHashes.hasNext) {
+		int cellHash = cellHashes.next();
+		int x = cellHash / height;
+		int y = cellHash % height;
+		RenderCell cell = renderPlane.getCell(x, y);
+		if (cell == null || !cell.isVisible()) {
+			continue;
+		}
+		int items = plane.hasAnyItems(x, y) ? plane.getItems(x, y).size() : 0;
+		if (itemsUnderCharacters.get(cellHash, -1) != items) {
+			itemsUnderCharacters.put(cellHash, items);
+			dirtyCells.markCell(x, y);
+		}
+	}
+}
+
 /**
- * Sets zIndexes of actors. This method is called whenever an actor is moved to another z-level. This method exists
- * because of a too simple z-index model of libgdx, where z-index can only be a value [0..numberOfActors).
+ * Draws actors row by row, from the top of the viewport to its bottom, so actors in lower rows are drawn over those in
+ * upper ones. In each row walls are drawn first, then actors from {@link #grid}, then characters. Actors outside of the
+ * viewport are not visited at all. All of them are submitted to {@link RenderQueue}, which reorders sprites inside a
+ * row to flush the batch less often. Other children of the root group (projectiles, sounds, effects) are drawn over
+ * everything else.
  */
-void sortActorsByY() {
+@Override
+public void draw() {
+	Camera camera = getCamera();
+	camera.update();
+	if (!getRoot().isVisible()) {
+		return;
+	}
+	Batch batch = getBatch();
+	batch.setProjectionMatrix(camera.combined);
+	batch.begin();
+	float parentAlpha = getRoot().getColor().a;
+	// Walls are a cell higher than floor, so the row below the viewport is drawn too.
+	int startX = viewport.getStartCellX() - 1;
+	int endX = viewport.getMaxRenderCellX() + 1;
+	int endY = viewport.getMaxRenderCellY() + 2;
+	for (int y = viewport.getStartCellY() - 1; y < endY; y++) {
+		wallLayer.submitRow(renderQueue, y);
+		grid.submitRow(renderQueue, y, startX, endX);
+		characterRows.submitRow(renderQueue, y);
+	}
+	renderQueue.flush(batch);
 	SnapshotArray<Actor> children = getRoot().getChildren();
-	children.sort(ySorter);
-	int index = 0;
-	for (Actor child : children) {
-		child.setZIndex(index);
+	Actor[] actors = children.begin();
+	for (int i = 0, n = children.size; i < n; i++) {
+		Actor actor = actors[i];
+		if (actor.isVisible() && !characterRows.contains(actor)) {
+			actor.draw(batch, parentAlpha);
+		}
 	}
+	children.end();
+	batch.end();
 }
 
 private CharacterActor createCharacterActor(Character character) {
@@ -391,6 +539,7 @@ private CharacterActor createCharacterActor(Character character) {
 		actor.setVisible(false);
 	}
 	addActor(actor);
+	characterRows.put(actor, character.getY());
 	return actor;
 }
 
@@ -471,91 +620,108 @@ public Actor obtainSoundActor(SoundType soundType, int x, int y) {
 	return soundActorFactory.create(soundType, x, y);
 }
 
-public void updateCharactersVisibility() {
-	for (CharacterActor actor : characterActors.values()) {
-		if (actor != null) {
-			Character character = actor.getCharacter();
-			if (playerSeer.canSee(character.getX(), character.getY())
-				&& !actor.isVisible()) {
-				actor.setVisible(true);
-			} else if (!playerSeer.canSee(character.getX(), character.getY())
-				&& actor.isVisible()) {
-				actor.setVisible(false);
-			}
-
-		}
-	}
+/**
+ * Shows or hides a character's actor depending on whether the player can see the character's cell.
+ *
+ * @param actor
+ * 	Actor of a character.
+ */
+public void updateCharacterVisibility(CharacterActor actor) {
+	Character character = actor.getCharacter();
+	actor.setVisible(playerSeer.canSee(character.getX(), character.getY()));
 }
 
 /**
- * Creates a new WallActor and puts it in this Stage.
+ * Updates visibility of characters in a cell whose visibility has changed.
  *
- * @param x
- * 	X coordinate of an actor in world coordinates.
- * @param y
- * 	Y coordinate of an actor in world coordinates.
+ * @param cellHash
+ * 	{@link Chunk#cellHash(int, int, int)} of a cell.
  */
-public void addWallActor(int x, int y) {
-	GameObject gameObject = player.getPlane().getGameObject(x, y);
-	WallActor actor = wallActorFactory.create(x, y, (WallType) gameObject, renderWorld.getCurrentPlane());
-	wallActors.put(getWallActorKey(x, y), actor);
-//	actor.setVisible(false);
-	addActor(actor);
-	actor.setZIndex(y * world.getWidth() + x);
+private void updateCharactersVisibilityInCell(int cellHash) {
+	Array<CharacterActor> actors = cell2characters.get(cellHash);
+	if (actors == null) {
+		return;
+	}
+	for (CharacterActor actor : actors) {
+		updateCharacterVisibility(actor);
+	}
 }
 
-public void removeWallActor(int x, int y) {
-	WallActor actor = wallActors.get(getWallActorKey(x, y));
-	assert actor != null;
-	getRoot().removeActor(actor);
+private void putCharacterInCell(CharacterActor actor, int x, int y) {
+	int cellHash = Chunk.cellHash(x, y, world.getHeight());
+	Array<CharacterActor> actors = cell2characters.get(cellHash);
+	if (actors == null) {
+		actors = new Array<>(false, 1);
+		cell2characters.put(cellHash, actors);
+	}
+	actors.add(actor);
 }
 
-/**
- * Returns a key under which a WallActor in a particular cell will be stored in {@link TendiwaStage#wallActors}.
- *
- * @param x
- * 	X coordinate of a wall in world coordinates.
- * @param y
- * 	Y coordinate of a wall in world coordinates.
- * @return A key which is a hash of 2 coordinates.
- */
-private int getWallActorKey(int x, int y) {
-	return x * world.getHeight() + y;
+private void removeCharacterFromCell(CharacterActor actor, int x, int y) {
+	int cellHash = Chunk.cellHash(x, y, world.getHeight());
+	Array<CharacterActor> actors = cell2characters.get(cellHash);
+	if (actors == null) {
+		return;
+	}
+	actors.removeValue(actor, true);
+	if (actors.size == 0) {
+		cell2characters.remove(cellHash);
+		itemsUnderCharacters.remove(cellHash, -1);
+	}
 }
 
 /**
- * Checks if there is an actor for a wall in a particular cell.
+ * Creates an actor for an object in a cell of the player's current plane, unless there already is one.
  *
  * @param x
- * 	X coordinate of a wall in world coordinates.
+ * 	X coordinate of an object in world coordinates.
  * @param y
- * 	Y coordinate of a wall in world coordinates.
- * @return true if there is one, false otherwise.
+ * 	Y coordinate of an object in world coordinates.
  */
-public boolean hasWallActor(int x, int y) {
-	return wallActors.containsKey(getWallActorKey(x, y));
-}
-
 public void addObjectActor(int x, int y) {
+	int level = player.getPlane().getLevel();
+	IntMap<ObjectActor> actors = plane2actors.get(level);
+	if (actors == null) {
+		actors = new IntMap<>();
+		plane2actors.put(level, actors);
+	}
+	int cellHash = Chunk.cellHash(x, y, world.getHeight());
+	if (actors.containsKey(cellHash)) {
+		return;
+	}
 	ObjectActor actor = objectActorFactory.create(
 		x,
 		y,
 		player.getPlane().getGameObject(x, y),
 		renderWorld.getCurrentPlane()
 	);
-	plane2actors.put(player.getPlane().getLevel(), actor);
-	addActor(actor);
+	actors.put(cellHash, actor);
+	grid.add(actor, x, y);
 }
 
 public void removeActorsOfPlane(int zLevel) {
-	for (Actor actor : plane2actors.get(zLevel)) {
-		getRoot().removeActor(actor);
+	IntMap<ObjectActor> actors = plane2actors.remove(zLevel);
+	if (actors == null) {
+		return;
+	}
+	for (ObjectActor actor : actors.values()) {
+		grid.remove(actor, (int) actor.getX(), (int) actor.getY());
 	}
-	plane2actors.removeAll(zLevel);
 }
 
-public WallActor getWallActor(int worldX, int worldY) {
-	return wallActors.get(getWallActorKey(worldX, worldY));
+/**
+ * Packs a cell and a side of it into a single key, so borders can be looked up without boxing.
+ *
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ * @param side
+ * 	Side of the cell.
+ * @return A key unique for each border.
+ */
+private long getBorderKey(int x, int y, CardinalDirection side) {
+	return (long) Chunk.cellHash(x, y, world.getHeight()) << 2 | side.getCardinalIndex();
 }
 
 public BorderObjectActor addBorderObjectActor(RenderBorder border) {
@@ -565,14 +731,16 @@ public BorderObjectActor addBorderObjectActor(RenderBorder border) {
 		border.getObject(),
 		renderWorld.getCurrentPlane()
 	);
-	borderObjectActors.put(Chunk.cellHash(border.getX(), border.getY(), world.getHeight()), border.getSide(), actor);
-	addActor(actor);
+	borderObjectActors.put(getBorderKey(border.getX(), border.getY(), border.getSide()), actor);
+	grid.add(actor, border.getX(), border.getY());
 	return actor;
 }
 
 public void removeBorderObjectActor(int worldX, int worldY, CardinalDirection side) {
-	BorderObjectActor removedActor = borderObjectActors.remove(Chunk.cellHash(worldX, worldY, world.getHeight()), side);
-	getRoot().removeActor(removedActor);
+	BorderObjectActor removedActor = borderObjectActors.remove(getBorderKey(worldX, worldY, side));
+	if (removedActor != null) {
+		grid.remove(removedActor, worldX, worldY);
+	}
 }
 
 }
@@ -7,6 +7,7 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 
@@ -23,6 +24,15 @@ private final Texture fboTexture;
 private final int tileSizeX;
 private final int tileSizeY;
 private final int maxNumber;
+/**
+ * Projection of {@link #textureDrawingBatch} with y axis pointing down, used for drawing transitions.
+ */
+private final Matrix4 drawingProjection;
+/**
+ * Projection with y axis pointing up, so framebuffer coordinates map to this framebuffer's texture coordinates as
+ * they are, used for copying images between framebuffers.
+ */
+private final Matrix4 copyProjection;
 private int lastClaimedRegionNumber = 0;
 
 @Inject
@@ -41,10 +51,49 @@ public TileTextureRegionProvider(
 	fboTexture = fbo.getColorBufferTexture();
 	OrthographicCamera camera = new OrthographicCamera(fboDimension, fboDimension);
 	camera.setToOrtho(true, fboDimension, fboDimension);
-	textureDrawingBatch.setProjectionMatrix(camera.combined);
+	drawingProjection = new Matrix4(camera.combined);
+	copyProjection = new Matrix4().setToOrtho2D(0, 0, fboDimension, fboDimension);
+	textureDrawingBatch.setProjectionMatrix(drawingProjection);
 	maxNumber = regionsPerRow * regionsPerRow;
 }
 
+/**
+ * Copies an image from the top left corner of another framebuffer into a region of this provider's framebuffer. The
+ * image is drawn as a textured quad, so its pixels never leave the GPU.
+ *
+ * @param source
+ * 	A framebuffer with an image in its top left corner. It must not be bound at the moment.
+ * @param destination
+ * 	A region obtained from this provider with {@link #obtainFboTextureRegion()}. Its size is the size of the copied
+ * 	image.
+ */
+void copyFromFrameBuffer(FrameBuffer source, TextureRegion destination) {
+	int width = destination.getRegionWidth();
+	int height = destination.getRegionHeight();
+	fbo.begin();
+	textureDrawingBatch.setProjectionMatrix(copyProjection);
+	// Replace pixels of the region, including their alpha, instead of blending over what was there before.
+	textureDrawingBatch.disableBlending();
+	textureDrawingBatch.begin();
+	textureDrawingBatch.draw(
+		source.getColorBufferTexture(),
+		destination.getRegionX(),
+		destination.getRegionY(),
+		width,
+		height,
+		0,
+		source.getHeight() - height,
+		width,
+		height,
+		false,
+		true
+	);
+	textureDrawingBatch.end();
+	textureDrawingBatch.enableBlending();
+	textureDrawingBatch.setProjectionMatrix(drawingProjection);
+	fbo.end();
+}
+
 TextureRegion obtainFboTextureRegion() {
 	if (lastClaimedRegionNumber >= maxNumber) {
 		throw new RuntimeException("Maximum number of generated textures (" + maxNumber + ") exceeded");
@@ -0,0 +1,133 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps procedurally generated transition images between launches of the client, so {@link TransitionPregenerator}s
+ * don't have to generate them pixel by pixel on each start.
+ * <p>
+ * Each entry is a PNG image and an index file next to it. The index file holds {@link #VERSION} and a checksum of the
+ * assets the images were generated from; if either doesn't match, the entry is considered stale and the images are
+ * generated again.
+ */
+@Singleton
+public class TransitionDiskCache {
+/**
+ * Must be increased each time the way transitions are generated changes, so images cached by older versions are not
+ * used.
+ */
+static final int VERSION = 1;
+private static final String DIRECTORY = "cache/transitions";
+private final Logger logger;
+
+@Inject
+TransitionDiskCache(Logger logger) {
+	this.logger = logger;
+}
+
+/**
+ * Computes a checksum of the contents of asset files.
+ *
+ * @param assets
+ * 	Files that generated images depend on.
+ * @return Checksum to be saved with images in {@link #save(String, long, Pixmap)}.
+ */
+public static long checksum(FileHandle... assets) {
+	CRC32 crc = new CRC32();
+	for (FileHandle asset : assets) {
+		crc.update(asset.readBytes());
+	}
+	return crc.getValue();
+}
+
+/**
+ * Loads previously saved images.
+ *
+ * @param key
+ * 	Name of an entry, unique among all the entries.
+ * @param checksum
+ * 	Checksum of the assets the images depend on.
+ * @param width
+ * 	Expected width of the image.
+ * @param height
+ * 	Expected height of the image.
+ * @return The saved image, or null if there is no up to date image under that key.
+ */
+public Pixmap load(String key, long checksum, int width, int height) {
+	FileHandle index = getIndexFile(key);
+	FileHandle image = getImageFile(key);
+	if (!index.exists() || !image.exists()) {
+		return null;
+	}
+	Properties properties = new Properties();
+	try (InputStream input = index.read()) {
+		properties.load(input);
+	} catch (IOException | GdxRuntimeException e) {
+		logger.warn("Could not read transitions cache index " + index.path(), e);
+		return null;
+	}
+	if (!String.valueOf(VERSION).equals(properties.getProperty("version"))
+		|| !String.valueOf(checksum).equals(properties.getProperty("checksum"))) {
+		return null;
+	}
+	Pixmap pixmap;
+	try {
+		pixmap = new Pixmap(image);
+	} catch (GdxRuntimeException e) {
+		logger.warn("Could not read cached transitions " + image.path(), e);
+		return null;
+	}
+	if (pixmap.getWidth() != width || pixmap.getHeight() != height) {
+		pixmap.dispose();
+		return null;
+	}
+	return pixmap;
+}
+
+/**
+ * Saves images to be loaded on the next launches. Failure to save is logged and otherwise ignored, because the cache is
+ * only an optimization.
+ *
+ * @param key
+ * 	Name of an entry, unique among all the entries.
+ * @param checksum
+ * 	Checksum of the assets the images depend on.
+ * @param pixmap
+ * 	Images to save.
+ */
+public void save(String key, long checksum, Pixmap pixmap) {
+	Properties properties = new Properties();
+	properties.setProperty("version", String.valueOf(VERSION));
+	properties.setProperty("checksum", String.valueOf(checksum));
+	try {
+		// Image is written first, so an index never points to a missing image.
+		PixmapIO.writePNG(getImageFile(key), pixmap);
+		try (OutputStream output = getIndexFile(key).write(false)) {
+			properties.store(output, "Tendiwa transitions cache");
+		}
+	} catch (IOException | GdxRuntimeException e) {
+		logger.warn("Could not save transitions cache entry " + key, e);
+	}
+}
+
+private FileHandle getIndexFile(String key) {
+	return Gdx.files.local(DIRECTORY + "/" + key + ".index");
+}
+
+private FileHandle getImageFile(String key) {
+	return Gdx.files.local(DIRECTORY + "/" + key + ".png");
+}
+}
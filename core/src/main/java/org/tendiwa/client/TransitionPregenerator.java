@@ -18,38 +18,78 @@ private final TileTextureRegionProvider regionProvider;
 private final TextureRegion[] textures;
 private final int variationsPerTransition;
 private final int totalTransitionTextures;
+private final TransitionDiskCache diskCache;
 
-public TransitionPregenerator(TileTextureRegionProvider tileTextureRegionProvider, int variationsPerTransition) {
+public TransitionPregenerator(
+	TileTextureRegionProvider tileTextureRegionProvider,
+	TransitionDiskCache diskCache,
+	int variationsPerTransition
+) {
 	this.variationsPerTransition = variationsPerTransition;
+	this.diskCache = diskCache;
 	totalTransitionTextures = variationsPerTransition * 4;
 	textures = new TextureRegion[totalTransitionTextures];
 	this.regionProvider = tileTextureRegionProvider;
 }
 
+/**
+ * Loads transition images from {@link TransitionDiskCache}, or generates them and saves them there if there are no up
+ * to date images in the cache, and then puts them into the framebuffer of {@link #regionProvider}.
+ * <p>
+ * In the cache all the transitions are saved in a single row: all the variants of a transition to north, then to
+ * east, south and west.
+ */
 protected void createTransitions() {
+	String key = getDiskCacheKey();
+	long checksum = getAssetsChecksum();
+	Pixmap strip = diskCache.load(key, checksum, totalTransitionTextures * TILE_SIZE, TILE_SIZE);
+	boolean loaded = strip != null;
+	if (!loaded) {
+		strip = new Pixmap(totalTransitionTextures * TILE_SIZE, TILE_SIZE, Pixmap.Format.RGBA8888);
+	}
+	Pixmap tile = new Pixmap(TILE_SIZE, TILE_SIZE, Pixmap.Format.RGBA8888);
+	// Copy pixels as they are, including transparent ones.
+	Pixmap.setBlending(Pixmap.Blending.None);
 	regionProvider.getFbo().begin();
 	regionProvider.getTextureDrawingBatch().begin();
 	for (CardinalDirection dir : CardinalDirection.values()) {
-		createTransitionVariants(dir);
+		int end = (dir.getCardinalIndex() + 1) * variationsPerTransition;
+		for (int i = dir.getCardinalIndex() * variationsPerTransition; i < end; i++) {
+			if (!loaded) {
+				Pixmap transition = createTransition(dir);
+				strip.drawPixmap(transition, i * TILE_SIZE, 0);
+				transition.dispose();
+			}
+			tile.drawPixmap(strip, 0, 0, i * TILE_SIZE, 0, TILE_SIZE, TILE_SIZE);
+			// Designate a new region of texture in framebuffer
+			textures[i] = regionProvider.obtainFboTextureRegion();
+			regionProvider.getFboTexture().draw(
+				tile,
+				textures[i].getRegionX(),
+				textures[i].getRegionY()
+			);
+		}
 	}
 	regionProvider.getTextureDrawingBatch().end();
 	regionProvider.getFbo().end();
+	if (!loaded) {
+		diskCache.save(key, checksum, strip);
+	}
+	tile.dispose();
+	strip.dispose();
 }
 
 /**
- * Fills a TextureRegion with up to 4 transitions from cardinal sides.
+ * @return Name of this pregenerator's entry in {@link TransitionDiskCache}, unique among all the pregenerators.
  */
-private void createTransitionVariants(CardinalDirection dir) {
-	// Designate a new region of texture in framebuffer
-	int end = (dir.getCardinalIndex() + 1) * variationsPerTransition;
-	for (int i = dir.getCardinalIndex() * variationsPerTransition; i < end; i++) {
-		textures[i] = regionProvider.obtainFboTextureRegion();
-		regionProvider.getFboTexture().draw(
-			createTransition(dir),
-			textures[i].getRegionX(),
-			textures[i].getRegionY()
-		);
-	}
+protected abstract String getDiskCacheKey();
+
+/**
+ * @return Checksum of assets that transitions are generated from, so cached transitions are generated again when those
+ * assets change. By default transitions don't depend on any assets.
+ */
+protected long getAssetsChecksum() {
+	return 0;
 }
 
 /**
@@ -61,10 +101,13 @@ private void createTransitionVariants(CardinalDirection dir) {
  */
 public abstract Pixmap createTransition(CardinalDirection direction);
 
-public void drawTransitions(SpriteBatch batch, int x, int y, boolean[] neighborSelected, int screenX, int screenY) {
-	assert neighborSelected.length == 4;
+/**
+ * @param neighborSelected
+ * 	4 bits, one for each side a transition should be drawn from, as returned by {@link NeighborMasks} methods.
+ */
+public void drawTransitions(SpriteBatch batch, int x, int y, int neighborSelected, int screenX, int screenY) {
 	for (int i = 0; i < 4; i++) {
-		if (neighborSelected[i]) {
+		if (NeighborMasks.has(neighborSelected, i)) {
 			batch.draw(
 				getTransition(i, screenX, screenY),
 				x, y
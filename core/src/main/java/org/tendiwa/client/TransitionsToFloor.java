@@ -16,12 +16,6 @@ import org.tendiwa.geometry.Segment;
  * This class generates textures of transitions to a certain type of floor and provides access to them.
  */
 public class TransitionsToFloor extends TransitionPregenerator {
-private static final PixmapTextureAtlas pixmapTextureAtlasFloors;
-
-static {
-	pixmapTextureAtlasFloors = createPixmapTextureAtlas("floors");
-}
-
 private final FloorType floorType;
 
 /**
@@ -31,9 +25,10 @@ private final FloorType floorType;
 @Inject
 TransitionsToFloor(
 	@Named("transitions") TileTextureRegionProvider tileTextureRegionProvider,
-	@Assisted FloorType floorType
+	@Assisted FloorType floorType,
+	TransitionDiskCache diskCache
 ) {
-	super(tileTextureRegionProvider, 4);
+	super(tileTextureRegionProvider, diskCache, 4);
 	this.floorType = floorType;
 	createTransitions();
 }
@@ -42,11 +37,35 @@ private static PixmapTextureAtlas createPixmapTextureAtlas(String name) {
 	return new PixmapTextureAtlas(Gdx.files.internal("pack/" + name + ".png"), Gdx.files.internal("pack/" + name + ".atlas"));
 }
 
+@Override
+protected String getDiskCacheKey() {
+	return "floor-" + floorType.getResourceName();
+}
+
+@Override
+protected long getAssetsChecksum() {
+	return Floors.checksum;
+}
+
 @Override
 public Pixmap createTransition(CardinalDirection dir) {
-	int diffusionDepth = 13;
 	Pixmap.setBlending(Pixmap.Blending.None);
-	Pixmap pixmap = pixmapTextureAtlasFloors.createPixmap(floorType.getResourceName());
+	Pixmap pixmap = Floors.atlas.createPixmap(floorType.getResourceName());
+	diffuse(pixmap, dir);
+	return pixmap;
+}
+
+/**
+ * Makes an image of a floor fade out in a direction: clears most of the image and randomly clears pixels of the
+ * remaining strip along the {@code dir} side, the farther from that side, the more of them.
+ *
+ * @param pixmap
+ * 	A {@link #TILE_SIZE}x{@link #TILE_SIZE} image of a floor; it is modified in place.
+ * @param dir
+ * 	Side of a cell the transition comes from.
+ */
+static void diffuse(Pixmap pixmap, CardinalDirection dir) {
+	int diffusionDepth = 13;
 	CardinalDirection opposite = dir.opposite();
 	Rectangle transitionRec = DSL.rectangle(TILE_SIZE, TILE_SIZE).getSideAsSidePiece(dir).createRectangle(diffusionDepth);
 	Rectangle clearRec = DSL.rectangle(TILE_SIZE, TILE_SIZE).getSideAsSidePiece(opposite).createRectangle(TILE_SIZE - diffusionDepth);
@@ -78,6 +97,20 @@ public Pixmap createTransition(CardinalDirection dir) {
 		}
 		point = new Cell(sideSegment.getX(), sideSegment.getY()).moveToSide(opposite, iterationsI++);
 	}
-	return pixmap;
+}
+
+/**
+ * Floor images are loaded when the first transition is created rather than when this class is loaded, so {@link
+ * #diffuse(Pixmap, CardinalDirection)} can be used without assets.
+ */
+private static class Floors {
+	private static final PixmapTextureAtlas atlas = createPixmapTextureAtlas("floors");
+	/**
+	 * Transitions are made of floor images, so they have to be generated again when those images change.
+	 */
+	private static final long checksum = TransitionDiskCache.checksum(
+		Gdx.files.internal("pack/floors.png"),
+		Gdx.files.internal("pack/floors.atlas")
+	);
 }
 }
@@ -0,0 +1,117 @@
+package org.tendiwa.client;
+
+import org.tendiwa.pathfinding.dijkstra.PathWalker;
+
+import java.util.BitSet;
+
+/**
+ * Which cells of a rectangle around a cell could be stepped on at the moment the snapshot was taken. Backend may change
+ * the world only while nobody else reads it, so paths are searched in a snapshot, which never changes and may be read
+ * from any thread.
+ */
+public final class WalkabilitySnapshot {
+private final int originX;
+private final int originY;
+private final int startX;
+private final int startY;
+private final int width;
+private final int height;
+private final BitSet walkable;
+
+private WalkabilitySnapshot(int originX, int originY, int startX, int startY, int width, int height, BitSet walkable) {
+	this.originX = originX;
+	this.originY = originY;
+	this.startX = startX;
+	this.startY = startY;
+	this.width = width;
+	this.height = height;
+	this.walkable = walkable;
+}
+
+/**
+ * Asks a walker about every cell of a rectangle. Must be called while holding {@link org.tendiwa.core.Tendiwa#getLock()},
+ * so backend doesn't change the world in the middle of it. Takes time proportional to the area of the rectangle.
+ *
+ * @param walker
+ * 	Decides which cells can be stepped on.
+ * @param originX
+ * 	X coordinate of the cell paths will be searched from, in world coordinates. Must be inside the rectangle.
+ * @param originY
+ * 	Y coordinate of the cell paths will be searched from, in world coordinates. Must be inside the rectangle.
+ * @param startX
+ * 	X coordinate of the rectangle's top left cell in world coordinates.
+ * @param startY
+ * 	Y coordinate of the rectangle's top left cell in world coordinates.
+ * @param endX
+ * 	X coordinate of the rectangle's bottom right cell in world coordinates, inclusive.
+ * @param endY
+ * 	Y coordinate of the rectangle's bottom right cell in world coordinates, inclusive.
+ * @return A snapshot of the rectangle.
+ */
+public static WalkabilitySnapshot take(
+	PathWalker walker,
+	int originX,
+	int originY,
+	int startX,
+	int startY,
+	int endX,
+	int endY
+) {
+	if (originX < startX || originX > endX || originY < startY || originY > endY) {
+		throw new IllegalArgumentException(
+			"Origin " + originX + ":" + originY + " is outside of " + startX + ":" + startY + "-" + endX + ":" + endY
+		);
+	}
+	int width = endX - startX + 1;
+	int height = endY - startY + 1;
+	BitSet walkable = new BitSet(width * height);
+	for (int y = startY; y <= endY; y++) {
+		for (int x = startX; x <= endX; x++) {
+			if (walker.canStepOn(x, y)) {
+				walkable.set((y - startY) * width + x - startX);
+			}
+		}
+	}
+	return new WalkabilitySnapshot(originX, originY, startX, startY, width, height, walkable);
+}
+
+public int getOriginX() {
+	return originX;
+}
+
+public int getOriginY() {
+	return originY;
+}
+
+public int getStartX() {
+	return startX;
+}
+
+public int getStartY() {
+	return startY;
+}
+
+public int getWidth() {
+	return width;
+}
+
+public int getHeight() {
+	return height;
+}
+
+/**
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ * @return true if the cell is in the rectangle and could be stepped on.
+ */
+public boolean isWalkable(int x, int y) {
+	int localX = x - startX;
+	int localY = y - startY;
+	if (localX < 0 || localY < 0 || localX >= width || localY >= height) {
+		return false;
+	}
+	return walkable.get(localY * width + localX);
+}
+}
@@ -1,22 +1,23 @@
 package org.tendiwa.client;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
-import com.badlogic.gdx.utils.ScreenUtils;
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
+import com.badlogic.gdx.utils.Array;
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 import org.tendiwa.client.ui.factories.TileTextureRegionProviderFactory;
 import org.tendiwa.core.WallType;
 
 /**
- * Caches images of {@link WallActor}s, which are composed of wall's image and various shading and darkening with
+ * Caches images of walls drawn by {@link WallLayer}, which are composed of wall's image and various shading and darkening with
  * transitions from fully bright part to a shaded or darkened one of a neighbor wall. Drawing a wall from scratch is
  * quite expensive, hence this class.
+ * <p>
+ * Images are kept in pages, each page being a {@link TileTextureRegionProvider} with a fixed number of slots. New pages
+ * are added on demand up to a soft limit; after that the least recently used image is evicted. An image used in the
+ * current frame is never evicted: if all images are in use, a new page is added even beyond the limit.
  */
 public class WallImageCache {
 public static final int SIDE_N = 1 << 0;
@@ -38,103 +39,134 @@ public static final int SHADE_SOUTH_WALL_RIGHT = 1 << 15;
 public static final int DARK_SOUTH_WALL_LEFT = 1 << 16;
 public static final int DARK_SOUTH_WALL_RIGHT = 1 << 17;
 public static final int VISIBLE = 1 << 18;
-private final TileTextureRegionProvider regionProvider;
-private final BiMap<Integer, Integer> hash2index = HashBiMap.create();
-private final TextureRegion[] regions;
-private int lastHashOccupied;
-private int slots;
+private final TileTextureRegionProviderFactory factory;
+private final int slotsPerPage;
+private final int maxPages;
+private final int regionWidth;
+private final int regionHeight;
+private final Array<TileTextureRegionProvider> pages = new Array<>();
+/**
+ * Regions of all the slots of all the pages; slot {@code i} is on page {@code i / slotsPerPage}.
+ */
+private final Array<TextureRegion> regions = new Array<>();
+private final WallImageSlots slots = new WallImageSlots();
+private int hits = 0;
+private int misses = 0;
 
 /**
  * @param type
  * 	Type of a wall whose images are cached.
- * @param slots
- * 	How many wall images may be cached.
+ * @param slotsPerPage
+ * 	How many wall images fit into a single page.
+ * @param maxPages
+ * 	How many pages may be created before images start being evicted.
  */
 @Inject
 WallImageCache(
 	TileTextureRegionProviderFactory factory,
 	@Assisted WallType type,
-	@Assisted int slots
+	@Assisted("slotsPerPage") int slotsPerPage,
+	@Assisted("maxPages") int maxPages
 ) {
-	this.slots = slots;
-	regions = new TextureRegion[slots];
+	this.factory = factory;
+	this.slotsPerPage = slotsPerPage;
+	this.maxPages = maxPages;
 	TextureAtlas.AtlasRegion region = AtlasWalls.getInstance().findRegion(type.getResourceName());
 	assert region != null : type.getResourceName();
-	regionProvider = factory.create(slots, region.getRegionWidth(), region.getRegionHeight());
-	for (int i = 0; i < slots; i++) {
-		regions[i] = regionProvider.obtainFboTextureRegion();
+	regionWidth = region.getRegionWidth();
+	regionHeight = region.getRegionHeight();
+	addPage();
+}
+
+private void addPage() {
+	TileTextureRegionProvider page = factory.create(slotsPerPage, regionWidth, regionHeight);
+	for (int i = 0; i < slotsPerPage; i++) {
+		regions.add(page.obtainFboTextureRegion());
 	}
-	lastHashOccupied = 0;
-	regionProvider.getFbo().begin();
+	page.getFbo().begin();
 	Gdx.gl.glClearColor(0, 0, 0, 1);
-	regionProvider.getFbo().end();
+	page.getFbo().end();
+	pages.add(page);
+	slots.addSlots(slotsPerPage);
 }
 
 /**
- * Return the object that holds a framebuffer and TextureRegions where images of this WallType are drawn.
- *
- * @return
+ * Starts a new frame. Images used after this call are considered used in the new frame.
  */
-public TileTextureRegionProvider getRegionProvider() {
-	return regionProvider;
+public void nextFrame() {
+	slots.nextFrame();
 }
 
 /**
- * Returns the cached image for a wall described by {@code imageHash}.
+ * Returns the cached image for a wall described by {@code imageHash} if there is one. Meant for drawing: each call
+ * counts as a cache hit or a cache miss.
  *
  * @param imageHash
  * 	Description of a wall image composed of a sum of this class's constant fields.
- * @return Cached image for a wall described by {@code imageHash}.
+ * @return Cached image, or null if there is no image under that hash.
  */
-public TextureRegion getImage(int imageHash) {
-	TextureRegion region = regions[hash2index.get(imageHash)];
-	return region;
+public TextureRegion findImage(int imageHash) {
+	int slot = slots.find(imageHash);
+	if (slot == -1) {
+		misses++;
+		return null;
+	}
+	hits++;
+	return regions.get(slot);
 }
 
 /**
- * Draws a {@code texture} to {@link WallImageCache#regionProvider} to be later available through {@link
- * WallImageCache#getImage(int)} under hash {@code imageHash}.
+ * Marks an image as used in the current frame if there is one, so it won't be evicted by images put afterwards.
+ * Unlike {@link #findImage(int)}, doesn't count as a cache hit or miss.
  *
  * @param imageHash
- * 	Description of a wall image composed of a sum of this class's constant fields. // * @param texture // * 	A texture
- * 	to draw to {@link WallImageCache#regionProvider}'s framebuffer be later available under given hash.
+ * 	Description of a wall image composed of a sum of this class's constant fields.
+ * @return true if there is such image, false otherwise.
  */
-public void putImage(int imageHash, FrameBuffer fb) {
-	TextureRegion regionForIndex = regions[occupyNextIndexInCache(imageHash)];
-	fb.begin();
-	Pixmap pixmap = ScreenUtils.getFrameBufferPixmap(0, 0, fb.getWidth(), fb.getHeight());
-	Pixmap croppedPixmap = new Pixmap(regionForIndex.getRegionWidth(), regionForIndex.getRegionHeight(), Pixmap.Format.RGBA8888);
-	fb.end();
-	croppedPixmap.drawPixmap(pixmap, 0, 0, 0, WallActor.maxHeight - regionForIndex.getRegionHeight(), regionForIndex.getRegionWidth(), regionForIndex.getRegionHeight());
-	regionProvider.getFboTexture().draw(croppedPixmap, regionForIndex.getRegionX(), regionForIndex.getRegionY());
+public boolean touchImage(int imageHash) {
+	return slots.find(imageHash) != -1;
 }
 
 /**
- * Maps image hash to an index from 0 to {@link WallImageCache#slots}. Each successive method call will increase index
- * by 1, and when it exceeds {@link WallImageCache#slots}, then index is set back to 0 to reuse previously used slots.
+ * Copies an image from a framebuffer to one of this cache's pages to be later available through {@link
+ * WallImageCache#findImage(int)} under hash {@code imageHash}. The copy is made on GPU, so nothing is read back or
+ * allocated.
  *
  * @param imageHash
  * 	Description of a wall image composed of a sum of this class's constant fields.
+ * @param fb
+ * 	A framebuffer with the image in its top left corner.
  */
-private int occupyNextIndexInCache(int imageHash) {
-	int assignedIndex = lastHashOccupied;
-	hash2index.inverse().remove(lastHashOccupied);
-	hash2index.put(imageHash, lastHashOccupied);
-	lastHashOccupied++;
-	if (lastHashOccupied == slots) {
-		lastHashOccupied = 0;
-	}
-	return assignedIndex;
+public void putImage(int imageHash, FrameBuffer fb) {
+	int slot = occupySlot(imageHash);
+	pages.get(slot / slotsPerPage).copyFromFrameBuffer(fb, regions.get(slot));
 }
 
 /**
- * Checks if an image has already been put to this WallImageCache under given {@code imageHash}.
+ * Finds a slot for a new image: a never used one if there is any, then a slot on a new page if there may be more
+ * pages, then the least recently used slot if it wasn't used in the current frame, and if even that fails, then a slot
+ * on a new page beyond the limit.
  *
  * @param imageHash
  * 	Description of a wall image composed of a sum of this class's constant fields.
- * @return true if there is such image, false otherwise.
+ * @return Index of the slot now holding {@code imageHash}.
  */
-public boolean hasImage(int imageHash) {
-	return hash2index.containsKey(imageHash);
+private int occupySlot(int imageHash) {
+	if (slots.needsMoreSlots(pages.size < maxPages)) {
+		addPage();
+	}
+	return slots.occupy(imageHash);
+}
+
+public int getHits() {
+	return hits;
+}
+
+public int getMisses() {
+	return misses;
+}
+
+public int getEvictions() {
+	return slots.getEvictions();
 }
 }
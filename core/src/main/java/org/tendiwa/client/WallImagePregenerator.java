@@ -0,0 +1,119 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.bitfire.postprocessing.PostProcessor;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import org.tendiwa.client.ui.factories.WallImageCacheRegistry;
+import org.tendiwa.core.WallType;
+
+/**
+ * Generates images of walls that are about to be drawn before the stage is drawn, so {@link WallLayer} never has to
+ * interrupt the stage's batch to generate an image.
+ * <p>
+ * Walls that need images are collected only when something on screen might have changed: camera moved, cells in the
+ * viewport changed, or some images were left ungenerated in previous frames. All missing images are then generated in
+ * a single group outside of post-processor's capture, until {@link #TIME_BUDGET_NANOS} runs out; the rest are left to
+ * the next frames, and their walls are drawn with plain sprites meanwhile.
+ */
+@Singleton
+public class WallImagePregenerator {
+/**
+ * How much time may be spent on generating wall images in a single frame.
+ */
+private static final long TIME_BUDGET_NANOS = 4_000_000;
+private final WallLayer wallLayer;
+private final GameScreenViewport viewport;
+private final WallImageCacheRegistry wallImageCacheRegistry;
+private final DirtyCellTracker dirtyCells;
+private final PostProcessor postProcessor;
+/**
+ * Coordinates of walls without images, x and y of each wall one after another.
+ */
+private final IntArray missing = new IntArray();
+private int lastStartCellX;
+private int lastStartCellY;
+
+@Inject
+WallImagePregenerator(
+	WallLayer wallLayer,
+	GameScreenViewport viewport,
+	WallImageCacheRegistry wallImageCacheRegistry,
+	DirtyCellTracker dirtyCells,
+	@Named("game_screen_default_post_processor") PostProcessor postProcessor
+) {
+	this.wallLayer = wallLayer;
+	this.viewport = viewport;
+	this.wallImageCacheRegistry = wallImageCacheRegistry;
+	this.dirtyCells = dirtyCells;
+	this.postProcessor = postProcessor;
+}
+
+/**
+ * Generates images of walls in the viewport that don't have them yet. Must be called each frame after the camera is
+ * set and before the stage is drawn, while post-processor's capture is active.
+ */
+public void pregenerate() {
+	int startX = viewport.getStartCellX();
+	int startY = viewport.getStartCellY();
+	// The same rectangle WallLayer draws walls in.
+	int endX = startX + viewport.getWindowWidthCells();
+	int endY = startY + viewport.getWindowHeightCells() + 1;
+	boolean cameraMoved = startX != lastStartCellX || startY != lastStartCellY;
+	// If some walls were drawn without images in the previous frame, they are still waiting for them.
+	boolean generationRequested = wallLayer.pollPlainWallsDrawn();
+	if (!generationRequested && !cameraMoved && !dirtyCells.intersects(startX - 1, startY - 1, endX + 1, endY + 1)) {
+		return;
+	}
+	lastStartCellX = startX;
+	lastStartCellY = startY;
+	collectMissing(startX, startY, endX, endY);
+	if (missing.size == 0) {
+		return;
+	}
+	long deadline = System.nanoTime() + TIME_BUDGET_NANOS;
+	postProcessor.captureEnd();
+	int generated = 0;
+	for (int i = 0; i < missing.size; i += 2) {
+		// At least one image is generated each frame, so generation always progresses. Walls left without images
+		// will be drawn with plain sprites, which makes the next frame look for them again.
+		if (generated > 0 && System.nanoTime() > deadline) {
+			break;
+		}
+		int x = missing.get(i);
+		int y = missing.get(i + 1);
+		WallImageCache cache = wallImageCacheRegistry.obtain(wallLayer.getWallType(x, y));
+		int imageHash = wallLayer.getWallHash(x, y);
+		if (cache.touchImage(imageHash)) {
+			// Another wall with the same image has been processed earlier in this loop.
+			continue;
+		}
+		wallLayer.generateImage(x, y, imageHash, cache);
+		generated++;
+	}
+	postProcessor.captureNoClear();
+	missing.clear();
+}
+
+/**
+ * Finds walls in a rectangle without images. Images of walls that have them are marked as used in this frame, so they
+ * won't be evicted by images generated afterwards.
+ */
+private void collectMissing(int startX, int startY, int endX, int endY) {
+	missing.clear();
+	for (int x = startX; x < endX; x++) {
+		for (int y = startY; y < endY; y++) {
+			WallType type = wallLayer.getWallType(x, y);
+			if (type == null) {
+				continue;
+			}
+			WallImageCache cache = wallImageCacheRegistry.obtain(type);
+			int imageHash = wallLayer.getWallHash(x, y);
+			if (!cache.touchImage(imageHash)) {
+				missing.add(x, y);
+			}
+		}
+	}
+}
+}
@@ -0,0 +1,156 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.LongArray;
+
+/**
+ * Bookkeeping of {@link WallImageCache}: which image hash is held in which slot and when each slot was last used. It
+ * knows nothing about pages and framebuffers, it is only told how many slots there are.
+ * <p>
+ * Occupied slots are kept in a doubly linked list ordered by use, from the least recently used one to the most recently
+ * used one, so both finding the slot to evict and marking a slot as used take constant time.
+ */
+class WallImageSlots {
+private static final int NONE = -1;
+/**
+ * Image hash held in each slot.
+ */
+private final IntArray slotHashes = new IntArray();
+/**
+ * Frame when the image in each slot was last used.
+ */
+private final LongArray slotLastUsed = new LongArray();
+/**
+ * Slot used right before each slot, or {@link #NONE} for the least recently used one.
+ */
+private final IntArray previous = new IntArray();
+/**
+ * Slot used right after each slot, or {@link #NONE} for the most recently used one.
+ */
+private final IntArray next = new IntArray();
+private final IntIntMap hash2slot = new IntIntMap();
+private int leastRecentlyUsed = NONE;
+private int mostRecentlyUsed = NONE;
+private int capacity = 0;
+private long currentFrame = 0;
+private int evictions = 0;
+
+/**
+ * Makes more slots available.
+ *
+ * @param number
+ * 	How many slots are added.
+ */
+void addSlots(int number) {
+	capacity += number;
+}
+
+void nextFrame() {
+	currentFrame++;
+}
+
+/**
+ * Finds a slot with an image and marks it as used in the current frame.
+ *
+ * @param imageHash
+ * 	Description of a wall image.
+ * @return Index of the slot, or -1 if there is no image with that hash.
+ */
+int find(int imageHash) {
+	int slot = hash2slot.get(imageHash, -1);
+	if (slot != -1) {
+		markUsed(slot);
+	}
+	return slot;
+}
+
+boolean contains(int imageHash) {
+	return hash2slot.containsKey(imageHash);
+}
+
+/**
+ * Checks if all the slots are occupied and none of them can be evicted, either because there may be more slots or
+ * because the least recently used one is used in the current frame.
+ *
+ * @param mayGrow
+ * 	Whether more slots may be added before images start being evicted.
+ * @return true if more slots have to be added before {@link #occupy(int)}.
+ */
+boolean needsMoreSlots(boolean mayGrow) {
+	if (slotHashes.size < capacity) {
+		return false;
+	}
+	return mayGrow || slotLastUsed.get(leastRecentlyUsed) == currentFrame;
+}
+
+/**
+ * Puts an image hash into a never used slot if there is any, or else into the least recently used slot, evicting the
+ * image that was there.
+ *
+ * @param imageHash
+ * 	Description of a wall image.
+ * @return Index of the slot now holding {@code imageHash}.
+ */
+int occupy(int imageHash) {
+	int slot;
+	if (slotHashes.size < capacity) {
+		slot = slotHashes.size;
+		slotHashes.add(imageHash);
+		slotLastUsed.add(currentFrame);
+		previous.add(NONE);
+		next.add(NONE);
+		append(slot);
+	} else {
+		slot = leastRecentlyUsed;
+		hash2slot.remove(slotHashes.get(slot), -1);
+		slotHashes.set(slot, imageHash);
+		markUsed(slot);
+		evictions++;
+	}
+	hash2slot.put(imageHash, slot);
+	return slot;
+}
+
+/**
+ * Moves a slot to the most recently used end of the list.
+ */
+private void markUsed(int slot) {
+	slotLastUsed.set(slot, currentFrame);
+	if (slot == mostRecentlyUsed) {
+		return;
+	}
+	unlink(slot);
+	append(slot);
+}
+
+private void unlink(int slot) {
+	int before = previous.get(slot);
+	int after = next.get(slot);
+	if (before == NONE) {
+		leastRecentlyUsed = after;
+	} else {
+		next.set(before, after);
+	}
+	if (after == NONE) {
+		mostRecentlyUsed = before;
+	} else {
+		previous.set(after, before);
+	}
+}
+
+private void append(int slot) {
+	previous.set(slot, mostRecentlyUsed);
+	next.set(slot, NONE);
+	if (mostRecentlyUsed == NONE) {
+		leastRecentlyUsed = slot;
+	} else {
+		next.set(mostRecentlyUsed, slot);
+	}
+	mostRecentlyUsed = slot;
+}
+
+int getEvictions() {
+	return evictions;
+}
+}
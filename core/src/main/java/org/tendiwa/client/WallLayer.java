@@ -7,11 +7,11 @@ import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
-import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.utils.Array;
-import com.bitfire.postprocessing.PostProcessor;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
 import com.google.inject.Inject;
-import com.google.inject.assistedinject.Assisted;
+import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import org.lwjgl.opengl.GL11;
 import org.tendiwa.client.ui.factories.WallImageCacheRegistry;
@@ -22,44 +22,34 @@ import org.tendiwa.core.clients.RenderPlane;
 import org.tendiwa.core.clients.RenderWorld;
 import org.tendiwa.groovy.Registry;
 
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 /**
  * This class renders walls and field of view transitions above walls. I separated it from other render code because
  * there is a lot of spaghetti code concerning walls and I don't know how to get rid of it.
+ * <p>
+ * Seen walls of each plane are kept in a grid of wall type ids, one short per cell, so no objects are created for
+ * walls. {@link TendiwaStage} draws walls row by row with {@link #submitRow(RenderQueue, int)} between other actors.
  */
-public class WallActor extends Actor {
-private static final Map<WallType, Integer> wallHeights;
-private static final FrameBuffer depthTestFrameBuffer;
-private static final Batch depthTestBatch;
-static int maxHeight = 0;
-
-static {
-	Array<TextureAtlas.AtlasRegion> regions = AtlasWalls.getInstance().getRegions();
-	int numberOfWallTypes = regions.size;
-	wallHeights = new HashMap<>(numberOfWallTypes);
-	int maxWidth = 0;
-	for (TextureAtlas.AtlasRegion region : regions) {
-		// Save height of a particular wall
-		wallHeights.put(
-			Registry.wallTypes.get(region.name),
-			region.getRegionHeight()
-		);
-		// And in the same iteration determine what size of framebuffer is needed.
-		if (maxWidth < region.getRegionWidth()) {
-			maxWidth = region.getRegionWidth();
-		}
-		if (maxHeight < region.getRegionHeight()) {
-			maxHeight = region.getRegionHeight();
-		}
-	}
-	// Determine what is the biggest size of a wall sprite,
-	// and create a framebuffer broad and tall enough to hold any wall sprite.
-	depthTestFrameBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, maxWidth, maxHeight, true);
-	depthTestBatch = new OrthoBatch(maxWidth, maxHeight);
-}
-
+@Singleton
+public class WallLayer {
+private static final int NORTH = 0;
+private static final int EAST = 1;
+private static final int SOUTH = 2;
+private static final int WEST = 3;
+private final FrameBuffer depthTestFrameBuffer;
+private final Batch depthTestBatch;
+/**
+ * Dense ids of wall types. Id of a wall type is stored in {@link #level2walls} increased by 1, so 0 means no wall.
+ */
+private final Map<WallType, Integer> ids = new IdentityHashMap<>();
+private final Array<WallType> types = new Array<>(WallType.class);
+/**
+ * Height of a wall type's image, indexed by its id.
+ */
+private final IntArray wallHeights = new IntArray();
+private final IntMap<short[]> level2walls = new IntMap<>();
 private final ShaderProgram writeOpaqueToDepthShader;
 private final ShaderProgram drawOpaqueToDepth05Shader;
 private final ShaderProgram drawWithDepth0Shader;
@@ -67,24 +57,19 @@ private final ShaderProgram opaque0Transparent05DepthShader;
 private final ShaderProgram defaultShader;
 private final TransitionPregenerator fovEdgeOnWallToUnseen;
 private final TransitionPregenerator fovEdgeOnWallToNotYetSeen;
-private final PostProcessor postProcessor;
 private final RenderWorld renderWorld;
 private final FloorLayer floorLayer;
 private final Character player;
+private final World world;
 private final GameScreenViewport viewport;
-private final RenderPlane renderPlane;
-private final int y;
 private final WallImageCacheRegistry wallImageCacheRegistry;
-private final int x;
-private final WallType type;
+private final NeighborMasks neighborMasks;
+private final AtlasRegions atlasRegions;
+private boolean plainWallsDrawn = true;
 
 @Inject
-public WallActor(
-	@Assisted("x") int x,
-	@Assisted("y") int y,
-	@Assisted WallType type,
-	@Assisted RenderPlane renderPlane,
-	@Named("game_screen_default_post_processor") PostProcessor postProcessor,
+public WallLayer(
+	@Named("current_player_world") World world,
 	RenderWorld renderWorld,
 	FloorLayer floorLayer,
 	@Named("player") Character player,
@@ -96,14 +81,15 @@ public WallActor(
 	@Named("shader_default") ShaderProgram defaultShader,
 	FovEdgeTransparent fovEdgeOnWallToUnseen,
 	FovEdgeOpaque fovEdgeOnWallToNotYetSeen,
-	WallImageCacheRegistry wallImageCacheRegistry
+	WallImageCacheRegistry wallImageCacheRegistry,
+	NeighborMasks neighborMasks,
+	AtlasRegions atlasRegions
 ) {
-	this.postProcessor = postProcessor;
+	this.world = world;
 	this.renderWorld = renderWorld;
 	this.floorLayer = floorLayer;
 	this.player = player;
 	this.viewport = viewport;
-	this.renderPlane = renderPlane;
 	this.writeOpaqueToDepthShader = writeOpaqueToDepthShader;
 	this.drawOpaqueToDepth05Shader = drawOpaqueToDepth05Shader;
 	this.drawWithDepth0Shader = drawWithDepth0Shader;
@@ -111,136 +97,258 @@ public WallActor(
 	this.defaultShader = defaultShader;
 	this.fovEdgeOnWallToUnseen = fovEdgeOnWallToUnseen;
 	this.fovEdgeOnWallToNotYetSeen = fovEdgeOnWallToNotYetSeen;
-	this.type = type;
-	this.x = x;
-	this.y = y;
 	this.wallImageCacheRegistry = wallImageCacheRegistry;
-	setX(x);
-	setY(y);
+	this.neighborMasks = neighborMasks;
+	this.atlasRegions = atlasRegions;
+	int maxWidth = 0;
+	int maxHeight = 0;
+	for (TextureAtlas.AtlasRegion region : AtlasWalls.getInstance().getRegions()) {
+		// Save height of a particular wall
+		WallType type = Registry.wallTypes.get(region.name);
+		if (!ids.containsKey(type)) {
+			ids.put(type, types.size);
+			types.add(type);
+			wallHeights.add(region.getRegionHeight());
+		}
+		// And in the same iteration determine what size of framebuffer is needed.
+		if (maxWidth < region.getRegionWidth()) {
+			maxWidth = region.getRegionWidth();
+		}
+		if (maxHeight < region.getRegionHeight()) {
+			maxHeight = region.getRegionHeight();
+		}
+	}
+	if (types.size >= Short.MAX_VALUE) {
+		throw new RuntimeException("There may be at most " + (Short.MAX_VALUE - 1) + " wall types");
+	}
+	// Determine what is the biggest size of a wall sprite,
+	// and create a framebuffer broad and tall enough to hold any wall sprite.
+	depthTestFrameBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, maxWidth, maxHeight, true);
+	depthTestBatch = new OrthoBatch(maxWidth, maxHeight);
+}
+
+/**
+ * Remembers a wall in a cell of the plane the player is currently on. The wall's type is taken from backend.
+ *
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ */
+public void addWall(int x, int y) {
+	WallType type = (WallType) player.getPlane().getGameObject(x, y);
+	Integer id = ids.get(type);
+	if (id == null) {
+		throw new IllegalArgumentException("Wall type " + type.getResourceName() + " has no images");
+	}
+	getCurrentWalls()[y * world.getWidth() + x] = (short) (id + 1);
+}
+
+/**
+ * Forgets a wall in a cell of the plane the player is currently on.
+ *
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ */
+public void removeWall(int x, int y) {
+	getCurrentWalls()[y * world.getWidth() + x] = 0;
 }
 
 /**
- * Computes a hash describing the image of this wall: which sides the wall faces, which transitions are applied to it.
+ * Checks if a wall in a particular cell of the current plane has been remembered.
+ *
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ * @return true if there is one, false otherwise.
+ */
+public boolean hasWall(int x, int y) {
+	return getWallType(x, y) != null;
+}
+
+/**
+ * @param x
+ * 	X coordinate of a cell in world coordinates.
+ * @param y
+ * 	Y coordinate of a cell in world coordinates.
+ * @return Type of a remembered wall in a cell of the current plane, or null if there is none.
+ */
+public WallType getWallType(int x, int y) {
+	if (x < 0 || y < 0 || x >= world.getWidth() || y >= world.getHeight()) {
+		return null;
+	}
+	short id = getCurrentWalls()[y * world.getWidth() + x];
+	return id == 0 ? null : types.get(id - 1);
+}
+
+private short[] getCurrentWalls() {
+	int level = player.getPlane().getLevel();
+	short[] walls = level2walls.get(level);
+	if (walls == null) {
+		walls = new short[world.getWidth() * world.getHeight()];
+		level2walls.put(level, walls);
+	}
+	return walls;
+}
+
+/**
+ * Computes a hash describing the image of a wall: which sides the wall faces, which transitions are applied to it.
  * Image hash is a sum of {@link WallImageCache} constant fields, which are bitmasks.
  *
- * @return A hash describing this wall.
+ * @param x
+ * 	X coordinate of a wall in world coordinates.
+ * @param y
+ * 	Y coordinate of a wall in world coordinates.
+ * @return A hash describing the wall.
  * @see WallImageCache
  */
-public int getWallHash() {
-	RenderCell cell = renderPlane.getCell(x, y);
-	RenderCell cellFromSouth = renderPlane.getCell(x, y + 1);
+public int getWallHash(int x, int y) {
+	return computeWallHash(neighborMasks.get(x, y));
+}
+
+/**
+ * @param mask
+ * 	Mask of a wall's cell, see {@link NeighborMasks#get(int, int)}.
+ * @return A hash describing the image of a wall in a cell with that mask.
+ * @see #getWallHash(int, int)
+ */
+static int computeWallHash(int mask) {
+	boolean visible = (mask & NeighborMasks.VISIBLE) != 0;
+	int seen = NeighborMasks.seenNeighbors(mask);
+	int visibleNeighbors = NeighborMasks.visibleNeighbors(mask);
+	int walls = NeighborMasks.wallNeighbors(mask);
 	int imageHash = 0;
-	if (cell.isVisible()) {
+	if (visible) {
 		imageHash += WallImageCache.VISIBLE;
 	}
-	if (cellFromSouth == null) {
+	if (!NeighborMasks.has(seen, SOUTH)) {
 		imageHash += WallImageCache.SOUTH_WALL_DARK;
-	} else if (!cellFromSouth.hasWall() && cellFromSouth.isVisible()) {
+	} else if (!NeighborMasks.has(walls, SOUTH) && NeighborMasks.has(visibleNeighbors, SOUTH)) {
 		imageHash += WallImageCache.SOUTH_WALL_SHADE;
 	}
-	if (player.getPlane().hasWall(x, y - 1)) {
+	if (NeighborMasks.has(walls, NORTH)) {
 		imageHash += WallImageCache.SIDE_N;
 	}
-	if (player.getPlane().hasWall(x + 1, y)) {
+	if (NeighborMasks.has(walls, EAST)) {
 		imageHash += WallImageCache.SIDE_E;
 	}
-	if (player.getPlane().hasWall(x, y + 1)) {
+	if (NeighborMasks.has(walls, SOUTH)) {
 		imageHash += WallImageCache.SIDE_S;
 	}
-	if (player.getPlane().hasWall(x - 1, y)) {
+	if (NeighborMasks.has(walls, WEST)) {
 		imageHash += WallImageCache.SIDE_W;
 	}
-	if (renderPlane.getCell(x, y - 1) == null) {
+	if (!NeighborMasks.has(seen, NORTH)) {
 		imageHash += WallImageCache.DARK_N;
-	} else if (renderPlane.getCell(x, y - 1).isVisible()) {
+	} else if (NeighborMasks.has(visibleNeighbors, NORTH)) {
 		imageHash += WallImageCache.SHADE_N;
 	}
-	if (renderPlane.getCell(x + 1, y) == null) {
+	if (!NeighborMasks.has(seen, EAST)) {
 		imageHash += WallImageCache.DARK_E;
-	} else if (renderPlane.getCell(x + 1, y).isVisible()) {
+	} else if (NeighborMasks.has(visibleNeighbors, EAST)) {
 		imageHash += WallImageCache.SHADE_E;
 	}
-	if (renderPlane.getCell(x, y + 1) == null) {
+	if (!NeighborMasks.has(seen, SOUTH)) {
 		imageHash += WallImageCache.DARK_S;
-	} else if (renderPlane.getCell(x, y + 1).isVisible()) {
+	} else if (NeighborMasks.has(visibleNeighbors, SOUTH)) {
 		imageHash += WallImageCache.SHADE_S;
 	}
-	if (renderPlane.getCell(x - 1, y) == null) {
+	if (!NeighborMasks.has(seen, WEST)) {
 		imageHash += WallImageCache.DARK_W;
-	} else if (renderPlane.getCell(x - 1, y).isVisible()) {
+	} else if (NeighborMasks.has(visibleNeighbors, WEST)) {
 		imageHash += WallImageCache.SHADE_W;
 	}
-	boolean hasSouthCellButNotWall = renderPlane.hasCell(x, y + 1)
-		&& !renderPlane.getCell(x, y + 1).hasWall();
+	boolean hasSouthCellButNotWall = NeighborMasks.has(seen, SOUTH) && !NeighborMasks.has(walls, SOUTH);
 	if (hasSouthCellButNotWall) {
-		if (!renderPlane.hasCell(x - 1, y)) {
+		if (!NeighborMasks.has(seen, WEST)) {
 			imageHash += WallImageCache.DARK_SOUTH_WALL_LEFT;
-		} else if (cell.isVisible() && renderPlane.hasCell(x - 1, y)
-			&& !renderPlane.getCell(x - 1, y).isVisible()) {
+		} else if (visible && !NeighborMasks.has(visibleNeighbors, WEST)) {
 			imageHash += WallImageCache.SHADE_SOUTH_WALL_LEFT;
 		}
-	}
-	if (hasSouthCellButNotWall) {
-		if (!renderPlane.hasCell(x + 1, y)) {
+		if (!NeighborMasks.has(seen, EAST)) {
 			imageHash += WallImageCache.DARK_SOUTH_WALL_RIGHT;
-		} else if (cell.isVisible() && renderPlane.hasCell(x + 1, y)
-			&& !renderPlane.getCell(x + 1, y).isVisible()) {
+		} else if (visible && !NeighborMasks.has(visibleNeighbors, EAST)) {
 			imageHash += WallImageCache.SHADE_SOUTH_WALL_RIGHT;
 		}
 	}
 	return imageHash;
 }
 
-@Override
-public void draw(Batch batch, float parentAlpha) {
-	boolean inScreenRectangle = viewport.isInScreenRectangle(
-		x,
-		y,
-		viewport.getStartCellX(),
-		viewport.getStartCellY(),
-		viewport.getWindowWidthCells(),
-		viewport.getWindowHeightCells() + 1
-	);
-	if (!inScreenRectangle) {
+/**
+ * Submits walls of the current plane in a single row of the viewport to a render queue.
+ *
+ * @param queue
+ * 	Queue of the current frame.
+ * @param y
+ * 	Y coordinate of the row in world coordinates.
+ */
+public void submitRow(RenderQueue queue, int y) {
+	int startY = viewport.getStartCellY();
+	if (y < startY || y >= startY + viewport.getWindowHeightCells() + 1 || y >= world.getHeight()) {
 		// Cull those walls that aren't inside viewport.
 		return;
 	}
-	if (renderPlane != renderWorld.getCurrentPlane()) {
-		return;
+	short[] walls = getCurrentWalls();
+	int startX = Math.max(viewport.getStartCellX(), 0);
+	int endX = Math.min(viewport.getStartCellX() + viewport.getWindowWidthCells(), world.getWidth());
+	int rowStart = y * world.getWidth();
+	for (int x = startX; x < endX; x++) {
+		short id = walls[rowStart + x];
+		if (id == 0) {
+			continue;
+		}
+		WallType type = types.get(id - 1);
+		WallImageCache cache = wallImageCacheRegistry.obtain(type);
+		TextureRegion image = cache.findImage(getWallHash(x, y));
+		if (image == null) {
+			// Images are generated by WallImagePregenerator before the stage is drawn. Until it gets to this one,
+			// a plain wall sprite is drawn.
+			plainWallsDrawn = true;
+			image = getWallTextureByCell(x, y);
+		}
+		queue.submit(
+			RenderQueue.LAYER_WALLS,
+			y,
+			false,
+			image,
+			x * GameScreen.TILE_SIZE,
+			y * GameScreen.TILE_SIZE - wallHeights.get(id - 1) + GameScreen.TILE_SIZE
+		);
 	}
+}
 
-	WallImageCache cache = wallImageCacheRegistry.obtain(type);
-	RenderCell cell = renderPlane.getCell(x, y);
-	RenderCell cellFromSouth = renderPlane.getCell(x, y + 1);
-	int imageHash = getWallHash();
-	if (!cache.hasImage(imageHash)) {
-		postProcessor.captureEnd();
-		batch.end();
-		postProcessor.captureNoClear();
-		generateImage(cell, cellFromSouth, imageHash, cache);
-		batch.begin();
-		// No batch.end() because it is an actor
-	}
-	TextureRegion image = cache.getImage(imageHash);
-	batch.draw(
-		image,
-		x * GameScreen.TILE_SIZE,
-		y * GameScreen.TILE_SIZE - wallHeights.get(type) + GameScreen.TILE_SIZE);
+/**
+ * Tells if some walls have been drawn with plain sprites because their images were not generated yet, and resets that
+ * flag.
+ *
+ * @return true if some walls have been drawn without their images since the last call.
+ */
+boolean pollPlainWallsDrawn() {
+	boolean answer = plainWallsDrawn;
+	plainWallsDrawn = false;
+	return answer;
 }
 
 /**
- * Draws in image of a wall with all transitions above it and caches that image into a {@link WallImageCache}.
+ * Draws in image of a wall with all transitions above it and caches that image into a {@link WallImageCache}. Must be
+ * called outside of post-processor's capture.
  *
- * @param cell
- * 	A cell where the wall resides.
- * @param cellFromSouth
- * 	A cell 1 unit to south from {@code cell}.
+ * @param x
+ * 	X coordinate of a wall in world coordinates.
+ * @param y
+ * 	Y coordinate of a wall in world coordinates.
  * @param imageHash
  * 	{@see WallImageCache}.
  * @param cache
  * 	A cache where to save the wall image after it is drawn.
  */
-private void generateImage(RenderCell cell, RenderCell cellFromSouth, int imageHash, WallImageCache cache) {
+void generateImage(int x, int y, int imageHash, WallImageCache cache) {
+	RenderPlane renderPlane = renderWorld.getCurrentPlane();
+	RenderCell cell = renderPlane.getCell(x, y);
+	RenderCell cellFromSouth = renderPlane.getCell(x, y + 1);
 	// There is a complexity in drawing walls: drawing transitions above walls.
 	// These transitions mostly go on the "roof" of a wall, i.e. higher than floor transitions.
 	depthTestFrameBuffer.begin();
@@ -306,7 +414,7 @@ private void generateImage(RenderCell cell, RenderCell cellFromSouth, int imageH
 	Gdx.gl.glEnable(GL11.GL_DEPTH_TEST);
 	Gdx.gl.glColorMask(false, false, false, false);
 	Gdx.gl.glDepthMask(true);
-	drawDepthMaskAndOpaqueTransitionOnWall(x, y, cell);
+	drawDepthMaskAndOpaqueTransitionOnWall(renderPlane, x, y, cell);
 	depthTestBatch.end();
 
 	// Draw seenCells walls again above the 0.5 depth mask, but now with rgb *= 0.6 so masked pixels appear darker
@@ -332,6 +440,8 @@ private void generateImage(RenderCell cell, RenderCell cellFromSouth, int imageH
  * For a transition where there is no neighbor from that side, draws an opaque black transition; for a transition to an
  * unseen neighbor cell, draws a mask for an upcoming darkened transition.
  *
+ * @param renderPlane
+ * 	The plane the cell is on.
  * @param x
  * 	Absolute x coordinate of a cell.
  * @param y
@@ -339,7 +449,7 @@ private void generateImage(RenderCell cell, RenderCell cellFromSouth, int imageH
  * @param cell
  * 	The cell to draw at.
  */
-void drawDepthMaskAndOpaqueTransitionOnWall(int x, int y, RenderCell cell) {
+private void drawDepthMaskAndOpaqueTransitionOnWall(RenderPlane renderPlane, int x, int y, RenderCell cell) {
 	int wallHeight = getWallHeight((WallType) cell.getObject());
 	for (CardinalDirection dir : CardinalDirection.values()) {
 		// Here to get texture number shift we pass absolute coordinates x and y, because,
@@ -420,29 +530,19 @@ void drawDepthMaskAndOpaqueTransitionOnWall(int x, int y, RenderCell cell) {
  * @return
  */
 TextureRegion getWallTextureByCell(int x, int y) {
+	RenderPlane renderPlane = renderWorld.getCurrentPlane();
 	WallType wallType = (WallType) player.getPlane().getGameObject(x, y);
-	String name = wallType.getResourceName();
-	int index = 0;
-	RenderCell neighborCell = renderPlane.getCell(x, y - 1);
-	if (neighborCell == null || neighborCell.getObject() == wallType) {
-		index += 1000;
-	}
-	neighborCell = renderPlane.getCell(x + 1, y);
-	if (neighborCell == null || neighborCell.getObject() == wallType) {
-		index += 100;
-	}
-	neighborCell = renderPlane.getCell(x, y + 1);
-	if (neighborCell == null || neighborCell.getObject() == wallType) {
-		index += 10;
-	}
-	neighborCell = renderPlane.getCell(x - 1, y);
-	if (neighborCell == null || neighborCell.getObject() == wallType) {
-		index += 1;
+	int sameNeighbors = 0;
+	for (int i = 0; i < 4; i++) {
+		RenderCell neighborCell = renderPlane.getCell(x + NeighborMasks.dx(i), y + NeighborMasks.dy(i));
+		if (neighborCell == null || neighborCell.getObject() == wallType) {
+			sameNeighbors |= 1 << i;
+		}
 	}
-	return AtlasWalls.getInstance().findRegion(name, index);
+	return atlasRegions.getWallRegion(wallType, sameNeighbors);
 }
 
 int getWallHeight(WallType type) {
-	return wallHeights.get(type);
+	return wallHeights.get(ids.get(type));
 }
 }
@@ -1,8 +1,10 @@
 package org.tendiwa.client.extensions.std;
 
 import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.files.FileHandle;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
@@ -20,7 +22,6 @@ import org.tendiwa.core.meta.Condition;
 import org.tendiwa.core.volition.Volition;
 import org.tendiwa.geometry.Cell;
 import org.tendiwa.groovy.Registry;
-import org.tendiwa.pathfinding.dijkstra.Paths;
 
 import java.util.LinkedList;
 
@@ -44,6 +45,8 @@ private final CursorPosition cursorPosition;
 private final CursorActor cursorActor;
 private final GraphicsConfig graphicsConfig;
 private final CellSelectionActor cellSelectionActor;
+private final FrameProfiler frameProfiler;
+private final PlayerDistanceMap distanceMap;
 
 @Inject
 StdActions(
@@ -62,7 +65,9 @@ StdActions(
 	CursorPosition cursorPosition,
 	CursorActor cursorActor,
 	GraphicsConfig graphicsConfig,
-	CellSelectionActor cellSelectionActor
+	CellSelectionActor cellSelectionActor,
+	FrameProfiler frameProfiler,
+	PlayerDistanceMap distanceMap
 ) {
 
 	this.player = player;
@@ -81,6 +86,8 @@ StdActions(
 	this.cursorActor = cursorActor;
 	this.graphicsConfig = graphicsConfig;
 	this.cellSelectionActor = cellSelectionActor;
+	this.frameProfiler = frameProfiler;
+	this.distanceMap = distanceMap;
 }
 
 @Override
@@ -191,6 +198,32 @@ public void addTo(InputToActionMapper actionMapper) {
 			graphicsConfig.toggleStatusBar();
 		}
 	});
+	actionMapper.putAction(F12, new KeyboardAction("action.toggleGpuFieldOfView") {
+		@Override
+		public void act() {
+			graphicsConfig.toggleGpuFieldOfView();
+			messageLog.pushMessage("GPU field of view " + (graphicsConfig.gpuFieldOfView ? "enabled" : "disabled") + ".");
+		}
+	});
+	actionMapper.putAction(Modifiers.shift + F11, new KeyboardAction("action.toggleFrameProfiler") {
+		@Override
+		public void act() {
+			frameProfiler.toggle();
+			messageLog.pushMessage("Frame profiler " + (frameProfiler.isEnabled() ? "enabled" : "disabled") + ".");
+		}
+	});
+	actionMapper.putAction(Modifiers.shift + F12, new KeyboardAction("action.dumpFrameProfile") {
+		@Override
+		public void act() {
+			if (!frameProfiler.isEnabled()) {
+				messageLog.pushMessage("Frame profiler is disabled.");
+				return;
+			}
+			FileHandle file = Gdx.files.local("frame-profile-" + System.currentTimeMillis() + ".csv");
+			frameProfiler.dumpCsv(file);
+			messageLog.pushMessage("Frame profile written to " + file.path() + ".");
+		}
+	});
 	actionMapper.putAction(G, new KeyboardAction("action.pickUp") {
 		@Override
 		public void act() {
@@ -347,42 +380,59 @@ public void addTo(InputToActionMapper actionMapper) {
 		public void act(int screenX, int screenY) {
 			final int cellX = (viewport.getStartPixelX() + screenX) / GameScreen.TILE_SIZE;
 			final int cellY = (viewport.getStartPixelY() + screenY) / GameScreen.TILE_SIZE;
-			if (cellX == player.getX() && cellY == player.getY()) {
+			// A new search would supersede the one a walking task may be waiting for.
+			if (cellX == player.getX() && cellY == player.getY() || taskManager.hasCurrentTask()) {
 				return;
 			}
-			LinkedList<Cell> path = Paths.getPath(
-				player.getX(), player.getY(),
-				cellX, cellY,
-				player.getPathWalkerOverCharacters(),
-				100
-			);
-			if (path == null || path.size() == 0) {
-				return;
-			}
-			taskManager.trySettingTask(new Task() {
-				public boolean forcedEnd = false;
-
+			distanceMap.findPath(cellX, cellY, new PlayerDistanceMap.PathListener() {
 				@Override
-				public boolean ended() {
-					return forcedEnd || player.getX() == cellX && player.getY() == cellY;
-				}
-
-				@Override
-				public void execute() {
-					LinkedList<Cell> path = Paths.getPath(
-						player.getX(), player.getY(),
-						cellX, cellY,
-						player.getPathWalkerOverCharacters(),
-						100
-					);
-					if (path == null) {
-						forcedEnd = true;
+				public void pathFound(final LinkedList<Cell> path) {
+					if (path == null || path.size() == 0) {
 						return;
 					}
-					if (!path.isEmpty()) {
-						Cell nextStep = path.removeFirst();
-						moveToOrAttackCharacterInCell(nextStep.getX(), nextStep.getY());
-					}
+					taskManager.trySettingTask(new Task() {
+						public boolean forcedEnd = false;
+						/**
+						 * Steps left to take. The path is walked as it was found on click, and is searched again only if
+						 * player can't take the next step of it.
+						 */
+						private LinkedList<Cell> steps = path;
+						/**
+						 * Whether player waits for a path to be searched again on a worker.
+						 */
+						private boolean searching = false;
+
+						@Override
+						public boolean ended() {
+							return forcedEnd || player.getX() == cellX && player.getY() == cellY;
+						}
+
+						@Override
+						public void execute() {
+							if (searching) {
+								return;
+							}
+							if (steps.isEmpty() || !canTakeStep(steps.getFirst())) {
+								searching = true;
+								distanceMap.findPath(cellX, cellY, new PlayerDistanceMap.PathListener() {
+									@Override
+									public void pathFound(LinkedList<Cell> foundPath) {
+										searching = false;
+										if (foundPath == null || foundPath.isEmpty() || !canTakeStep(foundPath.getFirst())) {
+											forcedEnd = true;
+										} else {
+											steps = foundPath;
+										}
+									}
+								});
+								if (searching || forcedEnd) {
+									return;
+								}
+							}
+							Cell nextStep = steps.removeFirst();
+							moveToOrAttackCharacterInCell(nextStep.getX(), nextStep.getY());
+						}
+					});
 				}
 			});
 		}
@@ -398,6 +448,26 @@ public void addTo(InputToActionMapper actionMapper) {
 	});
 }
 
+/**
+ * Checks if player can move or attack to a cell right now.
+ *
+ * @param step
+ * 	A cell.
+ * @return true if the cell is a neighbor of player's cell and player can step on it or there is an enemy in it.
+ */
+private boolean canTakeStep(Cell step) {
+	int x = step.getX();
+	int y = step.getY();
+	if (Math.abs(player.getX() - x) > 1 || Math.abs(player.getY() - y) > 1) {
+		return false;
+	}
+	if (player.canStepOn(x, y)) {
+		return true;
+	}
+	Character aim = player.getPlane().getCharacter(x, y);
+	return aim != null && aim.isEnemy(player);
+}
+
 /**
  * Is there is an enemy in a cell x:y, then this method will push a request to attack that enemy, otherwise this method
  * will push a request to move to that cell.
@@ -1,5 +1,6 @@
 package org.tendiwa.client.extensions.std.actions;
 
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
@@ -26,6 +27,7 @@ private final Character player;
 private final VerticalFlowGroup flowGroup = new VerticalFlowGroup();
 private final ItemToKeyMapper<CharacterAbility> mapper;
 private final Label.LabelStyle style;
+private final TextureRegion actionImage;
 
 @Inject
 public ActionsWidget(
@@ -38,6 +40,7 @@ public ActionsWidget(
 	this.mapper = mapper;
 	this.player = player;
 	this.style = style;
+	actionImage = AtlasItems.getInstance().findRegion("short_bow");
 	setBackground(background);
 	add(flowGroup).expand().fill();
 }
@@ -77,7 +80,7 @@ public void update() {
 private WidgetGroup createActionWidget(CharacterAbility action, char character) {
 	Label actionNameLabel = new Label(action.getResourceName(), style);
 	Label characterLabel = new Label(String.valueOf(character), style);
-	Image image = new Image(AtlasItems.getInstance().findRegion("short_bow"));
+	Image image = new Image(actionImage);
 	Table table = new Table();
 	table.add(image).padRight(10);
 	table.add(characterLabel).padRight(20);
@@ -0,0 +1,62 @@
+package org.tendiwa.client.replay;
+
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.tendiwa.core.events.*;
+import org.tendiwa.core.*;
+import org.tendiwa.core.observation.Event;
+import org.tendiwa.core.observation.Finishable;
+import org.tendiwa.core.observation.Observer;
+import org.tendiwa.core.observation.ThreadProxy;
+
+/**
+ * Counts backend events that make the client render something, as they are delivered through {@link ThreadProxy}. Its
+ * observers are done with an event right away, so they don't hold the event stream.
+ * <p>
+ * It is created only when a session is recorded or replayed, so normal sessions don't pay for counting.
+ */
+@Singleton
+public class EventCounter {
+private final ThreadProxy model;
+private final ObjectIntMap<String> counts = new ObjectIntMap<>();
+private int total;
+
+@Inject
+EventCounter(ThreadProxy model) {
+	this.model = model;
+	count(EventInitialTerrain.class);
+	count(EventMove.class);
+	count(EventFovChange.class);
+	count(EventProjectileFly.class);
+	count(EventSound.class);
+	count(EventGetDamage.class);
+	count(EventDie.class);
+}
+
+private <T extends Event> void count(final Class<T> type) {
+	counts.put(type.getSimpleName(), 0);
+	model.subscribe(new Observer<T>() {
+		@Override
+		public void update(T event, Finishable<T> emitter) {
+			counts.getAndIncrement(type.getSimpleName(), 0, 1);
+			total++;
+			emitter.done(this);
+		}
+	}, type);
+}
+
+/**
+ * @return How many events of each type have been delivered, by simple names of event classes.
+ */
+public ObjectIntMap<String> getCounts() {
+	return counts;
+}
+
+/**
+ * @return How many events of all the counted types have been delivered.
+ */
+public int getTotal() {
+	return total;
+}
+}
@@ -0,0 +1,164 @@
+package org.tendiwa.client.replay;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.apache.log4j.Logger;
+import org.tendiwa.client.GraphicsConfig;
+import org.tendiwa.client.RollingPercentiles;
+import org.tendiwa.client.TaskManager;
+import org.tendiwa.client.ui.input.Mapping;
+import org.tendiwa.client.ui.input.NonPointerAction;
+import org.tendiwa.client.ui.uiModes.UiMode;
+import org.tendiwa.client.ui.uiModes.UiModeManager;
+import org.tendiwa.core.Server;
+import org.tendiwa.core.observation.ThreadProxy;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Plays a session recorded by {@link SessionRecorder} again and measures how fast the client renders it. Frames are
+ * rendered at a fixed timestep, as fast as possible, and the next recorded action is executed as soon as the client
+ * would accept input from player, so the same recording gives the same sequence of frames from build to build.
+ * <p>
+ * When all the actions are executed and their events are rendered, frame time percentiles and the rate of events are
+ * logged and the application exits.
+ */
+@Singleton
+public class ReplayDriver {
+/**
+ * Time in seconds that passes for animations in each frame of a replay.
+ */
+public static final float TIMESTEP = 1 / 60f;
+private final ThreadProxy model;
+private final Server server;
+private final TaskManager taskManager;
+private final UiModeManager uiModeManager;
+private final EventCounter eventCounter;
+private final GraphicsConfig config;
+private final Logger logger;
+/**
+ * CPU time of each frame in milliseconds.
+ */
+private final FloatArray frameTimes = new FloatArray();
+private List<String> actions;
+private ObjectIntMap<String> recordedEventCounts;
+private int nextAction;
+private long startTime;
+
+@Inject
+ReplayDriver(
+	ThreadProxy model,
+	Server server,
+	TaskManager taskManager,
+	UiModeManager uiModeManager,
+	EventCounter eventCounter,
+	GraphicsConfig config,
+	Logger logger
+) {
+	this.model = model;
+	this.server = server;
+	this.taskManager = taskManager;
+	this.uiModeManager = uiModeManager;
+	this.eventCounter = eventCounter;
+	this.config = config;
+	this.logger = logger;
+}
+
+/**
+ * Makes the client replay a recording instead of taking input from player.
+ *
+ * @param file
+ * 	A recording written by {@link SessionRecorder}.
+ * @param animationsEnabled
+ * 	Whether actors are animated during the replay.
+ */
+public void start(Path file, boolean animationsEnabled) {
+	actions = SessionRecorder.readActions(file);
+	recordedEventCounts = SessionRecorder.readEventCounts(file);
+	config.animationsEnabled = animationsEnabled;
+}
+
+public boolean isReplaying() {
+	return actions != null;
+}
+
+/**
+ * Executes the next recorded action if the client is ready for it, and renders a frame.
+ *
+ * @param screen
+ * 	Screen the game is on.
+ */
+public void renderFrame(Screen screen) {
+	if (startTime == 0) {
+		startTime = System.nanoTime();
+	}
+	if (isIdle()) {
+		if (nextAction == actions.size()) {
+			report();
+			actions = null;
+			Gdx.app.exit();
+			return;
+		}
+		findAction(actions.get(nextAction++)).act();
+	}
+	long frameStart = System.nanoTime();
+	screen.render(TIMESTEP);
+	frameTimes.add((System.nanoTime() - frameStart) / 1e6f);
+}
+
+/**
+ * Checks the same conditions {@link org.tendiwa.client.ui.input.TendiwaInputProcessor} checks before executing an
+ * action, and also that all the events so far have been rendered.
+ */
+private boolean isIdle() {
+	return !server.hasRequestToProcess()
+		&& model.areAllEmittersCheckedOut()
+		&& !model.hasEventsCollected()
+		&& !taskManager.hasCurrentTask();
+}
+
+/**
+ * Finds an action among those of the current UI mode. Actions are replayed in the same order they were recorded in,
+ * and modes are entered and left by actions, so each action is looked up in the same mode it was executed in.
+ */
+private NonPointerAction findAction(String localizationId) {
+	UiMode mode = uiModeManager.getCurrentMode();
+	for (Mapping mapping : mode.getMapper()) {
+		if (mapping.getAction().getLocalizationId().equals(localizationId)) {
+			return mapping.getAction();
+		}
+	}
+	throw new RuntimeException("There is no action " + localizationId + " to replay in UI mode " + mode);
+}
+
+private void report() {
+	float seconds = (System.nanoTime() - startTime) / 1e9f;
+	RollingPercentiles percentiles = new RollingPercentiles(Math.max(frameTimes.size, 1));
+	for (int i = 0; i < frameTimes.size; i++) {
+		percentiles.add(frameTimes.get(i));
+	}
+	logger.info(String.format(
+		"Replayed %d actions in %d frames (%.1f s): frame time p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms; %.1f events per second",
+		actions.size(),
+		frameTimes.size,
+		seconds,
+		percentiles.get(50),
+		percentiles.get(95),
+		percentiles.get(99),
+		percentiles.get(100),
+		eventCounter.getTotal() / seconds
+	));
+	for (ObjectIntMap.Entry<String> entry : recordedEventCounts.entries()) {
+		int replayed = eventCounter.getCounts().get(entry.key, 0);
+		if (replayed != entry.value) {
+			// Backend made different decisions this time, so the numbers are not comparable with other runs.
+			logger.warn("Replay diverged from the recording: " + replayed + " " + entry.key + " instead of " + entry.value);
+		}
+	}
+}
+}
@@ -0,0 +1,132 @@
+package org.tendiwa.client.replay;
+
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import org.tendiwa.client.ui.input.NonPointerAction;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records a game session so {@link ReplayDriver} can play it again: the keyboard actions player executed, in order,
+ * and how many backend events of each type they caused. Events themselves hold live backend objects, so they are only
+ * counted; replaying the actions makes backend emit them again.
+ * <p>
+ * Actions of all UI modes are recorded; while replaying, each of them is looked up in the mode that is current at that
+ * moment, which is the mode it was executed in, since modes are entered and left by recorded actions too.
+ * <p>
+ * A recording is a text file with a line {@code action <localization id>} for each action and a line {@code events
+ * <event class> <count>} for each event type.
+ */
+@Singleton
+public class SessionRecorder {
+private static final String ACTION = "action ";
+private static final String EVENTS = "events ";
+private final Provider<EventCounter> eventCounterProvider;
+private final List<String> actions = new ArrayList<>();
+/**
+ * Created only when recording starts, so sessions that aren't recorded don't count events.
+ */
+private EventCounter eventCounter;
+private Path file;
+
+@Inject
+SessionRecorder(Provider<EventCounter> eventCounterProvider) {
+	this.eventCounterProvider = eventCounterProvider;
+}
+
+/**
+ * Starts recording. The recording is written when {@link #finish()} is called. Must be called before backend emits its
+ * first event, so all the events are counted.
+ *
+ * @param file
+ * 	Where the recording will be written.
+ */
+public void start(Path file) {
+	this.file = file;
+	eventCounter = eventCounterProvider.get();
+}
+
+public boolean isRecording() {
+	return file != null;
+}
+
+/**
+ * Remembers an action player has just executed, if a session is being recorded.
+ *
+ * @param action
+ * 	An action.
+ */
+public void record(NonPointerAction action) {
+	if (file != null) {
+		actions.add(action.getLocalizationId());
+	}
+}
+
+/**
+ * Writes the recording, if a session is being recorded.
+ */
+public void finish() {
+	if (file == null) {
+		return;
+	}
+	List<String> lines = new ArrayList<>();
+	for (String action : actions) {
+		lines.add(ACTION + action);
+	}
+	for (ObjectIntMap.Entry<String> entry : eventCounter.getCounts().entries()) {
+		lines.add(EVENTS + entry.key + " " + entry.value);
+	}
+	try {
+		Files.write(file, lines, StandardCharsets.UTF_8);
+	} catch (IOException e) {
+		throw new RuntimeException("Could not write recording to " + file, e);
+	}
+	file = null;
+}
+
+/**
+ * @param file
+ * 	A recording written by {@link #finish()}.
+ * @return Localization ids of recorded actions, in order.
+ */
+static List<String> readActions(Path file) {
+	List<String> actions = new ArrayList<>();
+	for (String line : readLines(file)) {
+		if (line.startsWith(ACTION)) {
+			actions.add(line.substring(ACTION.length()));
+		}
+	}
+	return actions;
+}
+
+/**
+ * @param file
+ * 	A recording written by {@link #finish()}.
+ * @return Number of recorded events of each type.
+ */
+static ObjectIntMap<String> readEventCounts(Path file) {
+	ObjectIntMap<String> counts = new ObjectIntMap<>();
+	for (String line : readLines(file)) {
+		if (line.startsWith(EVENTS)) {
+			String[] parts = line.substring(EVENTS.length()).split(" ");
+			counts.put(parts[0], Integer.parseInt(parts[1]));
+		}
+	}
+	return counts;
+}
+
+private static List<String> readLines(Path file) {
+	try {
+		return Files.readAllLines(file, StandardCharsets.UTF_8);
+	} catch (IOException e) {
+		throw new RuntimeException("Could not read recording from " + file, e);
+	}
+}
+}
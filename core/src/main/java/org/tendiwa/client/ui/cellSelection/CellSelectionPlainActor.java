@@ -16,6 +16,14 @@ import org.tendiwa.geometry.CellSegment;
 public class CellSelectionPlainActor extends CellSelectionActor {
 public static Texture texture;
 private final CellPosition player;
+/**
+ * Cells between player and cursor, computed when either of them has last moved.
+ */
+private Cell[] segment;
+private int segmentStartX;
+private int segmentStartY;
+private int segmentEndX;
+private int segmentEndY;
 
 @Inject
 public CellSelectionPlainActor(@Named("player") CellPosition player, CursorPosition cursorPosition) {
@@ -36,13 +44,18 @@ public Texture getTexture() {
 @Override
 public void draw(Batch batch, float parentAlpha) {
 //	batch.begin();
-	Cell[] vector = CellSegment.cells(
-		player.getX(),
-		player.getY(),
-		cursorPosition.getWorldX(),
-		cursorPosition.getWorldY()
-	);
-	for (Cell coord : vector) {
+	int startX = player.getX();
+	int startY = player.getY();
+	int endX = cursorPosition.getWorldX();
+	int endY = cursorPosition.getWorldY();
+	if (segment == null || startX != segmentStartX || startY != segmentStartY || endX != segmentEndX || endY != segmentEndY) {
+		segment = CellSegment.cells(startX, startY, endX, endY);
+		segmentStartX = startX;
+		segmentStartY = startY;
+		segmentEndX = endX;
+		segmentEndY = endY;
+	}
+	for (Cell coord : segment) {
 		batch.draw(getTexture(), coord.getX() * GameScreen.TILE_SIZE, coord.getY() * GameScreen.TILE_SIZE);
 	}
 //	batch.end();
@@ -8,7 +8,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.ui.WidgetGroup;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import org.tendiwa.client.AtlasItems;
+import org.tendiwa.client.AtlasRegions;
 import org.tendiwa.client.TextureRegionFlipper;
 import org.tendiwa.client.ui.fonts.FontRegistry;
 import org.tendiwa.core.Equipment;
@@ -18,15 +18,17 @@ import org.tendiwa.core.ItemPile;
 @Singleton
 public class ItemViewFactory {
 private final Label.LabelStyle amountStyle;
+private final AtlasRegions atlasRegions;
 
 @Inject
-ItemViewFactory(FontRegistry fontRegistry) {
+ItemViewFactory(FontRegistry fontRegistry, AtlasRegions atlasRegions) {
+	this.atlasRegions = atlasRegions;
 	amountStyle = new Label.LabelStyle(fontRegistry.obtain(18, false), Color.WHITE);
 }
 
 public TextureRegion getItemImage(Item item) {
 	assert item != null;
-	return TextureRegionFlipper.flip(AtlasItems.getInstance().findRegion(item.getType().getResourceName()));
+	return TextureRegionFlipper.flip(atlasRegions.getItemRegion(item.getType()));
 }
 
 /**
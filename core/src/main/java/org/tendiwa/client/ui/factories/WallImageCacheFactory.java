@@ -1,8 +1,13 @@
 package org.tendiwa.client.ui.factories;
 
+import com.google.inject.assistedinject.Assisted;
 import org.tendiwa.client.WallImageCache;
 import org.tendiwa.core.WallType;
 
 public interface WallImageCacheFactory {
-public WallImageCache create(WallType type, int numberOfSlots);
+public WallImageCache create(
+	WallType type,
+	@Assisted("slotsPerPage") int slotsPerPage,
+	@Assisted("maxPages") int maxPages
+);
 }
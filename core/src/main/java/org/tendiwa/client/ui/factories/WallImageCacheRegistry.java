@@ -1,5 +1,6 @@
 package org.tendiwa.client.ui.factories;
 
+import com.badlogic.gdx.utils.Array;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import org.tendiwa.client.WallImageCache;
@@ -10,8 +11,16 @@ import java.util.Map;
 
 @Singleton
 public class WallImageCacheRegistry {
-private static final int NUMBER_OF_SLOTS_IN_CACHE = 144;
+private static final int NUMBER_OF_SLOTS_IN_PAGE = 144;
+/**
+ * How many pages of {@link #NUMBER_OF_SLOTS_IN_PAGE} images a cache may have before it starts evicting images.
+ */
+private static final int MAX_PAGES_BEFORE_EVICTION = 4;
 public final Map<WallType, WallImageCache> caches = new HashMap<>();
+/**
+ * Values of {@link #caches}, to be iterated each frame without creating an iterator.
+ */
+private final Array<WallImageCache> cacheArray = new Array<>();
 private final WallImageCacheFactory factory;
 
 @Inject
@@ -22,9 +31,43 @@ WallImageCacheRegistry(WallImageCacheFactory factory) {
 public WallImageCache obtain(WallType type) {
 	WallImageCache wallImageCache = caches.get(type);
 	if (wallImageCache == null) {
-		wallImageCache = factory.create(type, NUMBER_OF_SLOTS_IN_CACHE);
+		wallImageCache = factory.create(type, NUMBER_OF_SLOTS_IN_PAGE, MAX_PAGES_BEFORE_EVICTION);
 		caches.put(type, wallImageCache);
+		cacheArray.add(wallImageCache);
 	}
 	return wallImageCache;
 }
+
+/**
+ * Starts a new frame in all the caches, so images used in the previous frame may be evicted.
+ */
+public void nextFrame() {
+	for (int i = 0; i < cacheArray.size; i++) {
+		cacheArray.get(i).nextFrame();
+	}
+}
+
+public int getHits() {
+	int hits = 0;
+	for (int i = 0; i < cacheArray.size; i++) {
+		hits += cacheArray.get(i).getHits();
+	}
+	return hits;
+}
+
+public int getMisses() {
+	int misses = 0;
+	for (int i = 0; i < cacheArray.size; i++) {
+		misses += cacheArray.get(i).getMisses();
+	}
+	return misses;
+}
+
+public int getEvictions() {
+	int evictions = 0;
+	for (int i = 0; i < cacheArray.size; i++) {
+		evictions += cacheArray.get(i).getEvictions();
+	}
+	return evictions;
+}
 }
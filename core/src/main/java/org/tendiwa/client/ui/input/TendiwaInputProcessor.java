@@ -5,6 +5,7 @@ import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 import org.tendiwa.client.TaskManager;
+import org.tendiwa.client.replay.SessionRecorder;
 import org.tendiwa.client.ui.TendiwaUiStage;
 import org.tendiwa.client.ui.uiModes.UiMode;
 import org.tendiwa.core.Server;
@@ -16,6 +17,7 @@ private final TaskManager taskManager;
 private final InputToActionMapper mapper;
 private final Stage ui;
 private final Server server;
+private final SessionRecorder sessionRecorder;
 
 @Inject
 TendiwaInputProcessor(
@@ -23,13 +25,15 @@ TendiwaInputProcessor(
 	TaskManager taskManager,
 	@Assisted InputToActionMapper mapper,
 	TendiwaUiStage ui,
-    Server server
+    Server server,
+	SessionRecorder sessionRecorder
 ) {
 	this.model = model;
 	this.taskManager = taskManager;
 	this.mapper = mapper;
 	this.ui = ui;
 	this.server = server;
+	this.sessionRecorder = sessionRecorder;
 }
 
 @Override
@@ -43,6 +47,7 @@ public boolean keyDown(int keycode) {
 	NonPointerAction action = mapper.getAction(keycode);
 	if (action != null) {
 		action.act();
+		sessionRecorder.record(action);
 		return true;
 	}
 	return false;
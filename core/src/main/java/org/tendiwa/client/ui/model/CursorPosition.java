@@ -18,7 +18,7 @@ public void moveCursorBy(int dx, int dy) {
 	y += dy;
 }
 
-private void moveCursorTo(int x, int y) {
+public void moveCursorTo(int x, int y) {
 	this.x = x;
 	this.y = y;
 }
@@ -0,0 +1,35 @@
+#ifdef GL_ES
+precision mediump float;
+#endif
+
+// Per-cell field of view state: red channel is 1 for visible cells, green channel is 1 for cells that have been seen.
+uniform sampler2D u_state;
+// World pixel coordinates of the top left corner of the viewport.
+uniform vec2 u_startPixel;
+uniform float u_windowHeight;
+// World cell coordinates of the cell in the top left texel of u_state.
+uniform vec2 u_originCell;
+// Size of u_state in cells.
+uniform vec2 u_stateSize;
+uniform float u_tileSize;
+// Opacity of darkness above cells that have been seen, but are not visible now.
+uniform float u_seenDarkness;
+
+float rand(vec2 n) {
+	return fract(sin(dot(n, vec2(12.9898, 4.1414))) * 43758.5453);
+}
+
+void main() {
+	// gl_FragCoord has its origin in the bottom left corner, while y axis of the world points down.
+	vec2 worldPixel = vec2(u_startPixel.x + gl_FragCoord.x, u_startPixel.y + u_windowHeight - gl_FragCoord.y);
+	vec2 cell = worldPixel / u_tileSize - u_originCell;
+	// Linear filtering of u_state makes states blend smoothly between centers of neighbor cells.
+	vec4 state = texture2D(u_state, cell / u_stateSize);
+	float visible = state.r;
+	float seen = state.g;
+	float alpha = (1.0 - seen) + (seen - visible) * u_seenDarkness;
+	// Dither only where states blend. Noise is bound to world pixels, so it doesn't crawl when camera moves.
+	float edge = max(4.0 * visible * (1.0 - visible), 4.0 * seen * (1.0 - seen));
+	alpha += (rand(floor(worldPixel / 2.0)) - 0.5) * 0.5 * edge;
+	gl_FragColor = vec4(0.0, 0.0, 0.0, clamp(alpha, 0.0, 1.0));
+}
@@ -0,0 +1,183 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.tendiwa.client.headless.AllocationBudget;
+import org.tendiwa.client.headless.HeadlessRendering;
+import org.tendiwa.client.ui.cellSelection.CellSelectionPlainActor;
+import org.tendiwa.client.ui.factories.WallImageCacheFactory;
+import org.tendiwa.client.ui.factories.WallImageCacheRegistry;
+import org.tendiwa.client.ui.fonts.FontRegistry;
+import org.tendiwa.client.ui.model.CursorPosition;
+import org.tendiwa.core.World;
+import org.tendiwa.core.meta.CellPosition;
+
+import java.lang.reflect.Method;
+
+/**
+ * Heap allocated per frame by layers of {@link GameScreen#render(float)}, on a static scene and on a scene where player
+ * walks. Allocating in every frame makes garbage collector pause the game from time to time on long sessions, so
+ * layers have budgets, and most budgets are 0.
+ * <p>
+ * Collaborators of layers are real objects or {@link HeadlessRendering#stub(Class, HeadlessRendering.Answer)}s, but
+ * never mocks, since mocks allocate on every call. For the same reason GL calls go to a {@link
+ * org.tendiwa.client.headless.NoOpGL} rather than to a {@link org.tendiwa.client.headless.RecordingGL}.
+ * <p>
+ * GameScreen itself isn't rendered: it needs texture atlases, fonts and shaders of the post processor, which aren't
+ * available without resources built. So its layers that can be constructed without them are drawn one by one, in the
+ * order {@link GameScreen#render(float)} draws them. Layers that draw cells of the world are measured in {@link
+ * WorldLayersAllocationBudgetTest}.
+ */
+public class AllocationBudgetTest extends TestCase {
+private static final int WINDOW_WIDTH = 1024;
+private static final int WINDOW_HEIGHT = 768;
+/**
+ * Small enough for coordinates to be boxed into cached {@link Integer}s by stubs.
+ */
+private static final int WORLD_SIZE = 100;
+/**
+ * Player steps into the next cell each this many frames, as with animations enabled.
+ */
+private static final int FRAMES_PER_STEP = 8;
+/**
+ * Cells between player and cursor are found again after each step.
+ */
+private static final long WALKING_CELL_SELECTION_BUDGET = 64;
+private final AllocationBudget budget = new AllocationBudget(300, 600);
+private int playerX = WORLD_SIZE / 2;
+private int playerY = WORLD_SIZE / 2;
+private int frame;
+private SpriteBatch batch;
+private CursorPosition cursorPosition;
+private GameScreenViewport viewport;
+private StatusLayer statusLayer;
+private CellSelectionPlainActor cellSelection;
+private RenderQueue renderQueue;
+private TextureRegion region;
+private final Runnable walking = new Runnable() {
+	@Override
+	public void run() {
+		frame++;
+		if (frame % FRAMES_PER_STEP == 0) {
+			int dx = frame / (FRAMES_PER_STEP * 20) % 2 == 0 ? 1 : -1;
+			playerX += dx;
+			cursorPosition.moveCursorBy(dx, 0);
+		}
+	}
+};
+
+@Override
+protected void setUp() {
+	HeadlessRendering.startWithoutRecording(WINDOW_WIDTH, WINDOW_HEIGHT);
+	World world = Mockito.mock(World.class);
+	Mockito.when(world.getWidth()).thenReturn(WORLD_SIZE);
+	Mockito.when(world.getHeight()).thenReturn(WORLD_SIZE);
+	CellPosition player = HeadlessRendering.stub(CellPosition.class, new HeadlessRendering.Answer() {
+		@Override
+		public Object answer(Method method) {
+			switch (method.getName()) {
+				case "getX":
+					return playerX;
+				case "getY":
+					return playerY;
+				default:
+					return null;
+			}
+		}
+	});
+	batch = new SpriteBatch();
+	cursorPosition = new CursorPosition();
+	cursorPosition.moveCursorTo(playerX + 5, playerY + 3);
+	viewport = new GameScreenViewport(world, player, cursorPosition, Gdx.input);
+	FontRegistry fontRegistry = Mockito.mock(FontRegistry.class);
+	Mockito.when(fontRegistry.obtain(Mockito.anyInt(), Mockito.anyBoolean())).thenReturn(new BitmapFont(true));
+	WallImageCacheRegistry wallImageCacheRegistry = Guice.createInjector(new AbstractModule() {
+		@Override
+		protected void configure() {
+			bind(WallImageCacheFactory.class).toInstance(Mockito.mock(WallImageCacheFactory.class));
+		}
+	}).getInstance(WallImageCacheRegistry.class);
+	renderQueue = new RenderQueue();
+	statusLayer = new StatusLayer(
+		batch,
+		viewport,
+		fontRegistry,
+		cursorPosition,
+		wallImageCacheRegistry,
+		renderQueue,
+		new FrameProfiler()
+	);
+	cellSelection = new CellSelectionPlainActor(player, cursorPosition);
+	Pixmap pixmap = new Pixmap(GameScreen.TILE_SIZE, GameScreen.TILE_SIZE, Pixmap.Format.RGBA8888);
+	region = new TextureRegion(new Texture(pixmap));
+	pixmap.dispose();
+}
+
+@Test
+public void testStaticScene() {
+	budget.check("viewport", 0, AllocationBudget.STATIC, centerCamera());
+	budget.check("status", 0, AllocationBudget.STATIC, drawStatus());
+	budget.check("cell selection", 0, AllocationBudget.STATIC, drawCellSelection());
+	budget.check("stage queue", 0, AllocationBudget.STATIC, flushRenderQueue());
+}
+
+@Test
+public void testWalkingScene() {
+	budget.check("viewport", 0, walking, centerCamera());
+	budget.check("status", 0, walking, drawStatus());
+	budget.check("cell selection", WALKING_CELL_SELECTION_BUDGET, walking, drawCellSelection());
+	budget.check("stage queue", 0, walking, flushRenderQueue());
+}
+
+private Runnable centerCamera() {
+	return new Runnable() {
+		@Override
+		public void run() {
+			viewport.centerCamera(playerX * GameScreen.TILE_SIZE, playerY * GameScreen.TILE_SIZE);
+		}
+	};
+}
+
+private Runnable drawStatus() {
+	return new Runnable() {
+		@Override
+		public void run() {
+			statusLayer.draw();
+		}
+	};
+}
+
+private Runnable drawCellSelection() {
+	return new Runnable() {
+		@Override
+		public void run() {
+			batch.begin();
+			cellSelection.draw(batch, 1);
+			batch.end();
+		}
+	};
+}
+
+private Runnable flushRenderQueue() {
+	return new Runnable() {
+		@Override
+		public void run() {
+			batch.begin();
+			for (int i = 0; i < 10; i++) {
+				renderQueue.submit(RenderQueue.LAYER_OBJECTS, playerY + i, i % 2 == 0, region, playerX * GameScreen.TILE_SIZE, i);
+			}
+			renderQueue.flush(batch);
+			batch.end();
+		}
+	};
+}
+}
@@ -0,0 +1,82 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.tendiwa.client.headless.HeadlessRendering;
+import org.tendiwa.client.headless.RecordingGL;
+import org.tendiwa.client.ui.model.CursorPosition;
+import org.tendiwa.core.World;
+import org.tendiwa.core.meta.CellPosition;
+
+/**
+ * GL calls made by render code, counted with {@link RecordingGL}. A change in these numbers means a change in how much
+ * work the GPU driver gets per frame.
+ */
+public class HeadlessRenderingTest extends TestCase {
+private static final int WINDOW_WIDTH = 800;
+private static final int WINDOW_HEIGHT = 600;
+private RecordingGL gl;
+
+@Override
+protected void setUp() {
+	gl = HeadlessRendering.start(WINDOW_WIDTH, WINDOW_HEIGHT);
+}
+
+@Test
+public void testRenderQueueDrawsSpritesWithTheSameTextureTogether() {
+	TextureRegion first = createRegion();
+	TextureRegion second = createRegion();
+	SpriteBatch batch = new SpriteBatch();
+	RenderQueue queue = new RenderQueue();
+	queue.submit(RenderQueue.LAYER_OBJECTS, 0, false, first, 0, 0);
+	queue.submit(RenderQueue.LAYER_OBJECTS, 0, true, second, 32, 0);
+	queue.submit(RenderQueue.LAYER_OBJECTS, 0, false, first, 64, 0);
+	gl.reset();
+	batch.begin();
+	queue.flush(batch);
+	batch.end();
+	assertEquals(2, gl.getDrawCalls());
+	assertEquals(3 * 6, gl.getVertices());
+	assertEquals(0, gl.getTextureUploads());
+	assertEquals(2, queue.getLastFrameFlushes());
+	assertEquals(3, queue.getLastFrameUnsortedFlushes());
+}
+
+@Test
+public void testCellNetIsDrawnFromItsFramebufferInOneCall() {
+	World world = Mockito.mock(World.class);
+	Mockito.when(world.getWidth()).thenReturn(100);
+	Mockito.when(world.getHeight()).thenReturn(100);
+	GameScreenViewport viewport = new GameScreenViewport(
+		world,
+		Mockito.mock(CellPosition.class),
+		new CursorPosition(),
+		Gdx.input
+	);
+	CellNetLayer cellNet = new CellNetLayer(new SpriteBatch(), viewport);
+
+	gl.reset();
+	cellNet.buildNet();
+	assertEquals(2, gl.getFramebufferBinds());
+	assertEquals(1, gl.getDrawCalls());
+
+	gl.reset();
+	cellNet.draw();
+	assertEquals(1, gl.getDrawCalls());
+	assertEquals(0, gl.getFramebufferBinds());
+	assertEquals(0, gl.getTextureUploads());
+}
+
+private static TextureRegion createRegion() {
+	Pixmap pixmap = new Pixmap(32, 32, Pixmap.Format.RGBA8888);
+	Texture texture = new Texture(pixmap);
+	pixmap.dispose();
+	return new TextureRegion(texture);
+}
+}
@@ -0,0 +1,99 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.tendiwa.client.stress.StressWorld;
+import org.tendiwa.client.stress.StressWorldSettings;
+import org.tendiwa.client.ui.factories.*;
+import org.tendiwa.client.ui.model.CursorPosition;
+import org.tendiwa.client.ui.model.MessageLog;
+import org.tendiwa.core.BorderObject;
+import org.tendiwa.core.Character;
+import org.tendiwa.core.clients.RenderBorder;
+import org.tendiwa.core.clients.RenderPlane;
+import org.tendiwa.core.meta.CellPosition;
+
+/**
+ * A {@link StressWorld} and the client objects that observe it: {@link TendiwaStage} with mocked actors and factories,
+ * since atlases are not available without resources built, and real {@link DirtyCellTracker} and {@link
+ * NeighborMasks}. Character actors are always visible.
+ */
+class StressClient {
+final StressWorld stressWorld;
+final GameScreenViewport viewport;
+final WallLayer wallLayer;
+final BorderObjectActorFactory borderObjectActorFactory;
+final DirtyCellTracker dirtyCells;
+final NeighborMasks neighborMasks;
+final TendiwaStage stage;
+
+StressClient(StressWorldSettings settings) {
+	stressWorld = new StressWorld(settings);
+	CellPosition playerPosition = Mockito.mock(CellPosition.class);
+	Mockito.when(playerPosition.getX()).thenReturn(stressWorld.getPlayer().getX());
+	Mockito.when(playerPosition.getY()).thenReturn(stressWorld.getPlayer().getY());
+	viewport = new GameScreenViewport(
+		stressWorld.getWorld(),
+		playerPosition,
+		new CursorPosition(),
+		Gdx.input
+	);
+	GraphicsConfig config = new GraphicsConfig();
+	config.animationsEnabled = false;
+	wallLayer = Mockito.mock(WallLayer.class);
+	borderObjectActorFactory = Mockito.mock(BorderObjectActorFactory.class);
+	Mockito.when(borderObjectActorFactory.create(
+		Mockito.any(RenderBorder.class),
+		Mockito.any(BorderObject.class),
+		Mockito.any(RenderPlane.class)
+	)).thenAnswer(new Answer<BorderObjectActor>() {
+		@Override
+		public BorderObjectActor answer(InvocationOnMock invocation) {
+			return Mockito.mock(BorderObjectActor.class);
+		}
+	});
+	CharacterActorFactory characterActorFactory = Mockito.mock(CharacterActorFactory.class);
+	Mockito.when(characterActorFactory.create(Mockito.any(Character.class))).thenAnswer(new Answer<CharacterActor>() {
+		@Override
+		public CharacterActor answer(InvocationOnMock invocation) {
+			CharacterActor actor = Mockito.mock(CharacterActor.class);
+			Mockito.when(actor.getCharacter()).thenReturn((Character) invocation.getArguments()[0]);
+			Mockito.when(actor.isVisible()).thenReturn(true);
+			return actor;
+		}
+	});
+	dirtyCells = new DirtyCellTracker(stressWorld.getWorld());
+	neighborMasks = new NeighborMasks(
+		stressWorld.getRenderWorld(),
+		stressWorld.getPlayer(),
+		stressWorld.getWorld(),
+		dirtyCells
+	);
+	stage = new TendiwaStage(
+		stressWorld.getTimeStream(),
+		new SpriteBatch(),
+		stressWorld.getWorld(),
+		wallLayer,
+		characterActorFactory,
+		Mockito.mock(MessageLog.class),
+		stressWorld.getPlayer(),
+		stressWorld.getModel(),
+		stressWorld.getRenderWorld(),
+		viewport,
+		Mockito.mock(SoundActorFactory.class),
+		stressWorld.getPlayerSeer(),
+		borderObjectActorFactory,
+		Mockito.mock(ItemActorFactory.class),
+		Mockito.mock(ProjectileActorFactory.class),
+		Mockito.mock(ObjectActorFactory.class),
+		Mockito.mock(BorderMarkerFactory.class),
+		config,
+		stressWorld.getSinglePlayerMode(),
+		dirtyCells,
+		new RenderQueue()
+	);
+}
+}
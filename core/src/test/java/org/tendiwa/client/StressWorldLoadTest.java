@@ -0,0 +1,58 @@
+package org.tendiwa.client;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.tendiwa.client.headless.HeadlessRendering;
+import org.tendiwa.client.stress.StressWorldSettings;
+import org.tendiwa.core.Character;
+
+/**
+ * Loads {@link TendiwaStage} with the largest {@link org.tendiwa.client.stress.StressWorld}, which takes much longer
+ * than other tests, so it is run only with the {@code load-tests} profile: {@code mvn test -P load-tests}.
+ */
+public class StressWorldLoadTest extends TestCase {
+private static final int WINDOW_WIDTH = 2560;
+private static final int WINDOW_HEIGHT = 1440;
+private static final int CHECKED_NPCS = 100;
+
+@Override
+protected void setUp() {
+	HeadlessRendering.start(WINDOW_WIDTH, WINDOW_HEIGHT);
+}
+
+@Test
+public void testNpcsOfALargeWorldMoveAndAreDrawn() {
+	StressClient client = new StressClient(StressWorldSettings.large());
+	client.stressWorld.deliverInitialTerrain();
+	client.dirtyCells.clear();
+	int[] xBefore = new int[CHECKED_NPCS];
+	for (int i = 0; i < CHECKED_NPCS; i++) {
+		xBefore[i] = client.stressWorld.getNpc(i).getX();
+	}
+	int moved = client.stressWorld.moveNpcs();
+	assertTrue(moved > 0);
+	assertTrue(client.dirtyCells.getNumberOfDirtyCells() > 0);
+	for (int i = 0; i < CHECKED_NPCS; i++) {
+		Character npc = client.stressWorld.getNpc(i);
+		if (npc.getX() != xBefore[i]) {
+			Mockito.verify(client.stage.getCharacterActor(npc)).setX(npc.getX());
+		}
+	}
+	client.stage.act(1 / 60f);
+	client.stage.draw();
+	// Characters are submitted by whole rows, from the row above the viewport to the second row below it.
+	int startRow = client.viewport.getStartCellY() - 1;
+	int endRow = client.viewport.getMaxRenderCellY() + 2;
+	int drawn = 0;
+	for (Character character : client.stressWorld.getTimeStream().getCharacters()) {
+		boolean inDrawnRows = character.getY() >= startRow && character.getY() < endRow;
+		if (inDrawnRows) {
+			drawn++;
+		}
+		Mockito.verify(client.stage.getCharacterActor(character), Mockito.times(inDrawnRows ? 1 : 0))
+			.submit(Mockito.any(RenderQueue.class), Mockito.eq(character.getY()));
+	}
+	assertTrue(drawn > 0);
+}
+}
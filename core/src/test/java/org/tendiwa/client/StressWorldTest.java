@@ -0,0 +1,75 @@
+package org.tendiwa.client;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.tendiwa.client.headless.HeadlessRendering;
+import org.tendiwa.client.stress.StressWorld;
+import org.tendiwa.client.stress.StressWorldSettings;
+import org.tendiwa.core.BorderObject;
+import org.tendiwa.core.Character;
+import org.tendiwa.core.clients.RenderBorder;
+import org.tendiwa.core.clients.RenderPlane;
+
+/**
+ * Loads {@link TendiwaStage} and layers with {@link StressWorld}s of the sizes seen in production, through the same
+ * events backend sends. What is checked is that every seen wall and door reaches the client. Bigger worlds are loaded
+ * by {@link StressWorldLoadTest}.
+ */
+public class StressWorldTest extends TestCase {
+/**
+ * A big monitor, so the viewport is as big as players have it.
+ */
+private static final int WINDOW_WIDTH = 2560;
+private static final int WINDOW_HEIGHT = 1440;
+private StressClient client;
+
+@Override
+protected void setUp() {
+	HeadlessRendering.start(WINDOW_WIDTH, WINDOW_HEIGHT);
+}
+
+@Test
+public void testInitialTerrainReachesEverySeenCell() {
+	client = new StressClient(StressWorldSettings.medium());
+	int seenCells = client.stressWorld.deliverInitialTerrain();
+	assertEquals(seenCells, client.dirtyCells.getNumberOfDirtyCells());
+	Mockito.verify(client.wallLayer, Mockito.times(client.stressWorld.countSeenWalls()))
+		.addWall(Mockito.anyInt(), Mockito.anyInt());
+	Mockito.verify(client.borderObjectActorFactory, Mockito.times(client.stressWorld.countSeenDoors()))
+		.create(Mockito.any(RenderBorder.class), Mockito.any(BorderObject.class), Mockito.any(RenderPlane.class));
+	assertMasksMatchWorld();
+}
+
+@Test
+public void testPlayerWalkingRevealsNewWalls() {
+	client = new StressClient(StressWorldSettings.medium());
+	client.stressWorld.deliverInitialTerrain();
+	int steps = 0;
+	for (int i = 0; i < 20; i++) {
+		if (client.stressWorld.movePlayer(1, 0) || client.stressWorld.movePlayer(0, 1)) {
+			steps++;
+		}
+	}
+	assertTrue(steps > 0);
+	Mockito.verify(client.wallLayer, Mockito.times(client.stressWorld.countSeenWalls()))
+		.addWall(Mockito.anyInt(), Mockito.anyInt());
+	assertMasksMatchWorld();
+}
+
+/**
+ * Checks that masks of cells around player agree with the world after dirty cells have been processed.
+ */
+private void assertMasksMatchWorld() {
+	client.neighborMasks.update();
+	client.dirtyCells.clear();
+	Character player = client.stressWorld.getPlayer();
+	for (int x = player.getX() - 5; x <= player.getX() + 5; x++) {
+		for (int y = player.getY() - 5; y <= player.getY() + 5; y++) {
+			int mask = client.neighborMasks.get(x, y);
+			assertTrue((mask & NeighborMasks.VISIBLE) != 0);
+			assertEquals(client.stressWorld.hasWall(x, y), (mask & NeighborMasks.WALL) != 0);
+		}
+	}
+}
+}
@@ -0,0 +1,239 @@
+package org.tendiwa.client;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.bitfire.postprocessing.PostProcessor;
+import junit.framework.TestCase;
+import org.apache.log4j.Logger;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.tendiwa.client.headless.AllocationBudget;
+import org.tendiwa.client.headless.HeadlessRendering;
+import org.tendiwa.client.stress.StressWorld;
+import org.tendiwa.client.stress.StressWorldSettings;
+import org.tendiwa.client.ui.factories.FloorTransitionsProvidersRegistry;
+import org.tendiwa.client.ui.model.CursorPosition;
+import org.tendiwa.core.FloorType;
+import org.tendiwa.core.ItemType;
+import org.tendiwa.core.meta.CellPosition;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Heap allocated per frame by the layers that draw cells of a {@link StressWorld}: floor, field of view and items. The
+ * scenes are a static one and one where camera pans a few cells back and forth without the world changing, which is
+ * what these layers do between player's steps.
+ * <p>
+ * Backend objects of a stress world are mocks, which allocate on every call, and so are the collaborators that would
+ * need atlases. Layers call them only to bake chunks and to repaint caches, which happens during warm-up frames, so
+ * measured frames don't call them at all, and a call that sneaks into them shows as an exceeded budget.
+ */
+public class WorldLayersAllocationBudgetTest extends TestCase {
+private static final int WINDOW_WIDTH = 1024;
+private static final int WINDOW_HEIGHT = 768;
+/**
+ * How far camera pans from player in each direction, in cells. Less than the margin of {@link ItemsLayer}'s cache.
+ */
+private static final int PAN_CELLS = 4;
+private static final int PAN_PIXELS_PER_FRAME = 4;
+private final AllocationBudget budget = new AllocationBudget(300, 600);
+private final GraphicsConfig config = new GraphicsConfig();
+private int playerPixelX;
+private int playerPixelY;
+private int frame;
+private GameScreenViewport viewport;
+private FloorLayer floorLayer;
+private FloorFieldOfViewLayer fieldOfViewLayer;
+private ItemsLayer itemsLayer;
+private final Runnable panning = new Runnable() {
+	@Override
+	public void run() {
+		frame++;
+		int period = PAN_CELLS * 2 * GameScreen.TILE_SIZE / PAN_PIXELS_PER_FRAME;
+		int phase = frame % (period * 2);
+		int offset = (phase < period ? phase : period * 2 - phase) * PAN_PIXELS_PER_FRAME
+			- PAN_CELLS * GameScreen.TILE_SIZE;
+		viewport.centerCamera(playerPixelX + offset, playerPixelY);
+	}
+};
+
+@Override
+protected void setUp() {
+	HeadlessRendering.startWithoutRecording(WINDOW_WIDTH, WINDOW_HEIGHT);
+	StressWorldSettings settings = new StressWorldSettings();
+	settings.width = 200;
+	settings.height = 200;
+	settings.npcs = 0;
+	StressWorld stressWorld = new StressWorld(settings);
+	stressWorld.deliverInitialTerrain();
+	// Boxed once, so that layers asking for player's position don't make the stub allocate.
+	final Integer playerX = stressWorld.getPlayer().getX();
+	final Integer playerY = stressWorld.getPlayer().getY();
+	playerPixelX = playerX * GameScreen.TILE_SIZE;
+	playerPixelY = playerY * GameScreen.TILE_SIZE;
+	CellPosition player = HeadlessRendering.stub(CellPosition.class, new HeadlessRendering.Answer() {
+		@Override
+		public Object answer(Method method) {
+			switch (method.getName()) {
+				case "getX":
+					return playerX;
+				case "getY":
+					return playerY;
+				default:
+					return null;
+			}
+		}
+	});
+	config.animationsEnabled = false;
+	viewport = new GameScreenViewport(stressWorld.getWorld(), player, new CursorPosition(), Gdx.input);
+	DirtyCellTracker dirtyCells = new DirtyCellTracker(stressWorld.getWorld());
+	NeighborMasks neighborMasks = new NeighborMasks(
+		stressWorld.getRenderWorld(),
+		stressWorld.getPlayer(),
+		stressWorld.getWorld(),
+		dirtyCells
+	);
+	SpriteBatch batch = new SpriteBatch();
+	PostProcessor postProcessor = new PostProcessor(false, false, true);
+	TextureRegion region = createRegion();
+	floorLayer = new FloorLayer(
+		stressWorld.getWorld(),
+		stressWorld.getRenderWorld(),
+		viewport,
+		Logger.getLogger(FloorLayer.class),
+		SpriteBatch.createDefaultShader(),
+		SpriteBatch.createDefaultShader(),
+		createTransitionsRegistry(region),
+		config,
+		dirtyCells,
+		neighborMasks,
+		createFloorTextures(stressWorld.getFloorTypes(), region)
+	);
+	FovEdgeOpaque fovEdgeOpaque = Mockito.mock(FovEdgeOpaque.class);
+	setBatch(fovEdgeOpaque, new SpriteBatch());
+	fieldOfViewLayer = new FloorFieldOfViewLayer(
+		batch,
+		player,
+		new FrameBuffer(Pixmap.Format.RGBA8888, WINDOW_WIDTH, WINDOW_HEIGHT, true),
+		postProcessor,
+		SpriteBatch.createDefaultShader(),
+		SpriteBatch.createDefaultShader(),
+		viewport,
+		fovEdgeOpaque,
+		dirtyCells,
+		config,
+		neighborMasks
+	);
+	TextureAtlas atlasUi = new TextureAtlas();
+	atlasUi.addRegion("multiItem", region);
+	AtlasRegions atlasRegions = Mockito.mock(AtlasRegions.class);
+	Mockito.when(atlasRegions.getItemRegion(Mockito.any(ItemType.class))).thenReturn(
+		new TextureAtlas.AtlasRegion(region.getTexture(), 0, 0, GameScreen.TILE_SIZE, GameScreen.TILE_SIZE)
+	);
+	itemsLayer = new ItemsLayer(
+		batch,
+		viewport,
+		stressWorld.getRenderWorld(),
+		atlasUi,
+		stressWorld.getPlayer(),
+		stressWorld.getWorld(),
+		postProcessor,
+		dirtyCells,
+		atlasRegions
+	);
+}
+
+private static TextureRegion createRegion() {
+	Pixmap pixmap = new Pixmap(GameScreen.TILE_SIZE, GameScreen.TILE_SIZE, Pixmap.Format.RGBA8888);
+	TextureRegion region = new TextureRegion(new Texture(pixmap));
+	pixmap.dispose();
+	return region;
+}
+
+/**
+ * Makes 2 variants of each floor type, all of them the same image.
+ */
+private static FloorTextures createFloorTextures(FloorType[] floorTypes, TextureRegion region) {
+	TextureRegion[][] regions = new TextureRegion[floorTypes.length][];
+	for (int i = 0; i < floorTypes.length; i++) {
+		regions[i] = new TextureRegion[]{region, region};
+	}
+	return new FloorTextures(floorTypes, regions);
+}
+
+private static FloorTransitionsProvidersRegistry createTransitionsRegistry(TextureRegion region) {
+	TransitionsToFloor transitions = Mockito.mock(TransitionsToFloor.class);
+	Mockito.when(transitions.getTransition(Mockito.anyInt(), Mockito.anyInt(), Mockito.anyInt())).thenReturn(region);
+	FloorTransitionsProvidersRegistry registry = Mockito.mock(FloorTransitionsProvidersRegistry.class);
+	Mockito.when(registry.obtain(Mockito.any(FloorType.class))).thenReturn(transitions);
+	return registry;
+}
+
+/**
+ * A mock doesn't run the constructor that creates {@link FovEdgeOpaque#batch}, so it is set here.
+ */
+private static void setBatch(FovEdgeOpaque fovEdgeOpaque, SpriteBatch batch) {
+	try {
+		Field field = FovEdgeOpaque.class.getField("batch");
+		field.setAccessible(true);
+		field.set(fovEdgeOpaque, batch);
+	} catch (ReflectiveOperationException e) {
+		throw new RuntimeException("Could not set batch of a mocked FovEdgeOpaque", e);
+	}
+}
+
+@Test
+public void testStaticScene() {
+	budget.check("floor", 0, AllocationBudget.STATIC, drawFloor());
+	config.gpuFieldOfView = false;
+	budget.check("field of view", 0, AllocationBudget.STATIC, drawFieldOfView());
+	config.gpuFieldOfView = true;
+	budget.check("field of view on GPU", 0, AllocationBudget.STATIC, drawFieldOfView());
+	budget.check("items", 0, AllocationBudget.STATIC, drawItems());
+}
+
+/**
+ * Field of view drawn on CPU is redrawn whenever camera moves, and drawing it calls {@link FovEdgeOpaque}, which is a
+ * mock here, so only the GPU path is measured.
+ */
+@Test
+public void testPanningScene() {
+	budget.check("floor", 0, panning, drawFloor());
+	config.gpuFieldOfView = true;
+	budget.check("field of view on GPU", 0, panning, drawFieldOfView());
+	budget.check("items", 0, panning, drawItems());
+}
+
+private Runnable drawFloor() {
+	return new Runnable() {
+		@Override
+		public void run() {
+			floorLayer.draw();
+		}
+	};
+}
+
+private Runnable drawFieldOfView() {
+	return new Runnable() {
+		@Override
+		public void run() {
+			fieldOfViewLayer.draw();
+		}
+	};
+}
+
+private Runnable drawItems() {
+	return new Runnable() {
+		@Override
+		public void run() {
+			itemsLayer.draw();
+		}
+	};
+}
+}
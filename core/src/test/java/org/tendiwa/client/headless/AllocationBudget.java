@@ -0,0 +1,76 @@
+package org.tendiwa.client.headless;
+
+import junit.framework.Assert;
+import org.tendiwa.client.AllocatedBytes;
+
+/**
+ * Runs a piece of render code for many frames and fails if it allocates more heap per frame than it may. Code is first
+ * run for some frames unmeasured, so lazily created objects and JIT compilation don't count; after that a layer that
+ * draws the same scene is expected to allocate nothing at all.
+ * <p>
+ * On JVMs that can't count allocated bytes (see {@link AllocatedBytes#isSupported()}) nothing fails.
+ */
+public class AllocationBudget {
+/**
+ * A scene where nothing changes between frames.
+ */
+public static final Runnable STATIC = new Runnable() {
+	@Override
+	public void run() {
+	}
+};
+private final int warmUpFrames;
+private final int frames;
+
+/**
+ * @param warmUpFrames
+ * 	How many frames are run before measuring.
+ * @param frames
+ * 	How many frames are measured.
+ */
+public AllocationBudget(int warmUpFrames, int frames) {
+	this.warmUpFrames = warmUpFrames;
+	this.frames = frames;
+}
+
+/**
+ * @param betweenFrames
+ * 	What changes in the scene before each frame, e.g. player moving. Its allocations are not counted.
+ * @param frame
+ * 	Render code of a layer.
+ * @return Bytes allocated by {@code frame} per frame, on average.
+ */
+public long measure(Runnable betweenFrames, Runnable frame) {
+	for (int i = 0; i < warmUpFrames; i++) {
+		betweenFrames.run();
+		frame.run();
+	}
+	long allocated = 0;
+	for (int i = 0; i < frames; i++) {
+		betweenFrames.run();
+		long start = AllocatedBytes.ofCurrentThread();
+		frame.run();
+		allocated += AllocatedBytes.since(start);
+	}
+	return allocated / frames;
+}
+
+/**
+ * Fails if a layer allocates more than its budget per frame.
+ *
+ * @param layer
+ * 	Name of a layer, for the failure message.
+ * @param bytesPerFrame
+ * 	Budget of the layer.
+ * @param betweenFrames
+ * 	What changes in the scene before each frame. Its allocations are not counted.
+ * @param frame
+ * 	Render code of the layer.
+ */
+public void check(String layer, long bytesPerFrame, Runnable betweenFrames, Runnable frame) {
+	long allocated = measure(betweenFrames, frame);
+	if (allocated > bytesPerFrame) {
+		Assert.fail(layer + " allocates " + allocated + " bytes per frame, while its budget is " + bytesPerFrame);
+	}
+}
+}
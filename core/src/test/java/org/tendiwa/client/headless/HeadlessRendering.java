@@ -0,0 +1,141 @@
+package org.tendiwa.client.headless;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.backends.lwjgl.LwjglFiles;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Sets up libgdx to run render code without a window and a GPU: GL calls go to a {@link RecordingGL} or a {@link
+ * NoOpGL}, files are read as on desktop, and {@link Gdx#graphics}, {@link Gdx#input} and {@link Gdx#app} are stubs that
+ * report a window of a given size, no pressed keys and a steady 60 frames per second.
+ * <p>
+ * Pixmaps still work, because only the native libraries are loaded, which don't need a context.
+ */
+public final class HeadlessRendering {
+private static final float DELTA_TIME = 1 / 60f;
+
+private HeadlessRendering() {
+}
+
+/**
+ * Replaces libgdx's globals with headless ones. May be called several times, e.g. once per test; each call starts
+ * with a new {@link RecordingGL}.
+ *
+ * @param width
+ * 	Width of the imaginary window in pixels.
+ * @param height
+ * 	Height of the imaginary window in pixels.
+ * @return The GL all the render code will call.
+ */
+public static RecordingGL start(int width, int height) {
+	RecordingGL recorder = new RecordingGL();
+	GL30 gl = (GL30) Proxy.newProxyInstance(
+		GL30.class.getClassLoader(),
+		new Class<?>[]{GL30.class},
+		recorder
+	);
+	install(gl, gl, width, height);
+	return recorder;
+}
+
+/**
+ * Same as {@link #start(int, int)}, but GL calls go to a {@link NoOpGL}, which doesn't allocate, instead of a {@link
+ * RecordingGL}, which does. There is no GL30, so render code takes its GL20 paths.
+ *
+ * @param width
+ * 	Width of the imaginary window in pixels.
+ * @param height
+ * 	Height of the imaginary window in pixels.
+ */
+public static void startWithoutRecording(int width, int height) {
+	install(new NoOpGL(), null, width, height);
+}
+
+private static void install(GL20 gl20, GL30 gl30, int width, int height) {
+	GdxNativesLoader.load();
+	Gdx.gl = gl20;
+	Gdx.gl20 = gl20;
+	Gdx.gl30 = gl30;
+	Gdx.files = new LwjglFiles();
+	// Boxed once, so that render code asking for the window size doesn't make the stub allocate.
+	final Integer boxedWidth = width;
+	final Integer boxedHeight = height;
+	final Float boxedDeltaTime = DELTA_TIME;
+	final Integer boxedFramesPerSecond = Math.round(1 / DELTA_TIME);
+	Gdx.graphics = stub(Graphics.class, new Answer() {
+		@Override
+		public Object answer(Method method) {
+			switch (method.getName()) {
+				case "getWidth":
+					return boxedWidth;
+				case "getHeight":
+					return boxedHeight;
+				case "getDeltaTime":
+				case "getRawDeltaTime":
+					return boxedDeltaTime;
+				case "getFramesPerSecond":
+					return boxedFramesPerSecond;
+				case "getGL20":
+					return Gdx.gl20;
+				case "getGL30":
+					return Gdx.gl30;
+				case "isGL20Available":
+					return true;
+				case "isGL30Available":
+					return Gdx.gl30 != null;
+				default:
+					return RecordingGL.defaultValue(method.getReturnType());
+			}
+		}
+	});
+	Gdx.input = stub(Input.class, null);
+	Gdx.app = stub(Application.class, null);
+}
+
+/**
+ * Makes an implementation of an interface whose methods do nothing and return default values, unless {@code answer}
+ * says otherwise. Unlike a mock, it doesn't remember calls, so it doesn't allocate when called with no arguments.
+ *
+ * @param type
+ * 	An interface.
+ * @param answer
+ * 	What methods return, or null.
+ * @return An implementation of the interface.
+ */
+public static <T> T stub(Class<T> type, final Answer answer) {
+	return type.cast(Proxy.newProxyInstance(
+		type.getClassLoader(),
+		new Class<?>[]{type},
+		new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if (method.getDeclaringClass() == Object.class) {
+					return RecordingGL.invokeObjectMethod(proxy, method, args);
+				}
+				if (answer != null) {
+					return answer.answer(method);
+				}
+				return RecordingGL.defaultValue(method.getReturnType());
+			}
+		}
+	));
+}
+
+public interface Answer {
+	/**
+	 * @param method
+	 * 	A method being called.
+	 * @return What the method returns.
+	 */
+	Object answer(Method method);
+}
+}
@@ -0,0 +1,237 @@
+package org.tendiwa.client.headless;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GL30;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.nio.IntBuffer;
+import java.util.*;
+
+/**
+ * An implementation of {@link GL20} and {@link GL30} that draws nothing: it records and counts calls and answers
+ * queries so that libgdx's {@link com.badlogic.gdx.graphics.Texture}, {@link com.badlogic.gdx.graphics.glutils.FrameBuffer}
+ * and {@link com.badlogic.gdx.graphics.glutils.ShaderProgram} work as if on a real GPU: generated names are unique,
+ * shaders compile, programs link, framebuffers are complete and every uniform exists.
+ * <p>
+ * Implemented with {@link java.lang.reflect.Proxy}, so it doesn't depend on the exact set of methods of the libgdx
+ * version in use. Get an instance with {@link HeadlessRendering#start(int, int)}.
+ */
+public class RecordingGL implements InvocationHandler {
+private static final Set<String> DRAW_CALLS = new HashSet<>(Arrays.asList(
+	"glDrawArrays",
+	"glDrawElements",
+	"glDrawRangeElements",
+	"glDrawArraysInstanced",
+	"glDrawElementsInstanced"
+));
+private static final Set<String> TEXTURE_UPLOADS = new HashSet<>(Arrays.asList(
+	"glTexImage2D",
+	"glTexSubImage2D",
+	"glCompressedTexImage2D",
+	"glCompressedTexSubImage2D",
+	"glTexImage3D",
+	"glTexSubImage3D",
+	"glCompressedTexImage3D",
+	"glCompressedTexSubImage3D"
+));
+private static final Set<String> STATE_CHANGES = new HashSet<>(Arrays.asList(
+	"glEnable",
+	"glDisable",
+	"glBlendFunc",
+	"glBlendFuncSeparate",
+	"glBlendEquation",
+	"glBlendEquationSeparate",
+	"glDepthFunc",
+	"glDepthMask",
+	"glColorMask",
+	"glStencilFunc",
+	"glStencilOp",
+	"glStencilMask",
+	"glCullFace",
+	"glViewport",
+	"glScissor",
+	"glActiveTexture",
+	"glBindTexture",
+	"glUseProgram",
+	"glBindBuffer",
+	"glBindFramebuffer",
+	"glBindRenderbuffer",
+	"glBindVertexArray"
+));
+private static final int MAX_SIZE = 4096;
+private final List<String> calls = new ArrayList<>();
+private final Map<String, Integer> counts = new HashMap<>();
+private int drawCalls;
+private int vertices;
+private int stateChanges;
+private int textureUploads;
+private int framebufferBinds;
+private int nextName = 1;
+
+@Override
+public Object invoke(Object proxy, Method method, Object[] args) {
+	if (method.getDeclaringClass() == Object.class) {
+		return invokeObjectMethod(proxy, method, args);
+	}
+	String name = method.getName();
+	calls.add(name);
+	Integer count = counts.get(name);
+	counts.put(name, count == null ? 1 : count + 1);
+	if (DRAW_CALLS.contains(name)) {
+		drawCalls++;
+		vertices += vertexCount(name, args);
+	}
+	if (TEXTURE_UPLOADS.contains(name)) {
+		textureUploads++;
+	}
+	if (STATE_CHANGES.contains(name)) {
+		stateChanges++;
+	}
+	if (name.equals("glBindFramebuffer")) {
+		framebufferBinds++;
+	}
+	return answer(name, method.getReturnType(), args);
+}
+
+/**
+ * @return The count argument of a draw call.
+ */
+private static int vertexCount(String name, Object[] args) {
+	switch (name) {
+		case "glDrawArrays":
+		case "glDrawArraysInstanced":
+			return (Integer) args[2];
+		case "glDrawRangeElements":
+			return (Integer) args[3];
+		default:
+			return (Integer) args[1];
+	}
+}
+
+/**
+ * Answers a call the way a working GPU would, as far as libgdx cares.
+ */
+private Object answer(String name, Class<?> returnType, Object[] args) {
+	switch (name) {
+		case "glCheckFramebufferStatus":
+			return GL20.GL_FRAMEBUFFER_COMPLETE;
+		case "glCreateShader":
+		case "glCreateProgram":
+		case "glGetUniformLocation":
+		case "glGetAttribLocation":
+			return nextName++;
+		case "glGetShaderiv":
+		case "glGetProgramiv":
+			// Shaders compile and programs link; there are no active uniforms or attributes to enumerate.
+			int parameter = (Integer) args[1];
+			boolean ok = parameter == GL20.GL_COMPILE_STATUS || parameter == GL20.GL_LINK_STATUS;
+			((IntBuffer) args[2]).put(((IntBuffer) args[2]).position(), ok ? 1 : 0);
+			return null;
+		case "glGetIntegerv":
+			// Only limits like GL_MAX_TEXTURE_SIZE are queried by libgdx on desktop.
+			((IntBuffer) args[1]).put(((IntBuffer) args[1]).position(), MAX_SIZE);
+			return null;
+	}
+	if (name.startsWith("glGen")) {
+		if (returnType == int.class) {
+			return nextName++;
+		}
+		// glGenTextures(n, buffer) and the like.
+		int n = (Integer) args[0];
+		IntBuffer buffer = (IntBuffer) args[1];
+		for (int i = 0; i < n; i++) {
+			buffer.put(buffer.position() + i, nextName++);
+		}
+		return null;
+	}
+	return defaultValue(returnType);
+}
+
+static Object defaultValue(Class<?> type) {
+	if (type == boolean.class) {
+		return false;
+	}
+	if (type == int.class) {
+		return 0;
+	}
+	if (type == long.class) {
+		return 0L;
+	}
+	if (type == float.class) {
+		return 0f;
+	}
+	if (type == String.class) {
+		return "";
+	}
+	return null;
+}
+
+static Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+	switch (method.getName()) {
+		case "equals":
+			return proxy == args[0];
+		case "hashCode":
+			return System.identityHashCode(proxy);
+		default:
+			return proxy.getClass().getSimpleName();
+	}
+}
+
+/**
+ * Forgets all the recorded calls and counts, e.g. before a frame that is measured.
+ */
+public void reset() {
+	calls.clear();
+	counts.clear();
+	drawCalls = 0;
+	vertices = 0;
+	stateChanges = 0;
+	textureUploads = 0;
+	framebufferBinds = 0;
+}
+
+/**
+ * @return Names of all the GL methods called since the last {@link #reset()}, in the order they were called.
+ */
+public List<String> getCalls() {
+	return Collections.unmodifiableList(calls);
+}
+
+/**
+ * @param methodName
+ * 	Name of a GL method, e.g. "glBindTexture".
+ * @return How many times the method was called since the last {@link #reset()}.
+ */
+public int getCount(String methodName) {
+	Integer count = counts.get(methodName);
+	return count == null ? 0 : count;
+}
+
+public int getDrawCalls() {
+	return drawCalls;
+}
+
+/**
+ * @return Number of vertices (or indices, for indexed drawing) passed to draw calls.
+ */
+public int getVertices() {
+	return vertices;
+}
+
+/**
+ * @return Number of calls that change blending, depth, stencil, viewport, or bound textures, buffers, framebuffers
+ * and shaders.
+ */
+public int getStateChanges() {
+	return stateChanges;
+}
+
+public int getTextureUploads() {
+	return textureUploads;
+}
+
+public int getFramebufferBinds() {
+	return framebufferBinds;
+}
+}
@@ -0,0 +1,636 @@
+package org.tendiwa.client.stress;
+
+import com.badlogic.gdx.utils.IntMap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.objenesis.ObjenesisStd;
+import org.tendiwa.core.*;
+import org.tendiwa.core.Character;
+import org.tendiwa.core.clients.RenderBorder;
+import org.tendiwa.core.clients.RenderCell;
+import org.tendiwa.core.clients.RenderPlane;
+import org.tendiwa.core.clients.RenderWorld;
+import org.tendiwa.core.events.EventFovChange;
+import org.tendiwa.core.events.EventInitialTerrain;
+import org.tendiwa.core.events.EventMove;
+import org.tendiwa.core.observation.Finishable;
+import org.tendiwa.core.observation.Observer;
+import org.tendiwa.core.observation.ThreadProxy;
+import org.tendiwa.core.player.SinglePlayerMode;
+import org.tendiwa.core.vision.Seer;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+/**
+ * A world generated from {@link StressWorldSettings} that stands in for backend in tests, so the client can be loaded
+ * with as many cells, walls, doors, items and characters as needed. Backend objects ({@link World}, {@link
+ * HorizontalPlane}, {@link RenderWorld}, characters etc.) are mocks that answer from arrays generated from a seed, so
+ * the same settings always give the same world.
+ * <p>
+ * Observers subscribed to {@link #getModel()} receive events made by a stress world the same way they receive them
+ * from backend: {@link #deliverInitialTerrain()} first, then {@link #movePlayer(int, int)} and {@link #moveNpcs()} as
+ * many times as needed. Animations should be disabled in {@link org.tendiwa.client.GraphicsConfig}, since nobody waits
+ * for them to finish.
+ */
+public class StressWorld {
+private static final ObjenesisStd objenesis = new ObjenesisStd();
+private final StressWorldSettings settings;
+private final int width;
+private final int height;
+private final boolean[] walls;
+/**
+ * Index of floor in {@link #floorTypes} for each cell.
+ */
+private final byte[] floors;
+private final boolean[] itemPiles;
+/**
+ * Side of a cell with a door on it, or null.
+ */
+private final CardinalDirection[] doors;
+private final boolean[] seen;
+private final boolean[] visible;
+private final int[] npcX;
+private final int[] npcY;
+private final FloorType[] floorTypes;
+private final WallType wallType;
+private final BorderObject door;
+private final ItemType itemType;
+private final IntMap<RenderCell> renderCells = new IntMap<>();
+private final IntMap<ItemCollection> itemCollections = new IntMap<>();
+private final Map<Class<?>, List<Observer<?>>> observers = new HashMap<>();
+private final Random random;
+private final World world;
+private final HorizontalPlane plane;
+private final RenderPlane renderPlane;
+private final RenderWorld renderWorld;
+private final ThreadProxy model;
+private final Character player;
+private final Character[] npcCharacters;
+private final Seer playerSeer;
+private final SinglePlayerMode singlePlayerMode;
+private final TimeStream timeStream;
+private int playerX;
+private int playerY;
+
+public StressWorld(StressWorldSettings settings) {
+	this.settings = settings;
+	this.width = settings.width;
+	this.height = settings.height;
+	random = new Random(settings.seed);
+	walls = new boolean[width * height];
+	floors = new byte[width * height];
+	itemPiles = new boolean[width * height];
+	doors = new CardinalDirection[width * height];
+	seen = new boolean[width * height];
+	visible = new boolean[width * height];
+	floorTypes = createFloorTypes();
+	wallType = Mockito.mock(WallType.class);
+	Mockito.when(wallType.getResourceName()).thenReturn("stress_wall");
+	door = Mockito.mock(BorderObject.class);
+	itemType = Mockito.mock(ItemType.class);
+	generateCells();
+	playerX = width / 2;
+	playerY = height / 2;
+	walls[playerY * width + playerX] = false;
+	npcX = new int[settings.npcs];
+	npcY = new int[settings.npcs];
+	placeNpcs();
+
+	plane = createPlane();
+	world = Mockito.mock(World.class);
+	Mockito.when(world.getWidth()).thenReturn(width);
+	Mockito.when(world.getHeight()).thenReturn(height);
+	Mockito.when(world.getDefaultPlane()).thenReturn(plane);
+	renderPlane = createRenderPlane();
+	renderWorld = Mockito.mock(RenderWorld.class);
+	Mockito.when(renderWorld.getCurrentPlane()).thenReturn(renderPlane);
+	model = createModel();
+	player = createCharacter(-1);
+	npcCharacters = new Character[settings.npcs];
+	for (int i = 0; i < settings.npcs; i++) {
+		npcCharacters[i] = createCharacter(i);
+	}
+	playerSeer = Mockito.mock(Seer.class);
+	Mockito.when(playerSeer.canSee(Mockito.anyInt(), Mockito.anyInt())).thenAnswer(new Answer<Boolean>() {
+		@Override
+		public Boolean answer(InvocationOnMock invocation) {
+			return isVisible((Integer) invocation.getArguments()[0], (Integer) invocation.getArguments()[1]);
+		}
+	});
+	singlePlayerMode = Mockito.mock(SinglePlayerMode.class);
+	Mockito.when(singlePlayerMode.isPlayer(player)).thenReturn(true);
+	timeStream = Mockito.mock(TimeStream.class);
+	Mockito.when(timeStream.getCharacters()).thenAnswer(new Answer<Object>() {
+		@Override
+		public Object answer(InvocationOnMock invocation) {
+			List<Character> characters = new ArrayList<>(npcCharacters.length + 1);
+			characters.add(player);
+			Collections.addAll(characters, npcCharacters);
+			return adapt(invocation.getMethod().getReturnType(), characters);
+		}
+	});
+	updateVisibility();
+}
+
+private FloorType[] createFloorTypes() {
+	FloorType[] types = new FloorType[settings.floorTypes];
+	for (int i = 0; i < types.length; i++) {
+		types[i] = Mockito.mock(FloorType.class);
+		Mockito.when(types[i].isLiquid()).thenReturn(i < settings.liquidFloorTypes);
+		Mockito.when(types[i].getResourceName()).thenReturn("stress_floor_" + i);
+	}
+	return types;
+}
+
+private void generateCells() {
+	int patchesX = (width + settings.floorPatchSize - 1) / settings.floorPatchSize;
+	int patchesY = (height + settings.floorPatchSize - 1) / settings.floorPatchSize;
+	byte[] patches = new byte[patchesX * patchesY];
+	for (int i = 0; i < patches.length; i++) {
+		patches[i] = (byte) random.nextInt(settings.floorTypes);
+	}
+	for (int y = 0; y < height; y++) {
+		for (int x = 0; x < width; x++) {
+			int index = y * width + x;
+			floors[index] = patches[y / settings.floorPatchSize * patchesX + x / settings.floorPatchSize];
+			walls[index] = random.nextFloat() < settings.wallDensity;
+			if (walls[index]) {
+				continue;
+			}
+			itemPiles[index] = random.nextFloat() < settings.itemPileDensity;
+			if (random.nextFloat() < settings.doorDensity) {
+				doors[index] = random.nextBoolean() ? Directions.N : Directions.W;
+			}
+		}
+	}
+}
+
+private void placeNpcs() {
+	for (int i = 0; i < settings.npcs; i++) {
+		int x;
+		int y;
+		do {
+			x = random.nextInt(width);
+			y = random.nextInt(height);
+		} while (walls[y * width + x] || x == playerX && y == playerY);
+		npcX[i] = x;
+		npcY[i] = y;
+	}
+}
+
+private HorizontalPlane createPlane() {
+	HorizontalPlane plane = Mockito.mock(HorizontalPlane.class);
+	Mockito.when(plane.hasWall(Mockito.anyInt(), Mockito.anyInt())).thenAnswer(new CellAnswer() {
+		@Override
+		Object answer(int x, int y) {
+			return contains(x, y) && walls[y * width + x];
+		}
+	});
+	Mockito.when(plane.containsCell(Mockito.anyInt(), Mockito.anyInt())).thenAnswer(new CellAnswer() {
+		@Override
+		Object answer(int x, int y) {
+			return contains(x, y);
+		}
+	});
+	Mockito.when(plane.hasAnyItems(Mockito.anyInt(), Mockito.anyInt())).thenAnswer(new CellAnswer() {
+		@Override
+		Object answer(int x, int y) {
+			return contains(x, y) && itemPiles[y * width + x];
+		}
+	});
+	Mockito.when(plane.getItems(Mockito.anyInt(), Mockito.anyInt())).thenAnswer(new CellAnswer() {
+		@Override
+		Object answer(int x, int y) {
+			return getItemCollection(x, y);
+		}
+	});
+	return plane;
+}
+
+private RenderPlane createRenderPlane() {
+	RenderPlane renderPlane = Mockito.mock(RenderPlane.class);
+	Mockito.when(renderPlane.getCell(Mockito.anyInt(), Mockito.anyInt())).thenAnswer(new CellAnswer() {
+		@Override
+		Object answer(int x, int y) {
+			return isSeen(x, y) ? getRenderCell(x, y) : null;
+		}
+	});
+	Mockito.when(renderPlane.hasCell(Mockito.anyInt(), Mockito.anyInt())).thenAnswer(new CellAnswer() {
+		@Override
+		Object answer(int x, int y) {
+			return isSeen(x, y);
+		}
+	});
+	Mockito.when(renderPlane.isCellVisible(Mockito.anyInt(), Mockito.anyInt())).thenAnswer(new CellAnswer() {
+		@Override
+		Object answer(int x, int y) {
+			return isVisible(x, y);
+		}
+	});
+	Mockito.when(renderPlane.isCellUnseen(Mockito.anyInt(), Mockito.anyInt())).thenAnswer(new CellAnswer() {
+		@Override
+		Object answer(int x, int y) {
+			return isSeen(x, y) && !isVisible(x, y);
+		}
+	});
+	return renderPlane;
+}
+
+/**
+ * Makes a model that remembers its observers instead of sending them to backend.
+ */
+private ThreadProxy createModel() {
+	ThreadProxy model = Mockito.mock(ThreadProxy.class);
+	Mockito.doAnswer(new Answer<Void>() {
+		@Override
+		public Void answer(InvocationOnMock invocation) {
+			Class<?> type = (Class<?>) invocation.getArguments()[1];
+			List<Observer<?>> typeObservers = observers.get(type);
+			if (typeObservers == null) {
+				typeObservers = new ArrayList<>();
+				observers.put(type, typeObservers);
+			}
+			typeObservers.add((Observer<?>) invocation.getArguments()[0]);
+			return null;
+		}
+	}).when(model).subscribe(Mockito.any(Observer.class), Mockito.any(Class.class));
+	return model;
+}
+
+/**
+ * @param npc
+ * 	Index of an NPC, or -1 for player.
+ */
+private Character createCharacter(final int npc) {
+	Character character = Mockito.mock(Character.class);
+	Mockito.when(character.getX()).thenAnswer(new Answer<Integer>() {
+		@Override
+		public Integer answer(InvocationOnMock invocation) {
+			return npc == -1 ? playerX : npcX[npc];
+		}
+	});
+	Mockito.when(character.getY()).thenAnswer(new Answer<Integer>() {
+		@Override
+		public Integer answer(InvocationOnMock invocation) {
+			return npc == -1 ? playerY : npcY[npc];
+		}
+	});
+	Mockito.when(character.getPlane()).thenReturn(plane);
+	return character;
+}
+
+private RenderCell getRenderCell(int x, int y) {
+	int index = y * width + x;
+	RenderCell cell = renderCells.get(index);
+	if (cell == null) {
+		final int cellX = x;
+		final int cellY = y;
+		cell = Mockito.mock(RenderCell.class);
+		setFields(cell, "x", x, "y", y);
+		Mockito.when(cell.getX()).thenReturn(x);
+		Mockito.when(cell.getY()).thenReturn(y);
+		Mockito.when(cell.getFloor()).thenReturn(floorTypes[floors[index]]);
+		Mockito.when(cell.hasWall()).thenReturn(walls[index]);
+		Mockito.when(cell.getObject()).thenReturn(walls[index] ? wallType : null);
+		Mockito.when(cell.isVisible()).thenAnswer(new Answer<Boolean>() {
+			@Override
+			public Boolean answer(InvocationOnMock invocation) {
+				return isVisible(cellX, cellY);
+			}
+		});
+		renderCells.put(index, cell);
+	}
+	return cell;
+}
+
+private ItemCollection getItemCollection(int x, int y) {
+	int index = y * width + x;
+	ItemCollection items = itemCollections.get(index);
+	if (items == null) {
+		final List<Item> pile = new ArrayList<>(settings.itemsPerPile);
+		for (int i = 0; i < settings.itemsPerPile; i++) {
+			Item item = Mockito.mock(Item.class);
+			Mockito.when(item.getType()).thenReturn(itemType);
+			pile.add(item);
+		}
+		items = Mockito.mock(ItemCollection.class);
+		Mockito.when(items.size()).thenReturn(pile.size());
+		Mockito.when(items.iterator()).thenAnswer(new Answer<Iterator<Item>>() {
+			@Override
+			public Iterator<Item> answer(InvocationOnMock invocation) {
+				return pile.iterator();
+			}
+		});
+		itemCollections.put(index, items);
+	}
+	return items;
+}
+
+private RenderBorder createRenderBorder(int x, int y, CardinalDirection side) {
+	RenderBorder border = Mockito.mock(RenderBorder.class);
+	setFields(border, "x", x, "y", y, "side", side);
+	Mockito.when(border.getX()).thenReturn(x);
+	Mockito.when(border.getY()).thenReturn(y);
+	Mockito.when(border.getSide()).thenReturn(side);
+	Mockito.when(border.getObject()).thenReturn(door);
+	return border;
+}
+
+/**
+ * Sends backend the cells around player, as backend does when a game starts.
+ *
+ * @return Number of cells that have been seen.
+ */
+public int deliverInitialTerrain() {
+	List<RenderCell> seenCells = new ArrayList<>();
+	List<RenderBorder> seenBorders = new ArrayList<>();
+	for (int y = 0; y < height; y++) {
+		for (int x = 0; x < width; x++) {
+			if (visible[y * width + x]) {
+				see(x, y, seenCells, seenBorders);
+			}
+		}
+	}
+	deliver(newEvent(
+		EventInitialTerrain.class,
+		"seenCells", seenCells,
+		"seenBorders", seenBorders
+	));
+	return seenCells.size();
+}
+
+/**
+ * Moves player to a neighbor cell and sends the move and the change of field of view it caused.
+ *
+ * @param dx
+ * 	Offset along x axis.
+ * @param dy
+ * 	Offset along y axis.
+ * @return false if player can't move there.
+ */
+public boolean movePlayer(int dx, int dy) {
+	int x = playerX + dx;
+	int y = playerY + dy;
+	if (!contains(x, y) || walls[y * width + x]) {
+		return false;
+	}
+	int xPrev = playerX;
+	int yPrev = playerY;
+	playerX = x;
+	playerY = y;
+	deliverMove(player, xPrev, yPrev);
+	boolean[] visibleBefore = visible.clone();
+	updateVisibility();
+	List<RenderCell> seenCells = new ArrayList<>();
+	List<RenderBorder> seenBorders = new ArrayList<>();
+	List<Integer> unseenCells = new ArrayList<>();
+	int minX = Math.max(0, Math.min(xPrev, x) - settings.visionRadius);
+	int maxX = Math.min(width - 1, Math.max(xPrev, x) + settings.visionRadius);
+	int minY = Math.max(0, Math.min(yPrev, y) - settings.visionRadius);
+	int maxY = Math.min(height - 1, Math.max(yPrev, y) + settings.visionRadius);
+	for (int cellY = minY; cellY <= maxY; cellY++) {
+		for (int cellX = minX; cellX <= maxX; cellX++) {
+			int index = cellY * width + cellX;
+			if (visible[index] && !visibleBefore[index]) {
+				see(cellX, cellY, seenCells, seenBorders);
+			} else if (!visible[index] && visibleBefore[index]) {
+				unseenCells.add(Chunk.cellHash(cellX, cellY, height));
+			}
+		}
+	}
+	deliver(newEvent(
+		EventFovChange.class,
+		"seenCells", seenCells,
+		"unseenCells", unseenCells,
+		"seenBorders", seenBorders,
+		"unseenBorders", Collections.emptyList()
+	));
+	return true;
+}
+
+/**
+ * Moves each NPC to a random neighbor cell without a wall, if there is one, and sends a move for each of them.
+ *
+ * @return Number of NPCs that have moved.
+ */
+public int moveNpcs() {
+	int moved = 0;
+	for (int i = 0; i < npcX.length; i++) {
+		int direction = random.nextInt(4);
+		int x = npcX[i] + (direction == 1 ? 1 : direction == 3 ? -1 : 0);
+		int y = npcY[i] + (direction == 2 ? 1 : direction == 0 ? -1 : 0);
+		if (!contains(x, y) || walls[y * width + x]) {
+			continue;
+		}
+		int xPrev = npcX[i];
+		int yPrev = npcY[i];
+		npcX[i] = x;
+		npcY[i] = y;
+		deliverMove(npcCharacters[i], xPrev, yPrev);
+		moved++;
+	}
+	return moved;
+}
+
+private void deliverMove(Character character, int xPrev, int yPrev) {
+	deliver(newEvent(
+		EventMove.class,
+		"character", character,
+		"xPrev", xPrev,
+		"yPrev", yPrev,
+		"movingStyle", MovingStyle.STEP
+	));
+}
+
+private void see(int x, int y, List<RenderCell> seenCells, List<RenderBorder> seenBorders) {
+	int index = y * width + x;
+	seen[index] = true;
+	seenCells.add(getRenderCell(x, y));
+	if (doors[index] != null) {
+		seenBorders.add(createRenderBorder(x, y, doors[index]));
+	}
+}
+
+private void updateVisibility() {
+	Arrays.fill(visible, false);
+	int radius = settings.visionRadius;
+	for (int y = Math.max(0, playerY - radius); y <= Math.min(height - 1, playerY + radius); y++) {
+		for (int x = Math.max(0, playerX - radius); x <= Math.min(width - 1, playerX + radius); x++) {
+			int dx = x - playerX;
+			int dy = y - playerY;
+			if (dx * dx + dy * dy <= radius * radius) {
+				visible[y * width + x] = true;
+			}
+		}
+	}
+}
+
+@SuppressWarnings("unchecked")
+private void deliver(Object event) {
+	List<Observer<?>> typeObservers = observers.get(event.getClass());
+	if (typeObservers == null) {
+		return;
+	}
+	for (Observer observer : new ArrayList<>(typeObservers)) {
+		observer.update(event, Mockito.mock(Finishable.class));
+	}
+}
+
+/**
+ * Creates an event without calling its constructor, as backend events can only be made by backend.
+ */
+private static <T> T newEvent(Class<T> type, Object... namesAndValues) {
+	T event = type.cast(objenesis.newInstance(type));
+	setFields(event, namesAndValues);
+	return event;
+}
+
+private static void setFields(Object object, Object... namesAndValues) {
+	for (int i = 0; i < namesAndValues.length; i += 2) {
+		try {
+			Field field = findField(object.getClass(), (String) namesAndValues[i]);
+			field.setAccessible(true);
+			Object value = namesAndValues[i + 1];
+			if (value instanceof Collection) {
+				value = adapt(field.getType(), (Collection<?>) value);
+			}
+			field.set(object, value);
+		} catch (ReflectiveOperationException e) {
+			throw new RuntimeException("Could not set " + namesAndValues[i] + " of " + object.getClass(), e);
+		}
+	}
+}
+
+private static Field findField(Class<?> type, String name) throws NoSuchFieldException {
+	for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+		try {
+			return c.getDeclaredField(name);
+		} catch (NoSuchFieldException ignored) {
+		}
+	}
+	throw new NoSuchFieldException(name);
+}
+
+/**
+ * Copies values to a collection of a type backend declares.
+ */
+private static Object adapt(Class<?> type, Collection<?> values) {
+	if (type.isAssignableFrom(ImmutableList.class)) {
+		return ImmutableList.copyOf(values);
+	}
+	if (type.isAssignableFrom(ImmutableSet.class)) {
+		return ImmutableSet.copyOf(values);
+	}
+	if (type.isAssignableFrom(ArrayList.class)) {
+		return new ArrayList<>(values);
+	}
+	if (type.isAssignableFrom(LinkedHashSet.class)) {
+		return new LinkedHashSet<>(values);
+	}
+	throw new IllegalArgumentException("Can't make a " + type + " of " + values.size() + " values");
+}
+
+private boolean contains(int x, int y) {
+	return x >= 0 && y >= 0 && x < width && y < height;
+}
+
+private boolean isSeen(int x, int y) {
+	return contains(x, y) && seen[y * width + x];
+}
+
+private boolean isVisible(int x, int y) {
+	return contains(x, y) && visible[y * width + x];
+}
+
+/**
+ * @return Number of seen cells with walls.
+ */
+public int countSeenWalls() {
+	int count = 0;
+	for (int i = 0; i < seen.length; i++) {
+		if (seen[i] && walls[i]) {
+			count++;
+		}
+	}
+	return count;
+}
+
+/**
+ * @return Number of doors in seen cells.
+ */
+public int countSeenDoors() {
+	int count = 0;
+	for (int i = 0; i < seen.length; i++) {
+		if (seen[i] && doors[i] != null) {
+			count++;
+		}
+	}
+	return count;
+}
+
+public boolean hasWall(int x, int y) {
+	return walls[y * width + x];
+}
+
+public World getWorld() {
+	return world;
+}
+
+public HorizontalPlane getPlane() {
+	return plane;
+}
+
+public RenderWorld getRenderWorld() {
+	return renderWorld;
+}
+
+public ThreadProxy getModel() {
+	return model;
+}
+
+public Character getPlayer() {
+	return player;
+}
+
+/**
+ * @param i
+ * 	Index of an NPC, from 0 to {@link StressWorldSettings#npcs} exclusive.
+ * @return The NPC.
+ */
+public Character getNpc(int i) {
+	return npcCharacters[i];
+}
+
+public Seer getPlayerSeer() {
+	return playerSeer;
+}
+
+public SinglePlayerMode getSinglePlayerMode() {
+	return singlePlayerMode;
+}
+
+public TimeStream getTimeStream() {
+	return timeStream;
+}
+
+public FloorType[] getFloorTypes() {
+	return floorTypes;
+}
+
+/**
+ * An answer for methods that take coordinates of a cell.
+ */
+private static abstract class CellAnswer implements Answer<Object> {
+	@Override
+	public Object answer(InvocationOnMock invocation) {
+		Object[] arguments = invocation.getArguments();
+		return answer((Integer) arguments[0], (Integer) arguments[1]);
+	}
+
+	abstract Object answer(int x, int y);
+}
+}
@@ -0,0 +1,57 @@
+package org.tendiwa.client.stress;
+
+/**
+ * What a {@link StressWorld} is made of. Densities are shares of cells, from 0 to 1.
+ */
+public class StressWorldSettings {
+public int width = 500;
+public int height = 500;
+public long seed = 1;
+/**
+ * Share of cells with walls.
+ */
+public float wallDensity = 0.25f;
+/**
+ * Number of different floor types. Floor changes in patches of {@link #floorPatchSize} cells, so there are
+ * transitions between floors all over the world.
+ */
+public int floorTypes = 6;
+/**
+ * How many of {@link #floorTypes} are liquid.
+ */
+public int liquidFloorTypes = 2;
+public int floorPatchSize = 5;
+/**
+ * Share of cells without walls that have items lying in them.
+ */
+public float itemPileDensity = 0.05f;
+public int itemsPerPile = 3;
+/**
+ * Share of cells without walls that have a door on one of their borders.
+ */
+public float doorDensity = 0.03f;
+public int npcs = 2000;
+/**
+ * Radius of the circle around player where cells are visible. Walls don't block vision in a stress world.
+ */
+public int visionRadius = 40;
+
+/**
+ * @return Settings of a world as big as the biggest ones of backend.
+ */
+public static StressWorldSettings medium() {
+	return new StressWorldSettings();
+}
+
+/**
+ * @return Settings of a world bigger than any of backend, with a crowd to match.
+ */
+public static StressWorldSettings large() {
+	StressWorldSettings settings = new StressWorldSettings();
+	settings.width = 2000;
+	settings.height = 2000;
+	settings.npcs = 30000;
+	settings.visionRadius = 60;
+	return settings;
+}
+}